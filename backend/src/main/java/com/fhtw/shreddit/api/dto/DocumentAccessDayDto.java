@@ -0,0 +1,9 @@
+package com.fhtw.shreddit.api.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Number of times a document was opened on one day.
+ */
+public record DocumentAccessDayDto(LocalDate date, long count) {
+}
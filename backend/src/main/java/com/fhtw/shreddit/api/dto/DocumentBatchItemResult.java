@@ -0,0 +1,27 @@
+package com.fhtw.shreddit.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one item of a batch create request. {@code index} refers to the position in the request list.
+ * {@code ocrQueued} is false for a created document whose OCR request could not be published; the document
+ * exists and must not be created again.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record DocumentBatchItemResult(int index, Long id, String status, String error, Boolean ocrQueued) {
+
+    public static final String CREATED = "CREATED";
+    public static final String REJECTED = "REJECTED";
+
+    public static DocumentBatchItemResult created(int index, Long id) {
+        return new DocumentBatchItemResult(index, id, CREATED, null, true);
+    }
+
+    public DocumentBatchItemResult withoutOcr() {
+        return new DocumentBatchItemResult(index, id, status, error, false);
+    }
+
+    public static DocumentBatchItemResult rejected(int index, String error) {
+        return new DocumentBatchItemResult(index, null, REJECTED, error, null);
+    }
+}
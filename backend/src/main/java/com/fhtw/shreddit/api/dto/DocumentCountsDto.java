@@ -0,0 +1,7 @@
+package com.fhtw.shreddit.api.dto;
+
+/**
+ * Comment and note counts of one document, used for the badges of the document list.
+ */
+public record DocumentCountsDto(Long documentId, long comments, long notes) {
+}
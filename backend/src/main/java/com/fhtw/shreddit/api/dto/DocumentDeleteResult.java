@@ -0,0 +1,10 @@
+package com.fhtw.shreddit.api.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a (bulk) delete request. {@code deleted} documents are gone from all listings at once;
+ * their files, index entries and comments are removed in the background.
+ */
+public record DocumentDeleteResult(List<Long> deleted, List<Long> notFound, List<Long> forbidden) {
+}
@@ -0,0 +1,17 @@
+package com.fhtw.shreddit.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Everything the detail view of a document needs, in one response. Sections that were not requested
+ * are omitted. {@code commentsNextCursor} continues the comment listing of GET /documents/{id}/comments.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record DocumentDetailDto(DocumentDto document,
+                                List<NoteDto> notes,
+                                List<CommentDto> comments,
+                                String commentsNextCursor,
+                                List<DocumentAccessDayDto> accessStats) {
+}
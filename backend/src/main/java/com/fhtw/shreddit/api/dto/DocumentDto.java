@@ -7,6 +7,8 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
@@ -24,6 +26,10 @@ public class DocumentDto {
     private String ocrText;
     private LocalDate documentDate;
     private String tags;
+    private Long version;
+    private LocalDateTime updatedAt;
+    // Search only: HTML-escaped fragments per field with matches wrapped in <mark>
+    private Map<String, List<String>> highlights;
 
     public DocumentDto() {}
     @JsonCreator
@@ -128,4 +134,28 @@ public class DocumentDto {
     public void setTags(String tags) {
         this.tags = tags;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Map<String, List<String>> getHighlights() {
+        return highlights;
+    }
+
+    public void setHighlights(Map<String, List<String>> highlights) {
+        this.highlights = highlights;
+    }
 }
@@ -0,0 +1,91 @@
+package com.fhtw.shreddit.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Slim DTO for document listings. Deliberately carries none of the large TEXT columns
+ * (content, summary, ocr_text); those are only served by the document detail endpoint.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DocumentListItemDto {
+    private Long id;
+    private String title;
+    private LocalDateTime createdAt;
+    private String filename;
+    private String summaryStatus;
+    private LocalDate documentDate;
+    private String tags;
+
+    public DocumentListItemDto() {}
+
+    // Used by the JPQL constructor expressions in DocumentRepository
+    public DocumentListItemDto(Long id, String title, LocalDateTime createdAt, String filename,
+                               String summaryStatus, LocalDate documentDate, String tags) {
+        this.id = id;
+        this.title = title;
+        this.createdAt = createdAt;
+        this.filename = filename;
+        this.summaryStatus = summaryStatus;
+        this.documentDate = documentDate;
+        this.tags = tags;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public void setFilename(String filename) {
+        this.filename = filename;
+    }
+
+    public String getSummaryStatus() {
+        return summaryStatus;
+    }
+
+    public void setSummaryStatus(String summaryStatus) {
+        this.summaryStatus = summaryStatus;
+    }
+
+    public LocalDate getDocumentDate() {
+        return documentDate;
+    }
+
+    public void setDocumentDate(LocalDate documentDate) {
+        this.documentDate = documentDate;
+    }
+
+    public String getTags() {
+        return tags;
+    }
+
+    public void setTags(String tags) {
+        this.tags = tags;
+    }
+}
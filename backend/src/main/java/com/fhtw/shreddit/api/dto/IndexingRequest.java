@@ -0,0 +1,48 @@
+package com.fhtw.shreddit.api.dto;
+
+/**
+ * Request to (re-)index a document, as published by the OCR and GenAI workers on the indexing queue.
+ */
+public class IndexingRequest {
+    private Long documentId;
+    private String bucket;
+    private String objectName;
+
+    public IndexingRequest() {
+    }
+
+    public IndexingRequest(Long documentId, String bucket, String objectName) {
+        this.documentId = documentId;
+        this.bucket = bucket;
+        this.objectName = objectName;
+    }
+
+    public Long getDocumentId() {
+        return documentId;
+    }
+
+    public void setDocumentId(Long documentId) {
+        this.documentId = documentId;
+    }
+
+    public String getBucket() {
+        return bucket;
+    }
+
+    public void setBucket(String bucket) {
+        this.bucket = bucket;
+    }
+
+    public String getObjectName() {
+        return objectName;
+    }
+
+    public void setObjectName(String objectName) {
+        this.objectName = objectName;
+    }
+
+    @Override
+    public String toString() {
+        return "IndexingRequest{documentId=" + documentId + ", bucket='" + bucket + "', objectName='" + objectName + "'}";
+    }
+}
@@ -0,0 +1,9 @@
+package com.fhtw.shreddit.api.dto;
+
+import java.util.List;
+
+/**
+ * @param documentMonths matching documents per month of their document date, keys formatted as {@code yyyy-MM}
+ */
+public record SearchFacetsDto(List<FacetBucketDto> tags, List<FacetBucketDto> documentMonths) {
+}
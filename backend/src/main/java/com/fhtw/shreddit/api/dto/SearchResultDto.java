@@ -0,0 +1,25 @@
+package com.fhtw.shreddit.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * One page of search results.
+ *
+ * @param total      number of matching documents, a lower bound unless {@code totalExact}
+ * @param nextCursor pass as {@code cursor} to get the next page; absent on the last page
+ * @param facets     tag and document date counts; only on the first page of an index search
+ * @param servedBy   {@value #SERVED_BY_INDEX}, or {@value #SERVED_BY_DATABASE} when the index was unavailable
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SearchResultDto(List<DocumentDto> items, long total, boolean totalExact, String nextCursor,
+                              SearchFacetsDto facets, String servedBy) {
+
+    public static final String SERVED_BY_INDEX = "index";
+    public static final String SERVED_BY_DATABASE = "database";
+
+    public SearchResultDto(List<DocumentDto> items, long total, boolean totalExact, String nextCursor) {
+        this(items, total, totalExact, nextCursor, null, null);
+    }
+}
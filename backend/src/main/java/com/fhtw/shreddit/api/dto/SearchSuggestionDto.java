@@ -0,0 +1,4 @@
+package com.fhtw.shreddit.api.dto;
+
+public record SearchSuggestionDto(Long id, String title) {
+}
@@ -0,0 +1,15 @@
+package com.fhtw.shreddit.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Entry of the "similar documents" list; {@code score} is only comparable within one response.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SimilarDocumentDto(Long id, String title, LocalDateTime createdAt, LocalDate documentDate,
+                                 List<String> tags, double score) {
+}
@@ -4,12 +4,18 @@ import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.json.jackson.JacksonJsonpMapper;
 import co.elastic.clients.transport.ElasticsearchTransport;
 import co.elastic.clients.transport.rest_client.RestClientTransport;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.apache.http.Header;
 import org.apache.http.HttpHost;
 import org.apache.http.message.BasicHeader;
 import org.elasticsearch.client.RestClient;
 import org.elasticsearch.client.RestClientBuilder;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -17,6 +23,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 
 @Configuration
+@ConditionalOnProperty(name = "search.engine", havingValue = "elasticsearch", matchIfMissing = true)
 public class ElasticsearchConfig {
 
     @Value("${elasticsearch.url:http://localhost:9200}")
@@ -28,6 +35,12 @@ public class ElasticsearchConfig {
     @Value("${elasticsearch.password:}")
     private String password;
 
+    @Value("${elasticsearch.connect-timeout-ms:2000}")
+    private int connectTimeoutMs;
+
+    @Value("${elasticsearch.socket-timeout-ms:10000}")
+    private int socketTimeoutMs;
+
     @Bean
     public RestClient restClient() {
         RestClientBuilder builder = RestClient.builder(HttpHost.create(elasticsearchUrl));
@@ -36,12 +49,22 @@ public class ElasticsearchConfig {
                     .encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
             builder.setDefaultHeaders(new Header[]{new BasicHeader("Authorization", authHeader)});
         }
+        // Upper bound for any request, including ones a caller has already given up on
+        builder.setRequestConfigCallback(config -> config
+                .setConnectTimeout(connectTimeoutMs)
+                .setSocketTimeout(socketTimeoutMs));
         return builder.build();
     }
 
     @Bean
     public ElasticsearchClient elasticsearchClient(RestClient restClient) {
-        ElasticsearchTransport transport = new RestClientTransport(restClient, new JacksonJsonpMapper());
+        // java.time values are stored as ISO strings so the "date" mappings can parse them
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        ElasticsearchTransport transport = new RestClientTransport(restClient, new JacksonJsonpMapper(objectMapper));
         return new ElasticsearchClient(transport);
     }
 }
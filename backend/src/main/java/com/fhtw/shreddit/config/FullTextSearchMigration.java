@@ -0,0 +1,68 @@
+package com.fhtw.shreddit.config;
+
+import com.fhtw.shreddit.repository.DocumentRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds the database side of the search fallback: a stored, generated {@code search_vector} column over
+ * title, tags, summary, content and OCR text with a GIN index, and a trigram index on the title for
+ * substring matches. Postgres keeps the column up to date on every write, so no writer has to know about it.
+ * Idempotent; only runs on PostgreSQL.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class FullTextSearchMigration {
+    private static final Logger log = LoggerFactory.getLogger(FullTextSearchMigration.class);
+
+    // tsvector values are limited to 1 MB; very long OCR texts are only indexed up to this many characters
+    static final int MAX_INDEXED_CHARS = 262144;
+
+    private static final String CONFIG = "'" + DocumentRepository.TEXT_SEARCH_CONFIG + "'";
+
+    static final String ADD_SEARCH_VECTOR = "alter table public.document_entity add column if not exists search_vector tsvector " +
+            "generated always as (" +
+            "setweight(to_tsvector(" + CONFIG + ", coalesce(title, '')), 'A') || " +
+            "setweight(to_tsvector(" + CONFIG + ", coalesce(tags, '')), 'B') || " +
+            "setweight(to_tsvector(" + CONFIG + ", coalesce(summary, '')), 'C') || " +
+            "setweight(to_tsvector(" + CONFIG + ", left(coalesce(content, '') || ' ' || coalesce(ocr_text, ''), " +
+            MAX_INDEXED_CHARS + ")), 'D')" +
+            ") stored";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public FullTextSearchMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equalsIgnoreCase(product)) {
+            log.debug("Skipping full-text search migration on {}", product);
+            return;
+        }
+
+        // Rewrites the table once when the column is first added
+        jdbcTemplate.execute(ADD_SEARCH_VECTOR);
+        jdbcTemplate.execute("create index if not exists idx_document_entity_search_vector " +
+                "on public.document_entity using gin (search_vector)");
+
+        try {
+            jdbcTemplate.execute("create extension if not exists pg_trgm");
+            jdbcTemplate.execute("create index if not exists idx_document_entity_title_trgm " +
+                    "on public.document_entity using gin (title gin_trgm_ops)");
+        } catch (DataAccessException e) {
+            // Title substring matches still work, but scan the owner's rows instead of using the index
+            log.warn("pg_trgm is not available, title index not created: {}", e.getMessage());
+        }
+        log.info("Full-text search column and indexes are in place");
+    }
+}
@@ -0,0 +1,80 @@
+package com.fhtw.shreddit.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One-off migration from IDENTITY columns to the pooled sequences used by the entity mappings.
+ * <p>
+ * Runs after Hibernate's schema update (which creates missing sequences starting at 1) and moves each
+ * sequence past the highest existing id, so the first allocated block cannot collide with legacy rows.
+ * It also drops the old identity default so no writer keeps drawing ids from it. Tables that a writer outside this
+ * repository still inserts into with IDENTITY ({@link #IDENTITY_WRITER_TABLES}) get the sequence as column default
+ * instead, so those inserts keep working. Idempotent; only runs on PostgreSQL.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class IdSequenceMigration {
+    private static final Logger log = LoggerFactory.getLogger(IdSequenceMigration.class);
+
+    /** Must match allocationSize of the @SequenceGenerator mappings. */
+    static final int ALLOCATION_SIZE = 50;
+    static final List<String> TABLES = List.of("document_entity", "comment", "document_note", "document_access_daily");
+    /**
+     * Tables the access-log worker fills with IDENTITY mappings (inserts without id). Each such insert takes one
+     * nextval, which is the upper end of a pooled block nobody else is handed, so it cannot collide with ids the
+     * sequence mappings allocate.
+     */
+    static final Set<String> IDENTITY_WRITER_TABLES = Set.of("document_access_daily");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdSequenceMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equalsIgnoreCase(product)) {
+            log.debug("Skipping id sequence migration on {}", product);
+            return;
+        }
+        for (String table : TABLES) {
+            migrateTable(table);
+        }
+    }
+
+    private void migrateTable(String table) {
+        String sequence = "public." + table + "_seq";
+        jdbcTemplate.execute("create sequence if not exists " + sequence + " start with 1 increment by " + ALLOCATION_SIZE);
+        jdbcTemplate.execute("alter sequence " + sequence + " increment by " + ALLOCATION_SIZE);
+        jdbcTemplate.execute("alter table public." + table + " alter column id drop identity if exists");
+        if (IDENTITY_WRITER_TABLES.contains(table)) {
+            jdbcTemplate.execute("alter table public." + table + " alter column id set default nextval('" + sequence + "')");
+        }
+
+        Long maxId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from public." + table, Long.class);
+        Map<String, Object> state = jdbcTemplate.queryForMap("select last_value, is_called from " + sequence);
+        long lastValue = ((Number) state.get("last_value")).longValue();
+        boolean called = Boolean.TRUE.equals(state.get("is_called"));
+        long nextValue = called ? lastValue + ALLOCATION_SIZE : lastValue;
+
+        // The pooled optimizer hands out (nextValue - ALLOCATION_SIZE, nextValue] for the next block
+        if (maxId != null && maxId > 0 && nextValue - ALLOCATION_SIZE < maxId) {
+            long restart = maxId + ALLOCATION_SIZE;
+            jdbcTemplate.queryForObject("select setval(cast(? as regclass), ?, false)", Long.class, sequence, restart);
+            log.info("Moved {} to {} (max id in {} is {})", sequence, restart, table, maxId);
+        }
+    }
+}
@@ -1,11 +1,16 @@
 package com.fhtw.shreddit.config;
 
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -15,11 +20,42 @@ public class RabbitMQConfig {
     @Value("${rabbitmq.queue.ocr}")
     private String ocrQueueName;
 
+    @Value("${rabbitmq.exchange.status:document-status}")
+    private String statusExchangeName;
+
     @Bean
     public Queue ocrQueue() {
         return new Queue(ocrQueueName, true);
     }
 
+    /**
+     * Only consumed here when the backend runs the embedded search index instead of the indexing worker.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "search.engine", havingValue = "lucene")
+    public Queue indexingQueue(@Value("${rabbitmq.queue.indexing:indexing-queue}") String indexingQueueName) {
+        return new Queue(indexingQueueName, true);
+    }
+
+    @Bean
+    public FanoutExchange documentStatusExchange() {
+        return new FanoutExchange(statusExchangeName, true, false);
+    }
+
+    /**
+     * Every backend instance gets its own exclusive, auto-deleted queue on the status exchange,
+     * so each instance sees all events and can serve the SSE clients connected to it.
+     */
+    @Bean
+    public Queue documentStatusQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding documentStatusBinding(Queue documentStatusQueue, FanoutExchange documentStatusExchange) {
+        return BindingBuilder.bind(documentStatusQueue).to(documentStatusExchange);
+    }
+
     @Bean
     public MessageConverter jsonMessageConverter() {
         return new Jackson2JsonMessageConverter();
@@ -1,6 +1,7 @@
 package com.fhtw.shreddit.config;
 
 import com.fhtw.shreddit.security.JwtAuthFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -32,11 +33,16 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Async dispatches (SSE, streamed exports) were already authorized on the initial request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/auth/**", "/api/auth/**", "/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html", "/error").permitAll()
                         .requestMatchers(org.springframework.http.HttpMethod.OPTIONS, "/**").permitAll()
                         .requestMatchers(org.springframework.http.HttpMethod.GET, "/documents/download/**").permitAll()
                         .requestMatchers("/search/**", "/api/search/**").authenticated()
                         .requestMatchers("/documents/**").authenticated()
+                        .requestMatchers("/api/documents/events", "/api/documents/counts", "/api/documents/*/full").authenticated()
+                        .requestMatchers(org.springframework.http.HttpMethod.DELETE, "/api/documents", "/api/documents/**").authenticated()
+                        .requestMatchers("/metrics/**", "/api/metrics/**").authenticated()
                         .anyRequest().permitAll()
                 )
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
@@ -2,6 +2,7 @@ package com.fhtw.shreddit.controller;
 
 import com.fhtw.shreddit.model.UserEntity;
 import com.fhtw.shreddit.repository.UserRepository;
+import com.fhtw.shreddit.search.ElasticsearchSearchGateway;
 import com.fhtw.shreddit.security.JwtService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,6 +37,10 @@ public class AuthController {
         if (req == null || isBlank(req.username) || isBlank(req.password)) {
             return ResponseEntity.badRequest().body(Map.of("error", "username and password required"));
         }
+        // Documents are routed by owner name; this one is the route of documents without owner
+        if (ElasticsearchSearchGateway.SHARED_ROUTE.equals(req.username.trim())) {
+            return ResponseEntity.badRequest().body(Map.of("error", "username is reserved"));
+        }
         if (users.existsByUsername(req.username)) {
             return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "username already exists"));
         }
@@ -2,11 +2,15 @@ package com.fhtw.shreddit.controller;
 
 import com.fhtw.shreddit.api.dto.CommentDto;
 import com.fhtw.shreddit.api.dto.CreateCommentRequest;
+import com.fhtw.shreddit.api.dto.CursorPage;
+import com.fhtw.shreddit.api.dto.DocumentCountsDto;
 import com.fhtw.shreddit.service.CommentService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -25,14 +29,36 @@ public class DocumentCommentsController {
     }
 
     /**
-     * Get all comments for a document.
+     * Get one page of comments for a document, newest first.
      *
      * @param documentId the ID of the document
-     * @return list of comments for the document
+     * @param limit the page size
+     * @param cursor the cursor returned with the previous page
+     * @return comments of the page; the next cursor is sent in the X-Next-Cursor header
      */
     @GetMapping("/documents/{documentId}/comments")
-    public ResponseEntity<List<CommentDto>> listComments(@PathVariable("documentId") Long documentId) {
-        return ResponseEntity.ok(commentService.listComments(documentId));
+    public ResponseEntity<List<CommentDto>> listComments(@PathVariable("documentId") Long documentId,
+                                                         @RequestParam(value = "limit", required = false) Integer limit,
+                                                         @RequestParam(value = "cursor", required = false) String cursor) {
+        CursorPage<CommentDto> page = commentService.listComments(documentId, limit, cursor);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(DocumentsController.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
+    }
+
+    /**
+     * Get comment and note counts for many documents in one call.
+     *
+     * @param documentIds the IDs of the documents
+     * @return counts of every requested document the user can see
+     */
+    @GetMapping({"/documents/counts", "/api/documents/counts"})
+    public ResponseEntity<List<DocumentCountsDto>> countByDocuments(@RequestParam("ids") List<Long> documentIds) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String username = auth != null ? auth.getName() : "anonymous";
+        return ResponseEntity.ok(commentService.countByDocuments(documentIds, username));
     }
 
     /**
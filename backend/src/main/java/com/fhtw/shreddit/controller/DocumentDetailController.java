@@ -0,0 +1,37 @@
+package com.fhtw.shreddit.controller;
+
+import com.fhtw.shreddit.api.dto.DocumentDetailDto;
+import com.fhtw.shreddit.service.DocumentDetailService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+public class DocumentDetailController {
+
+    private final DocumentDetailService documentDetailService;
+
+    public DocumentDetailController(DocumentDetailService documentDetailService) {
+        this.documentDetailService = documentDetailService;
+    }
+
+    /**
+     * Document, notes, first comment page and recent access statistics in one response.
+     * {@code include} selects sections (document, notes, comments, access); all are returned by default.
+     */
+    @GetMapping({"/documents/{id}/full", "/api/documents/{id}/full"})
+    public ResponseEntity<DocumentDetailDto> getDocumentDetail(@PathVariable Long id,
+                                                               @RequestParam(value = "include", required = false) List<String> include) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String username = auth != null ? auth.getName() : "anonymous";
+        return documentDetailService.getDetail(id, username, DocumentDetailService.Section.parse(include))
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
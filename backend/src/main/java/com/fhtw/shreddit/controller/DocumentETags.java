@@ -0,0 +1,33 @@
+package com.fhtw.shreddit.controller;
+
+/**
+ * Strong ETags for document representations, derived from the document id and its row version.
+ */
+final class DocumentETags {
+
+    private DocumentETags() {
+    }
+
+    static String of(Long id, Long version) {
+        return "\"" + id + "-" + (version != null ? version : 0L) + "\"";
+    }
+
+    /**
+     * Whether an If-None-Match header value matches the given ETag (supports lists, weak validators and "*").
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
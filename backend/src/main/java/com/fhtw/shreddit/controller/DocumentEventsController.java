@@ -0,0 +1,33 @@
+package com.fhtw.shreddit.controller;
+
+import com.fhtw.shreddit.service.DocumentEventService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Server-Sent Events stream of processing status changes (OCR, indexing, summary) for the
+ * current user's documents. Replaces polling the document list while uploads are in progress.
+ */
+@RestController
+public class DocumentEventsController {
+
+    private final DocumentEventService documentEventService;
+
+    public DocumentEventsController(DocumentEventService documentEventService) {
+        this.documentEventService = documentEventService;
+    }
+
+    @GetMapping(value = {"/documents/events", "/api/documents/events"}, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> events() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String username = auth != null ? auth.getName() : "anonymous";
+        return ResponseEntity.ok()
+                .header("X-Accel-Buffering", "no")
+                .body(documentEventService.subscribe(username));
+    }
+}
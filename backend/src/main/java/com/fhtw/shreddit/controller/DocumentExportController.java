@@ -0,0 +1,41 @@
+package com.fhtw.shreddit.controller;
+
+import com.fhtw.shreddit.service.DocumentExportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+public class DocumentExportController {
+    private static final Logger log = LoggerFactory.getLogger(DocumentExportController.class);
+
+    static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final DocumentExportService documentExportService;
+
+    public DocumentExportController(DocumentExportService documentExportService) {
+        this.documentExportService = documentExportService;
+    }
+
+    @GetMapping({"/documents/export", "/api/documents/export"})
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(value = "includeText", defaultValue = "false") boolean includeText) {
+        // Resolve the user on the request thread; the body is written on an async thread without security context
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String username = auth != null ? auth.getName() : "anonymous";
+        log.debug("Export request by '{}' (includeText={})", username, includeText);
+
+        StreamingResponseBody body = out -> documentExportService.exportNdjson(username, includeText, out);
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"documents-export.ndjson\"")
+                .body(body);
+    }
+}
@@ -9,8 +9,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
@@ -20,6 +22,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 public class DocumentFilesController {
@@ -97,8 +100,19 @@ public class DocumentFilesController {
     }
 
     @GetMapping("/api/documents/{id}/summary/download")
-    public ResponseEntity<?> downloadSummary(@PathVariable("id") Long id) {
+    public ResponseEntity<?> downloadSummary(@PathVariable("id") Long id,
+                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
+            // Cheap version lookup first so unchanged summaries are answered with 304 and no body
+            Optional<Long> version = documentService.getVersion(id);
+            if (version.isEmpty()) {
+                return ResponseEntity.status(404).body("Document not found");
+            }
+            String etag = DocumentETags.of(id, version.get());
+            if (DocumentETags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+
             // Prefer DB content to avoid MinIO dependency for summary download
             return documentService.getById(id)
                     .map(doc -> {
@@ -109,6 +123,8 @@ public class DocumentFilesController {
                         byte[] bytes = summary.getBytes(java.nio.charset.StandardCharsets.UTF_8);
                         ByteArrayResource resource = new ByteArrayResource(bytes);
                         return ResponseEntity.ok()
+                                .eTag(DocumentETags.of(doc.getId(), doc.getVersion()))
+                                .cacheControl(CacheControl.noCache())
                                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"summary-" + id + ".txt\"")
                                 .contentType(MediaType.TEXT_PLAIN)
                                 .contentLength(bytes.length)
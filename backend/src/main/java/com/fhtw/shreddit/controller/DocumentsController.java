@@ -1,10 +1,17 @@
 package com.fhtw.shreddit.controller;
 
+import com.fhtw.shreddit.api.dto.CursorPage;
+import com.fhtw.shreddit.api.dto.DocumentBatchItemResult;
+import com.fhtw.shreddit.api.dto.DocumentDeleteResult;
 import com.fhtw.shreddit.api.dto.DocumentDto;
+import com.fhtw.shreddit.api.dto.DocumentListItemDto;
+import com.fhtw.shreddit.service.DocumentBatchService;
 import com.fhtw.shreddit.service.DocumentService;
-import com.fhtw.shreddit.service.StorageService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -18,38 +25,41 @@ public class DocumentsController {
 
     private static final Logger log = LoggerFactory.getLogger(DocumentsController.class);
 
+    // Response header carrying the cursor of the next page (absent on the last page)
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final DocumentService documentService;
-    private final StorageService storageService;
+    private final DocumentBatchService documentBatchService;
 
-    public DocumentsController(DocumentService documentService, StorageService storageService) {
+    public DocumentsController(DocumentService documentService, DocumentBatchService documentBatchService) {
         this.documentService = documentService;
-        this.storageService = storageService;
+        this.documentBatchService = documentBatchService;
     }
 
     @GetMapping("/documents")
-    public ResponseEntity<List<DocumentDto>> getDocuments() {
-        return ResponseEntity.ok(documentService.getAll());
+    public ResponseEntity<List<DocumentListItemDto>> getDocuments(@RequestParam(value = "limit", required = false) Integer limit,
+                                                                  @RequestParam(value = "cursor", required = false) String cursor) {
+        return pageResponse(documentService.getPage(limit, cursor));
     }
 
     // Alias with /api prefix for frontend compatibility
     @GetMapping("/api/documents")
-    public ResponseEntity<List<DocumentDto>> getDocumentsApi() {
-        return ResponseEntity.ok(documentService.getAll());
+    public ResponseEntity<List<DocumentListItemDto>> getDocumentsApi(@RequestParam(value = "limit", required = false) Integer limit,
+                                                                     @RequestParam(value = "cursor", required = false) String cursor) {
+        return pageResponse(documentService.getPage(limit, cursor));
     }
 
     @GetMapping("/documents/{id}")
-    public ResponseEntity<DocumentDto> getDocument(@PathVariable Long id) {
-        return documentService.getById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<DocumentDto> getDocument(@PathVariable Long id,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return conditionalDocument(id, ifNoneMatch);
     }
 
     // Alias with /api prefix for frontend compatibility
     @GetMapping("/api/documents/{id}")
-    public ResponseEntity<DocumentDto> getDocumentApi(@PathVariable Long id) {
-        return documentService.getById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<DocumentDto> getDocumentApi(@PathVariable Long id,
+                                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return conditionalDocument(id, ifNoneMatch);
     }
 
     @PostMapping(value = "/documents")
@@ -60,38 +70,59 @@ public class DocumentsController {
         return ResponseEntity.status(201).body(created);
     }
 
-    @DeleteMapping("/documents/{id}")
+    @PostMapping({"/documents/batch", "/api/documents/batch"})
+    public ResponseEntity<List<DocumentBatchItemResult>> createDocuments(@RequestBody List<DocumentDto> documents) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String username = auth != null ? auth.getName() : "anonymous";
+        log.debug("Batch creating {} documents for '{}'", documents != null ? documents.size() : 0, username);
+        return ResponseEntity.ok(documentBatchService.createBatch(documents, username));
+    }
+
+    @DeleteMapping({"/documents/{id}", "/api/documents/{id}"})
     public ResponseEntity<Void> deleteDocument(@PathVariable Long id) {
-        // If document does not exist, return 204 to keep API idempotent
-        Optional<DocumentDto> docOpt = documentService.getById(id);
-        if (docOpt.isEmpty()) {
-            return ResponseEntity.noContent().build();
-        }
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String username = auth != null ? auth.getName() : "anonymous";
 
-        DocumentDto doc = docOpt.get();
+        // Only the owner may delete; documents without owner stay deletable for backward compatibility.
+        // Missing documents answer 204 to keep the API idempotent.
+        DocumentDeleteResult result = documentService.delete(List.of(id), username);
+        if (!result.forbidden().isEmpty()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.noContent().build();
+    }
 
-        // Authorization: only owner (username match) can delete; if username is null, allow for backward compatibility
+    @DeleteMapping({"/documents", "/api/documents"})
+    public ResponseEntity<DocumentDeleteResult> deleteDocuments(@RequestParam("ids") List<Long> ids) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String currentUser = (auth != null ? auth.getName() : null);
-        boolean isOwner = (doc.getUsername() == null) || (currentUser != null && doc.getUsername().equals(currentUser));
-        if (!isOwner) {
-            return ResponseEntity.status(403).build();
-        }
+        String username = auth != null ? auth.getName() : "anonymous";
+        log.debug("Bulk deleting {} documents for '{}'", ids.size(), username);
+        return ResponseEntity.ok(documentService.delete(ids, username));
+    }
 
-        // Best-effort delete in storage: prefer exact stored filename; fallback to title for legacy records
-        try {
-            String objectName = (doc.getFilename() != null && !doc.getFilename().isBlank())
-                    ? doc.getFilename()
-                    : doc.getTitle();
-            if (objectName != null && !objectName.isBlank()) {
-                storageService.deleteObject(objectName);
-            }
-        } catch (Exception e) {
-            log.warn("Failed to delete MinIO object for document id={}: {}", id, e.getMessage());
+    // Answers polls with 304 from the version column alone; the full row is only loaded when it changed
+    private ResponseEntity<DocumentDto> conditionalDocument(Long id, String ifNoneMatch) {
+        Optional<Long> version = documentService.getVersion(id);
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        String etag = DocumentETags.of(id, version.get());
+        if (DocumentETags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
         }
+        return documentService.getById(id)
+                .map(doc -> ResponseEntity.ok()
+                        .eTag(DocumentETags.of(doc.getId(), doc.getVersion()))
+                        .cacheControl(CacheControl.noCache())
+                        .body(doc))
+                .orElse(ResponseEntity.notFound().build());
+    }
 
-        // Delete DB record
-        documentService.delete(id);
-        return ResponseEntity.noContent().build();
+    private <T> ResponseEntity<List<T>> pageResponse(CursorPage<T> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
     }
 }
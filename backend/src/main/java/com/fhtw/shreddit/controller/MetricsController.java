@@ -0,0 +1,38 @@
+package com.fhtw.shreddit.controller;
+
+import com.fhtw.shreddit.search.SearchCircuitBreaker;
+import com.fhtw.shreddit.service.DocumentAccessCache;
+import com.fhtw.shreddit.service.SimilarDocumentsService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Exposes in-process runtime counters (cache hit/miss rates etc.) as JSON.
+ */
+@RestController
+public class MetricsController {
+
+    private final DocumentAccessCache documentAccessCache;
+    private final SearchCircuitBreaker searchCircuitBreaker;
+    private final SimilarDocumentsService similarDocumentsService;
+
+    public MetricsController(DocumentAccessCache documentAccessCache, SearchCircuitBreaker searchCircuitBreaker,
+                             SimilarDocumentsService similarDocumentsService) {
+        this.documentAccessCache = documentAccessCache;
+        this.searchCircuitBreaker = searchCircuitBreaker;
+        this.similarDocumentsService = similarDocumentsService;
+    }
+
+    @GetMapping({"/metrics", "/api/metrics"})
+    public ResponseEntity<Map<String, Object>> metrics() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("documentAccessCache", documentAccessCache.stats());
+        body.put("search", searchCircuitBreaker.stats());
+        body.put("similarDocumentsCache", similarDocumentsService.stats());
+        return ResponseEntity.ok(body);
+    }
+}
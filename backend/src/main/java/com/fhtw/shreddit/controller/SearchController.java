@@ -1,11 +1,17 @@
 package com.fhtw.shreddit.controller;
 
-import com.fhtw.shreddit.api.dto.DocumentDto;
+import com.fhtw.shreddit.api.dto.SearchResultDto;
+import com.fhtw.shreddit.api.dto.SearchSuggestionDto;
+import com.fhtw.shreddit.api.dto.SimilarDocumentDto;
 import com.fhtw.shreddit.service.SearchService;
+import com.fhtw.shreddit.service.SimilarDocumentsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -16,19 +22,43 @@ public class SearchController {
     private static final Logger log = LoggerFactory.getLogger(SearchController.class);
 
     private final SearchService searchService;
+    private final SimilarDocumentsService similarDocumentsService;
 
-    public SearchController(SearchService searchService) {
+    public SearchController(SearchService searchService, SimilarDocumentsService similarDocumentsService) {
         this.searchService = searchService;
+        this.similarDocumentsService = similarDocumentsService;
     }
 
-    @GetMapping("/search")
-    public ResponseEntity<List<DocumentDto>> search(@RequestParam("q") String query) {
-        log.debug("Search request q='{}'", query);
-        return ResponseEntity.ok(searchService.search(query));
+    @GetMapping({"/search", "/api/search"})
+    public ResponseEntity<SearchResultDto> search(@RequestParam("q") String query,
+                                                  @RequestParam(value = "size", required = false) Integer size,
+                                                  @RequestParam(value = "sort", required = false) String sort,
+                                                  @RequestParam(value = "cursor", required = false) String cursor,
+                                                  @RequestParam(value = "tag", required = false) List<String> tags,
+                                                  @RequestParam(value = "from", required = false) String from,
+                                                  @RequestParam(value = "to", required = false) String to) {
+        log.debug("Search request q='{}' size={} sort={} cursor={} tags={} from={} to={}",
+                query, size, sort, cursor != null, tags, from, to);
+        return ResponseEntity.ok(searchService.search(query, size, sort, cursor, tags, from, to));
     }
 
-    @GetMapping("/api/search")
-    public ResponseEntity<List<DocumentDto>> searchApi(@RequestParam("q") String query) {
-        return ResponseEntity.ok(searchService.search(query));
+    @GetMapping({"/search/suggest", "/api/search/suggest"})
+    public ResponseEntity<List<SearchSuggestionDto>> suggest(@RequestParam("q") String prefix,
+                                                             @RequestParam(value = "size", required = false) Integer size) {
+        return ResponseEntity.ok(searchService.suggest(prefix, size));
+    }
+
+    /**
+     * Documents with similar text (title, summary, OCR text) among the user's documents; 404 if the document
+     * is not visible to the user.
+     */
+    @GetMapping({"/documents/{id}/similar", "/api/documents/{id}/similar"})
+    public ResponseEntity<List<SimilarDocumentDto>> similar(@PathVariable Long id,
+                                                            @RequestParam(value = "size", required = false) Integer size) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String username = auth != null ? auth.getName() : "anonymous";
+        return similarDocumentsService.findSimilar(id, username, size)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 }
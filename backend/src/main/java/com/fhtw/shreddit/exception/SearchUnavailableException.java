@@ -0,0 +1,15 @@
+package com.fhtw.shreddit.exception;
+
+/**
+ * The search index could not answer: it failed, took longer than the time budget, or the circuit breaker
+ * is open. Mapped to 503 when no other source can serve the request.
+ */
+public class SearchUnavailableException extends ShredditException {
+    public SearchUnavailableException(String message) {
+        super(message);
+    }
+
+    public SearchUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
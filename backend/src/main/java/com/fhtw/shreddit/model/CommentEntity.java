@@ -5,7 +5,9 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 import java.time.LocalDateTime;
@@ -14,10 +16,15 @@ import java.time.LocalDateTime;
  * Entity representing a comment on a document.
  */
 @Entity
-@Table(name = "comment", schema = "public")
+@Table(
+        name = "comment",
+        schema = "public",
+        indexes = @Index(name = "idx_comment_document_created", columnList = "document_id, created_at, id")
+)
 public class CommentEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comment_seq")
+    @SequenceGenerator(name = "comment_seq", sequenceName = "comment_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "document_id", nullable = false)
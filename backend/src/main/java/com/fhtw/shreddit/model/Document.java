@@ -6,6 +6,9 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.MappedSuperclass;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Version;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -14,7 +17,9 @@ import java.time.LocalDateTime;
 @MappedSuperclass
 public class Document {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence (blocks of 50) instead of IDENTITY so Hibernate can batch inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "document_entity_seq")
+    @SequenceGenerator(name = "document_entity_seq", sequenceName = "document_entity_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "title")
@@ -53,6 +58,19 @@ public class Document {
     @Column(name = "tags", columnDefinition = "TEXT")
     private String tags;
 
+    // Row version bumped by every writer (backend and workers); exposed as the document's ETag.
+    // The default backfills existing rows when the column is added.
+    @Version
+    @Column(name = "version", columnDefinition = "bigint default 0")
+    private Long version;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Set when the document is deleted; the row is purged once its files and index entry are gone
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
     public Document() {}
 
     @PrePersist
@@ -60,6 +78,12 @@ public class Document {
         if (createdAt == null) {
             createdAt = LocalDateTime.now();
         }
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
     }
 
     public Long getId() {
@@ -149,4 +173,28 @@ public class Document {
     public void setTags(String tags) {
         this.tags = tags;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(LocalDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
 }
@@ -6,6 +6,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 
@@ -20,7 +21,8 @@ import java.time.LocalDate;
 )
 public class DocumentAccessDaily {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "document_access_daily_seq")
+    @SequenceGenerator(name = "document_access_daily_seq", sequenceName = "document_access_daily_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "document_id", nullable = false)
@@ -1,10 +1,21 @@
 package com.fhtw.shreddit.model;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.SQLRestriction;
 
 @Entity
-@Table(name = "document_entity", schema = "public")
+@Table(
+        name = "document_entity",
+        schema = "public",
+        indexes = {
+                @Index(name = "idx_document_entity_owner_created", columnList = "username, created_at, id"),
+                @Index(name = "idx_document_entity_deleted_at", columnList = "deleted_at")
+        }
+)
+// Deleted documents are invisible to every JPA query; only the cleanup job's native queries see them
+@SQLRestriction("deleted_at is null")
 public class DocumentEntity extends Document {
     // inherits id/title/content mappings from @MappedSuperclass doc
 }
@@ -5,16 +5,23 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "document_note", schema = "public")
+@Table(
+        name = "document_note",
+        schema = "public",
+        indexes = @Index(name = "idx_document_note_document", columnList = "document_id")
+)
 public class NoteEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "document_note_seq")
+    @SequenceGenerator(name = "document_note_seq", sequenceName = "document_note_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "document_id", nullable = false)
@@ -1,8 +1,15 @@
 package com.fhtw.shreddit.repository;
 
 import com.fhtw.shreddit.model.CommentEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -10,10 +17,47 @@ import java.util.List;
  */
 public interface CommentRepository extends JpaRepository<CommentEntity, Long> {
     /**
-     * Find all comments for a document, ordered by creation date in descending order (newest first).
+     * First page of a document's comments, newest first, ordered by the (created_at, id) keyset.
+     */
+    @Query("select c from CommentEntity c where c.documentId = :documentId " +
+            "order by c.createdAt desc, c.id desc")
+    List<CommentEntity> findPage(@Param("documentId") Long documentId, Pageable pageable);
+
+    /**
+     * Page of a document's comments strictly after the given (created_at, id) keyset position.
+     */
+    @Query("select c from CommentEntity c where c.documentId = :documentId " +
+            "and (c.createdAt < :createdAt or (c.createdAt = :createdAt and c.id < :id)) " +
+            "order by c.createdAt desc, c.id desc")
+    List<CommentEntity> findPageAfter(@Param("documentId") Long documentId,
+                                      @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") Long id,
+                                      Pageable pageable);
+
+    /**
+     * Comment and note counts for many documents in one grouped query. Only documents visible to
+     * {@code username} are returned; documents without comments or notes are reported with zero counts.
+     */
+    @Query(value = "select d.id as \"documentId\", " +
+            "coalesce(sum(x.comments), 0) as \"comments\", coalesce(sum(x.notes), 0) as \"notes\" " +
+            "from public.document_entity d left join (" +
+            "select c.document_id, 1 as comments, 0 as notes from public.comment c where c.document_id in (:ids) " +
+            "union all " +
+            "select n.document_id, 0 as comments, 1 as notes from public.document_note n where n.document_id in (:ids)" +
+            ") x on x.document_id = d.id " +
+            "where d.id in (:ids) and d.deleted_at is null and (d.username = :username or d.username is null) " +
+            "group by d.id",
+            nativeQuery = true)
+    List<DocumentActivityCount> countActivity(@Param("ids") Collection<Long> ids, @Param("username") String username);
+
+    /**
+     * Delete all comments of the given documents in one statement.
      *
-     * @param documentId the ID of the document
-     * @return list of comments for the document
+     * @param documentIds the IDs of deleted documents
+     * @return number of removed comments
      */
-    List<CommentEntity> findByDocumentIdOrderByCreatedAtDesc(Long documentId);
-}
\ No newline at end of file
+    @Modifying
+    @Transactional
+    @Query("delete from CommentEntity c where c.documentId in :documentIds")
+    int deleteByDocumentIds(@Param("documentIds") Collection<Long> documentIds);
+}
@@ -0,0 +1,22 @@
+package com.fhtw.shreddit.repository;
+
+import com.fhtw.shreddit.model.DocumentAccessDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface DocumentAccessDailyRepository extends JpaRepository<DocumentAccessDaily, Long> {
+
+    List<DocumentAccessDaily> findByDocumentIdAndAccessDateGreaterThanEqualOrderByAccessDateDesc(Long documentId, LocalDate from);
+
+    @Modifying
+    @Transactional
+    @Query("delete from DocumentAccessDaily a where a.documentId in :documentIds")
+    int deleteByDocumentIds(@Param("documentIds") Collection<Long> documentIds);
+}
@@ -0,0 +1,12 @@
+package com.fhtw.shreddit.repository;
+
+/**
+ * Number of comments and notes attached to one document.
+ */
+public interface DocumentActivityCount {
+    Long getDocumentId();
+
+    Long getComments();
+
+    Long getNotes();
+}
@@ -0,0 +1,10 @@
+package com.fhtw.shreddit.repository;
+
+/**
+ * Closed projection used for access checks: selects only the id and owner of a document.
+ */
+public interface DocumentOwnerView {
+    Long getId();
+
+    String getUsername();
+}
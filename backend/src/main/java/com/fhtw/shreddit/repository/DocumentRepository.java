@@ -1,7 +1,148 @@
 package com.fhtw.shreddit.repository;
 
+import com.fhtw.shreddit.api.dto.DocumentListItemDto;
 import com.fhtw.shreddit.model.DocumentEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface DocumentRepository extends JpaRepository<DocumentEntity, Long> {
+
+    // Listing queries select only the slim columns so the TEXT columns never leave the database
+    String LIST_ITEM_PROJECTION = "select new com.fhtw.shreddit.api.dto.DocumentListItemDto(" +
+            "d.id, d.title, d.createdAt, d.filename, d.summaryStatus, d.documentDate, d.tags) " +
+            "from DocumentEntity d ";
+
+    // Text search configuration of the search_vector column (see FullTextSearchMigration); queries must use the same one
+    String TEXT_SEARCH_CONFIG = "simple";
+
+    /**
+     * First page of the documents visible to a user, ordered by the (created_at, id) keyset.
+     */
+    @Query(LIST_ITEM_PROJECTION +
+            "where (d.username = :username or d.username is null) " +
+            "order by d.createdAt desc, d.id desc")
+    List<DocumentListItemDto> findVisiblePage(@Param("username") String username, Pageable pageable);
+
+    /**
+     * Next page of the documents visible to a user, starting strictly after the given (created_at, id) cursor.
+     */
+    @Query(LIST_ITEM_PROJECTION +
+            "where (d.username = :username or d.username is null) " +
+            "and (d.createdAt < :createdAt or (d.createdAt = :createdAt and d.id < :id)) " +
+            "order by d.createdAt desc, d.id desc")
+    List<DocumentListItemDto> findVisiblePageAfter(@Param("username") String username,
+                                                   @Param("createdAt") LocalDateTime createdAt,
+                                                   @Param("id") Long id,
+                                                   Pageable pageable);
+
+    /**
+     * Current row version of a document, used to answer conditional requests without loading the row.
+     */
+    @Query("select d.version from DocumentEntity d where d.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Id and owner of a document, without loading any of its content columns.
+     */
+    Optional<DocumentOwnerView> findOwnerById(Long id);
+
+    /**
+     * Streams all documents visible to a user in id order. Rows are pulled from the JDBC cursor in
+     * chunks of the fetch size; must be consumed inside a read-only transaction and closed afterwards.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select d from DocumentEntity d " +
+            "where (d.username = :username or d.username is null) " +
+            "order by d.id")
+    Stream<DocumentEntity> streamVisibleTo(@Param("username") String username);
+
+    /**
+     * Sets the stored object name of a document in a single UPDATE, without loading or rewriting the
+     * other columns. Bumps the row version so cached ETags are invalidated.
+     *
+     * @return number of updated rows (0 if the document does not exist)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("update DocumentEntity d set d.filename = :filename, " +
+            "d.version = coalesce(d.version, 0) + 1, d.updatedAt = :updatedAt " +
+            "where d.id = :id")
+    int updateFilename(@Param("id") Long id,
+                       @Param("filename") String filename,
+                       @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Marks documents as deleted. They disappear from all queries at once; files, index entries and
+     * child rows are removed later by the cleanup job.
+     *
+     * @return number of documents marked
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("update DocumentEntity d set d.deletedAt = :deletedAt, " +
+            "d.version = coalesce(d.version, 0) + 1, d.updatedAt = :deletedAt " +
+            "where d.id in :ids")
+    int markDeleted(@Param("ids") Collection<Long> ids, @Param("deletedAt") LocalDateTime deletedAt);
+
+    /**
+     * Oldest documents deleted before {@code cutoff}, waiting for cleanup. Native because deleted rows
+     * are filtered from JPQL queries.
+     */
+    @Query(value = "select d.id as id, d.filename as filename from public.document_entity d " +
+            "where d.deleted_at is not null and d.deleted_at < :cutoff " +
+            "order by d.deleted_at limit :limit",
+            nativeQuery = true)
+    List<PendingDeletionView> findPendingDeletion(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    /**
+     * Whether another live document still points at the same stored object.
+     */
+    boolean existsByFilenameAndIdNot(String filename, Long id);
+
+    /**
+     * Removes rows that were marked deleted and whose dependent data is gone.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "delete from public.document_entity where id in (:ids) and deleted_at is not null", nativeQuery = true)
+    int purgeDeleted(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Ranked full-text search over the generated search_vector column (title, tags, summary, content, OCR text),
+     * plus substring matches on the title. Only documents visible to {@code username}, at most {@code limit} rows.
+     * PostgreSQL only.
+     *
+     * @param titlePattern ILIKE pattern for the title, with %, _ and \ escaped
+     */
+    // Mapped columns only: the search_vector itself is never shipped to the application
+    @Query(value = "select d.id, d.title, d.content, d.created_at, d.username, d.filename, d.summary, " +
+            "d.summary_status, d.ocr_text, d.document_date, d.tags, d.version, d.updated_at, d.deleted_at " +
+            "from public.document_entity d " +
+            "where d.deleted_at is null and (d.username = :username or d.username is null) " +
+            "and (d.search_vector @@ websearch_to_tsquery('" + TEXT_SEARCH_CONFIG + "', :query) " +
+            "or d.title ilike :titlePattern) " +
+            "order by ts_rank_cd(d.search_vector, websearch_to_tsquery('" + TEXT_SEARCH_CONFIG + "', :query)) desc, " +
+            "d.created_at desc, d.id desc " +
+            "limit :limit",
+            nativeQuery = true)
+    List<DocumentEntity> searchFullText(@Param("query") String query,
+                                        @Param("titlePattern") String titlePattern,
+                                        @Param("username") String username,
+                                        @Param("limit") int limit);
 }
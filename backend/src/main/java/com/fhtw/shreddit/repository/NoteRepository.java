@@ -2,9 +2,19 @@ package com.fhtw.shreddit.repository;
 
 import com.fhtw.shreddit.model.NoteEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface NoteRepository extends JpaRepository<NoteEntity, Long> {
     List<NoteEntity> findByDocumentIdOrderByCreatedAtAsc(Long documentId);
+
+    @Modifying
+    @Transactional
+    @Query("delete from NoteEntity n where n.documentId in :documentIds")
+    int deleteByDocumentIds(@Param("documentIds") Collection<Long> documentIds);
 }
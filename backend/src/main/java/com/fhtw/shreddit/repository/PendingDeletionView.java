@@ -0,0 +1,10 @@
+package com.fhtw.shreddit.repository;
+
+/**
+ * Id and stored object name of a deleted document awaiting cleanup.
+ */
+public interface PendingDeletionView {
+    Long getId();
+
+    String getFilename();
+}
@@ -0,0 +1,95 @@
+package com.fhtw.shreddit.search;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fhtw.shreddit.exception.DocumentException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Position in a point-in-time snapshot: the PIT id plus the sort values of the last hit returned,
+ * passed as {@code search_after}, and a fingerprint of the search it belongs to. Encoded as URL-safe
+ * Base64 JSON so clients can pass it back unchanged.
+ */
+record ElasticsearchCursor(String pit, List<Object> after, String query) {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    static ElasticsearchCursor of(String pit, List<FieldValue> sortValues, SearchQuery query) {
+        return new ElasticsearchCursor(pit, sortValues.stream().map(FieldValue::_get).toList(), fingerprint(query));
+    }
+
+    /**
+     * Rejects the cursor if it was issued for a different search. Its sort values only mean something for the
+     * sort and query they came from; with another one the next page would silently skip or repeat hits.
+     */
+    void checkBelongsTo(SearchQuery search) {
+        if (!query.equals(fingerprint(search))) {
+            throw new DocumentException("Search cursor belongs to a different search, please search again");
+        }
+    }
+
+    // Everything that decides which hits exist and in which order; the page size may change between pages
+    static String fingerprint(SearchQuery search) {
+        String canonical = String.join("\u0000",
+                search.text(),
+                Objects.toString(search.username()),
+                search.sort().name(),
+                String.join(",", search.tags().stream().sorted().toList()),
+                Objects.toString(search.dateFrom()),
+                Objects.toString(search.dateTo()));
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 12));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    List<FieldValue> searchAfter() {
+        return after.stream().map(ElasticsearchCursor::toFieldValue).toList();
+    }
+
+    // JSON numbers come back as the narrowest Java type; sort values only need long or double
+    private static FieldValue toFieldValue(Object value) {
+        if (value == null) {
+            return FieldValue.NULL;
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return FieldValue.of(((Number) value).doubleValue());
+        }
+        if (value instanceof Number number) {
+            return FieldValue.of(number.longValue());
+        }
+        if (value instanceof Boolean bool) {
+            return FieldValue.of(bool);
+        }
+        return FieldValue.of(value.toString());
+    }
+
+    String encode() {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(this));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode search cursor", e);
+        }
+    }
+
+    static ElasticsearchCursor decode(String cursor) {
+        try {
+            ElasticsearchCursor decoded = MAPPER.readValue(Base64.getUrlDecoder().decode(cursor), ElasticsearchCursor.class);
+            if (decoded.pit() == null || decoded.after() == null || decoded.after().isEmpty() || decoded.query() == null) {
+                throw new DocumentException("Invalid cursor");
+            }
+            return decoded;
+        } catch (IllegalArgumentException | IOException e) {
+            throw new DocumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -1,42 +1,137 @@
 package com.fhtw.shreddit.search;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.Conflicts;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.SortOptions;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.CalendarInterval;
+import co.elastic.clients.elasticsearch._types.aggregations.DateHistogramBucket;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
+import co.elastic.clients.elasticsearch._types.mapping.FieldType;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.FieldValueFactorModifier;
+import co.elastic.clients.elasticsearch._types.query_dsl.FunctionBoostMode;
+import co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.DeleteByQueryResponse;
+import co.elastic.clients.elasticsearch.core.GetResponse;
 import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.HighlighterEncoder;
 import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.elasticsearch.core.search.TotalHits;
+import co.elastic.clients.elasticsearch.core.search.TotalHitsRelation;
+import co.elastic.clients.util.ObjectBuilder;
+import com.fhtw.shreddit.exception.DocumentException;
+import com.fhtw.shreddit.exception.SearchUnavailableException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 @Service
+@ConditionalOnProperty(name = "search.engine", havingValue = "elasticsearch", matchIfMissing = true)
 public class ElasticsearchSearchGateway implements SearchGateway {
     private static final Logger log = LoggerFactory.getLogger(ElasticsearchSearchGateway.class);
+    private static final String TAGS_AGG = "tags";
+    private static final String MONTHS_AGG = "documentMonths";
+    private static final int FACET_SIZE = 20;
+    // Below the index default of index.highlight.max_analyzed_offset (1,000,000 characters)
+    private static final int MAX_HIGHLIGHT_OFFSET = 500_000;
+    /**
+     * Route of legacy documents without owner; the indexing worker writes them with the same key. Reserved as a
+     * username, so no user's own route ever coincides with it.
+     */
+    public static final String SHARED_ROUTE = "_shared";
 
     private final ElasticsearchClient client;
     private final String indexName;
+    private final String pitKeepAlive;
+    private final double popularityFactor;
 
-    public ElasticsearchSearchGateway(ElasticsearchClient client, @Value("${elasticsearch.index:documents}") String indexName) {
+    public ElasticsearchSearchGateway(ElasticsearchClient client,
+                                      @Value("${elasticsearch.index:documents}") String indexName,
+                                      @Value("${elasticsearch.search.pit-keep-alive:2m}") String pitKeepAlive,
+                                      @Value("${elasticsearch.search.popularity-factor:0.1}") double popularityFactor) {
         this.client = client;
         this.indexName = indexName;
+        this.pitKeepAlive = pitKeepAlive;
+        this.popularityFactor = popularityFactor;
     }
 
     @Override
-    public List<SearchHit> search(String query) {
-        if (query == null || query.isBlank()) {
-            return List.of();
+    public SearchPage search(SearchQuery query) {
+        if (query.text() == null || query.text().isBlank()) {
+            return SearchPage.empty();
+        }
+        ElasticsearchCursor cursor = query.cursor() != null ? ElasticsearchCursor.decode(query.cursor()) : null;
+        if (cursor != null) {
+            cursor.checkBelongsTo(query);
         }
+        String text = query.text();
         try {
-            SearchResponse<IndexedDocument> response = client.search(s -> s
-                            .index(indexName)
-                            .query(q -> q.multiMatch(m -> m
-                                    .fields("title^2", "summary", "ocrText", "content")
-                                    .query(query)
-                                    .fuzziness("AUTO")
-                            ))
-                            .size(25),
+            // Later pages read the snapshot the first page handed out, so hits neither repeat nor go missing while
+            // documents are indexed in between. The first page itself searches the live index and a PIT is only
+            // opened once there is a second page to continue to, so the usual single-page search stays one round
+            // trip. Documents indexed between the first page and that PIT can still shift the second page by a hit.
+            String pit = cursor != null ? cursor.pit() : null;
+            Query matches = Query.of(q -> q.bool(b -> {
+                b.must(m -> m.multiMatch(mm -> mm
+                                .fields("title^2", "summary", "ocrText", "content")
+                                .query(text)
+                                .fuzziness("AUTO")
+                        ))
+                        // Filter context: not scored and cached per segment by Elasticsearch
+                        .filter(f -> ownerFilter(f, query.username()));
+                addFilters(b, query);
+                return b;
+            }));
+            SearchResponse<IndexedDocument> response = client.search(s -> {
+                        if (pit != null) {
+                            s.pit(p -> p.id(pit).keepAlive(k -> k.time(pitKeepAlive)));
+                        } else {
+                            s.index(indexName).routing(searchRouting(query.username()));
+                        }
+                        s.query(query.sort() == SearchSort.RELEVANCE ? boostPopular(matches) : matches)
+                                // The OCR text is only needed for matching and highlighting, not in the hits
+                                .source(src -> src.filter(f -> f.excludes("ocrText")))
+                                .highlight(h -> h
+                                        .encoder(HighlighterEncoder.Html)
+                                        .preTags("<mark>")
+                                        .postTags("</mark>")
+                                        // ocrText has no stored offsets, so it is re-analyzed; past the index's
+                                        // max_analyzed_offset that would fail the whole search, so only the start
+                                        // of a long text is highlighted
+                                        .maxAnalyzedOffset(MAX_HIGHLIGHT_OFFSET)
+                                        .fields("title", f -> f.numberOfFragments(0))
+                                        .fields("summary", f -> f.fragmentSize(150).numberOfFragments(2))
+                                        .fields("ocrText", f -> f.fragmentSize(150).numberOfFragments(2))
+                                        .fields("content", f -> f.fragmentSize(150).numberOfFragments(2)))
+                                .sort(sortOptions(query.sort()))
+                                .size(query.size());
+                        // search_after seeks past the previous page; no from/size offset to skip over
+                        if (cursor != null) {
+                            s.searchAfter(cursor.searchAfter());
+                        } else {
+                            // Facets describe the whole result set, so later pages don't need them again
+                            s.aggregations(TAGS_AGG, a -> a.terms(t -> t.field("tags").size(FACET_SIZE)))
+                                    .aggregations(MONTHS_AGG, a -> a.dateHistogram(d -> d
+                                            .field("documentDate")
+                                            .calendarInterval(CalendarInterval.Month)
+                                            .format("yyyy-MM")
+                                            .minDocCount(1)));
+                        }
+                        return s;
+                    },
                     IndexedDocument.class);
 
             List<SearchHit> hits = new ArrayList<>();
@@ -49,12 +144,293 @@ public class ElasticsearchSearchGateway implements SearchGateway {
                         log.warn("SEARCH: ignoring non-numeric hit id={}", hit.id());
                     }
                 }
-                hits.add(new SearchHit(id, hit.source(), hit.score() != null ? hit.score() : 0.0));
+                hits.add(new SearchHit(id, hit.source(), hit.score() != null ? hit.score() : 0.0, hit.highlight()));
+            }
+
+            List<Hit<IndexedDocument>> raw = response.hits().hits();
+            boolean morePages = raw.size() == query.size() && !raw.get(raw.size() - 1).sort().isEmpty();
+            String nextCursor = null;
+            if (pit == null) {
+                if (morePages) {
+                    // PIT searches sort by the implicit _shard_doc tiebreaker as well, which a search without PIT
+                    // has no value for. The id already orders hits totally, so the largest value skips exactly
+                    // the last hit of this page
+                    List<FieldValue> after = new ArrayList<>(raw.get(raw.size() - 1).sort());
+                    after.add(FieldValue.of(Long.MAX_VALUE));
+                    nextCursor = ElasticsearchCursor.of(openPointInTime(query.username()), after, query).encode();
+                }
+            } else {
+                // The PIT id may change between requests; always continue with the latest one
+                String nextPit = response.pitId() != null ? response.pitId() : pit;
+                if (morePages) {
+                    nextCursor = ElasticsearchCursor.of(nextPit, raw.get(raw.size() - 1).sort(), query).encode();
+                } else {
+                    // Last page: nobody continues from this snapshot
+                    closePointInTime(nextPit);
+                }
+            }
+            TotalHits total = response.hits().total();
+            return new SearchPage(hits,
+                    total != null ? total.value() : hits.size(),
+                    total == null || total.relation() == TotalHitsRelation.Eq,
+                    nextCursor,
+                    cursor == null ? facets(response.aggregations()) : null);
+        } catch (ElasticsearchException e) {
+            if (cursor != null && e.status() == 404) {
+                throw new DocumentException("Search cursor expired, please search again");
+            }
+            log.error("SEARCH: Elasticsearch error while querying '{}': {}", text, e.getMessage());
+            throw new SearchUnavailableException("Elasticsearch query failed", e);
+        } catch (IOException e) {
+            log.error("SEARCH: Elasticsearch error while querying '{}': {}", text, e.getMessage());
+            throw new SearchUnavailableException("Elasticsearch is not reachable", e);
+        }
+    }
+
+    @Override
+    public List<SearchHit> suggest(String prefix, String username, int size) {
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        try {
+            SearchResponse<IndexedDocument> response = client.search(s -> s
+                            .index(indexName)
+                            .routing(searchRouting(username))
+                            .query(q -> q.bool(b -> b
+                                    // The last term matches as a prefix against the edge n-grams,
+                                    // earlier terms against the shingles
+                                    .must(m -> m.multiMatch(mm -> mm
+                                            .type(TextQueryType.BoolPrefix)
+                                            .fields("title.suggest", "title.suggest._2gram", "title.suggest._3gram",
+                                                    "tags.suggest", "tags.suggest._2gram", "tags.suggest._3gram")
+                                            .query(prefix)
+                                    ))
+                                    .filter(f -> ownerFilter(f, username))
+                            ))
+                            .source(src -> src.filter(f -> f.includes("title")))
+                            .trackTotalHits(t -> t.enabled(false))
+                            .size(size),
+                    IndexedDocument.class);
+            List<SearchHit> hits = new ArrayList<>();
+            for (Hit<IndexedDocument> hit : response.hits().hits()) {
+                try {
+                    hits.add(new SearchHit(Long.parseLong(hit.id()), hit.source(), hit.score() != null ? hit.score() : 0.0));
+                } catch (NumberFormatException ignored) {
+                    log.warn("SEARCH: ignoring non-numeric suggestion id={}", hit.id());
+                }
             }
             return hits;
+        } catch (ElasticsearchException e) {
+            log.warn("SEARCH: suggestions for '{}' failed: {}", prefix, e.getMessage());
+            throw new SearchUnavailableException("Elasticsearch query failed", e);
+        } catch (IOException e) {
+            throw new SearchUnavailableException("Elasticsearch is not reachable", e);
+        }
+    }
+
+    @Override
+    public String indexVersion(Long id, String owner) {
+        try {
+            // Realtime get: sees the latest write even before the next refresh
+            GetResponse<IndexedDocument> response = client.get(g -> g
+                            .index(indexName)
+                            .id(String.valueOf(id))
+                            .routing(routing(owner))
+                            .source(src -> src.fetch(false)),
+                    IndexedDocument.class);
+            // The concrete index changes with every reindex, the version with every write of the document
+            return response.found() ? response.index() + ":" + response.version() : null;
+        } catch (ElasticsearchException e) {
+            if (e.status() == 404) {
+                return null;
+            }
+            log.error("SEARCH: Elasticsearch error while reading document {}: {}", id, e.getMessage());
+            throw new SearchUnavailableException("Elasticsearch query failed", e);
+        } catch (IOException e) {
+            throw new SearchUnavailableException("Elasticsearch is not reachable", e);
+        }
+    }
+
+    @Override
+    public List<SearchHit> similar(Long id, String owner, String username, int size) {
+        try {
+            SearchResponse<IndexedDocument> response = client.search(s -> s
+                            .index(indexName)
+                            .routing(searchRouting(username))
+                            .query(q -> q.bool(b -> b
+                                    // Reads the terms of the document from its term vectors (or re-analyzes its
+                                    // _source if there are none); the document itself is excluded
+                                    .must(m -> m.moreLikeThis(mlt -> mlt
+                                            .fields("title", "summary", "ocrText")
+                                            .like(l -> l.document(d -> d
+                                                    .index(indexName)
+                                                    .id(String.valueOf(id))
+                                                    .routing(routing(owner))))
+                                            // Collections are personal and small: a term that occurs once in the
+                                            // document and in one other document is already worth matching on
+                                            .minTermFreq(1)
+                                            .minDocFreq(2)
+                                            .maxQueryTerms(25)))
+                                    .filter(f -> ownerFilter(f, username))
+                            ))
+                            .source(src -> src.filter(f -> f.excludes("ocrText")))
+                            .trackTotalHits(t -> t.enabled(false))
+                            .size(size),
+                    IndexedDocument.class);
+            List<SearchHit> hits = new ArrayList<>();
+            for (Hit<IndexedDocument> hit : response.hits().hits()) {
+                try {
+                    hits.add(new SearchHit(Long.parseLong(hit.id()), hit.source(), hit.score() != null ? hit.score() : 0.0));
+                } catch (NumberFormatException ignored) {
+                    log.warn("SEARCH: ignoring non-numeric similar hit id={}", hit.id());
+                }
+            }
+            return hits;
+        } catch (ElasticsearchException e) {
+            log.error("SEARCH: Elasticsearch error while finding documents similar to {}: {}", id, e.getMessage());
+            throw new SearchUnavailableException("Elasticsearch query failed", e);
+        } catch (IOException e) {
+            throw new SearchUnavailableException("Elasticsearch is not reachable", e);
+        }
+    }
+
+    /**
+     * Multiplies the relevance score by {@code ln(2 + factor * recentAccessCount)}. The logarithm saturates,
+     * so frequently opened documents move ahead of similar matches without burying better ones; documents
+     * without accesses keep the base multiplier {@code ln 2}. The count is a field of the document itself,
+     * maintained by the indexing worker, so ranking needs no lookup outside the index.
+     */
+    private Query boostPopular(Query matches) {
+        if (popularityFactor <= 0) {
+            return matches;
+        }
+        return Query.of(q -> q.functionScore(fs -> fs
+                .query(matches)
+                .functions(f -> f.fieldValueFactor(v -> v
+                        .field("recentAccessCount")
+                        .factor(popularityFactor)
+                        .modifier(FieldValueFactorModifier.Ln2p)
+                        // Also covers indices created before the field was mapped
+                        .missing(0.0)))
+                .boostMode(FunctionBoostMode.Multiply)));
+    }
+
+    // Later pages search through the PIT, which only holds the shards of the routing it was opened with
+    private String openPointInTime(String username) throws IOException {
+        return client.openPointInTime(o -> o
+                .index(indexName)
+                .routing(searchRouting(username))
+                .keepAlive(k -> k.time(pitKeepAlive))).id();
+    }
+
+    private void closePointInTime(String pit) {
+        try {
+            client.closePointInTime(c -> c.id(pit));
         } catch (Exception e) {
-            log.error("SEARCH: Elasticsearch error while querying '{}': {}", query, e.getMessage());
-            return List.of();
+            // It expires after the keep-alive anyway
+            log.debug("SEARCH: failed to close point in time: {}", e.getMessage());
+        }
+    }
+
+    // The id makes every sort total, also on a first page searched without PIT (PIT searches add _shard_doc)
+    private static List<SortOptions> sortOptions(SearchSort sort) {
+        SortOptions newest = SortOptions.of(o -> o.field(f -> f.field("createdAt").order(SortOrder.Desc)));
+        SortOptions byId = SortOptions.of(o -> o.field(f -> f.field("id").order(SortOrder.Asc)
+                .unmappedType(FieldType.Long)));
+        return switch (sort) {
+            case RELEVANCE -> List.of(SortOptions.of(o -> o.score(sc -> sc.order(SortOrder.Desc))), newest, byId);
+            case NEWEST -> List.of(newest, byId);
+            case OLDEST -> List.of(SortOptions.of(o -> o.field(f -> f.field("createdAt").order(SortOrder.Asc))), byId);
+        };
+    }
+
+    private static void addFilters(BoolQuery.Builder b, SearchQuery query) {
+        // One term clause per tag: a document has to carry all selected tags
+        for (String tag : query.tags()) {
+            b.filter(f -> f.term(t -> t.field("tags").value(tag)));
+        }
+        if (query.dateFrom() != null || query.dateTo() != null) {
+            b.filter(f -> f.range(r -> r.date(d -> {
+                d.field("documentDate");
+                if (query.dateFrom() != null) {
+                    d.gte(query.dateFrom().toString());
+                }
+                if (query.dateTo() != null) {
+                    d.lte(query.dateTo().toString());
+                }
+                return d;
+            })));
+        }
+    }
+
+    private static SearchFacets facets(Map<String, Aggregate> aggregations) {
+        List<SearchFacets.Bucket> tags = new ArrayList<>();
+        Aggregate tagsAgg = aggregations.get(TAGS_AGG);
+        if (tagsAgg != null && tagsAgg.isSterms()) {
+            for (StringTermsBucket bucket : tagsAgg.sterms().buckets().array()) {
+                tags.add(new SearchFacets.Bucket(bucket.key().stringValue(), bucket.docCount()));
+            }
+        }
+        List<SearchFacets.Bucket> months = new ArrayList<>();
+        Aggregate monthsAgg = aggregations.get(MONTHS_AGG);
+        if (monthsAgg != null && monthsAgg.isDateHistogram()) {
+            for (DateHistogramBucket bucket : monthsAgg.dateHistogram().buckets().array()) {
+                months.add(new SearchFacets.Bucket(bucket.keyAsString(), bucket.docCount()));
+            }
+        }
+        return new SearchFacets(tags, months);
+    }
+
+    private static String routing(String owner) {
+        return owner != null && !owner.isBlank() ? owner : SHARED_ROUTE;
+    }
+
+    /**
+     * Documents are routed by owner, so everything a user can see lives on at most two shards: the one of
+     * their own route and the one of the shared route. The owner filter still decides what matches; routing
+     * only keeps the other shards out of the query.
+     *
+     * @return the routing, or null (all shards) for a username that can't be part of a routing list
+     */
+    private static String searchRouting(String username) {
+        String own = routing(username);
+        if (own.contains(",")) {
+            return null;
+        }
+        return own.equals(SHARED_ROUTE) ? own : own + "," + SHARED_ROUTE;
+    }
+
+    // Documents of the user plus legacy documents without an owner
+    private static ObjectBuilder<Query> ownerFilter(Query.Builder f, String username) {
+        return f.bool(b -> b
+                .should(s -> s.term(t -> t.field("username").value(username)))
+                .should(s -> s.bool(n -> n.mustNot(m -> m.exists(e -> e.field("username")))))
+                .minimumShouldMatch("1"));
+    }
+
+    @Override
+    public void delete(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return;
+        }
+        List<String> idValues = ids.stream().map(String::valueOf).toList();
+        DeleteByQueryResponse response;
+        try {
+            // Also hits the index a running reindex copies into, which is not behind the alias yet
+            response = client.deleteByQuery(d -> d
+                    .index(indexName, indexName + "_v*")
+                    .ignoreUnavailable(true)
+                    .allowNoIndices(true)
+                    .conflicts(Conflicts.Proceed)
+                    .refresh(true)
+                    .query(q -> q.ids(i -> i.values(idValues))));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to delete documents from index " + indexName, e);
+        }
+        if (!response.failures().isEmpty()) {
+            throw new RuntimeException("Failed to delete documents from index " + indexName + ": "
+                    + response.failures().get(0).cause().reason());
         }
+        log.info("SEARCH: removed {} documents from index {}", ids.size(), indexName);
     }
 }
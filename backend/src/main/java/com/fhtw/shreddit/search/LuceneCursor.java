@@ -0,0 +1,64 @@
+package com.fhtw.shreddit.search;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fhtw.shreddit.exception.DocumentException;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.SortField;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Sort values of the last hit returned by the Lucene gateway, passed to {@code searchAfter}. Same URL-safe
+ * Base64 JSON encoding as {@link ElasticsearchCursor}.
+ */
+record LuceneCursor(List<Object> after) {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    static LuceneCursor of(FieldDoc last) {
+        return new LuceneCursor(Arrays.asList(last.fields));
+    }
+
+    /**
+     * @param maxDoc {@code maxDoc()} of the reader the next page is searched on
+     * @throws DocumentException if the cursor was made for a different sort
+     */
+    FieldDoc toFieldDoc(SortField[] sortFields, int maxDoc) {
+        if (after.size() != sortFields.length) {
+            throw new DocumentException("Invalid cursor");
+        }
+        Object[] fields = new Object[sortFields.length];
+        for (int i = 0; i < sortFields.length; i++) {
+            if (!(after.get(i) instanceof Number number)) {
+                throw new DocumentException("Invalid cursor");
+            }
+            // JSON numbers come back as the narrowest Java type; Lucene compares with the exact sort type
+            fields[i] = sortFields[i].getType() == SortField.Type.SCORE ? (Object) number.floatValue() : (Object) number.longValue();
+        }
+        // The id tiebreaker makes the sort values unique: only the last hit itself compares equal, and it is skipped
+        // as long as the doc id is at least its own. Doc ids shift with merges, so the highest valid one is used
+        return new FieldDoc(Math.max(maxDoc - 1, 0), Float.NaN, fields);
+    }
+
+    String encode() {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(this));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode search cursor", e);
+        }
+    }
+
+    static LuceneCursor decode(String cursor) {
+        try {
+            LuceneCursor decoded = MAPPER.readValue(Base64.getUrlDecoder().decode(cursor), LuceneCursor.class);
+            if (decoded.after() == null || decoded.after().isEmpty()) {
+                throw new DocumentException("Invalid cursor");
+            }
+            return decoded;
+        } catch (IllegalArgumentException | IOException e) {
+            throw new DocumentException("Invalid cursor", e);
+        }
+    }
+}
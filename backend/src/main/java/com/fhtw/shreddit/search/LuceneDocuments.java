@@ -0,0 +1,134 @@
+package com.fhtw.shreddit.search;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.analysis.de.GermanAnalyzer;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.util.BytesRef;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Field layout of the embedded Lucene index, mirroring the Elasticsearch mapping of the indexing worker.
+ */
+final class LuceneDocuments {
+
+    static final String ID = "id";
+    static final String ID_SORT = "id_sort";
+    static final String TITLE = "title";
+    static final String TITLE_SUGGEST = "title_suggest";
+    static final String CONTENT = "content";
+    static final String SUMMARY = "summary";
+    static final String SUMMARY_STATUS = "summaryStatus";
+    static final String OCR_TEXT = "ocrText";
+    static final String USERNAME = "username";
+    static final String OWNER = "owner";
+    static final String CREATED_AT = "createdAt";
+    static final String CREATED_AT_SORT = "createdAt_sort";
+    static final String DOCUMENT_DATE = "documentDate";
+    static final String TAGS = "tags";
+    static final String TAGS_SUGGEST = "tags_suggest";
+
+    // Owner term of documents without owner, visible to everyone; cannot collide with a username
+    static final String SHARED_OWNER = "\u0000shared";
+
+    private LuceneDocuments() {
+    }
+
+    /**
+     * German analysis for the full-text fields (umlaut folding, light stemming, no stop words); the suggest
+     * fields are only lowercased, so prefixes match the words as typed.
+     */
+    static Analyzer analyzer() {
+        Analyzer suggest = new StandardAnalyzer(CharArraySet.EMPTY_SET);
+        return new PerFieldAnalyzerWrapper(new GermanAnalyzer(CharArraySet.EMPTY_SET),
+                Map.of(TITLE_SUGGEST, suggest, TAGS_SUGGEST, suggest));
+    }
+
+    static Term idTerm(long id) {
+        return new Term(ID, String.valueOf(id));
+    }
+
+    static Document toLucene(IndexedDocument source) {
+        Document doc = new Document();
+        doc.add(new StringField(ID, String.valueOf(source.getId()), Field.Store.YES));
+        doc.add(new NumericDocValuesField(ID_SORT, source.getId()));
+        addText(doc, TITLE, source.getTitle());
+        if (source.getTitle() != null) {
+            doc.add(new TextField(TITLE_SUGGEST, source.getTitle(), Field.Store.NO));
+        }
+        addText(doc, CONTENT, source.getContent());
+        addText(doc, SUMMARY, source.getSummary());
+        // Stored for highlighting only; never returned in hits
+        addText(doc, OCR_TEXT, source.getOcrText());
+        if (source.getSummaryStatus() != null) {
+            doc.add(new StoredField(SUMMARY_STATUS, source.getSummaryStatus()));
+        }
+        if (source.getUsername() != null) {
+            doc.add(new StoredField(USERNAME, source.getUsername()));
+        }
+        doc.add(new StringField(OWNER, source.getUsername() != null ? source.getUsername() : SHARED_OWNER, Field.Store.NO));
+        if (source.getCreatedAt() != null) {
+            doc.add(new StoredField(CREATED_AT, source.getCreatedAt().toString()));
+            doc.add(new NumericDocValuesField(CREATED_AT_SORT, source.getCreatedAt().toInstant(ZoneOffset.UTC).toEpochMilli()));
+        }
+        if (source.getDocumentDate() != null) {
+            long epochDay = source.getDocumentDate().toEpochDay();
+            doc.add(new LongPoint(DOCUMENT_DATE, epochDay));
+            doc.add(new NumericDocValuesField(DOCUMENT_DATE, epochDay));
+            doc.add(new StoredField(DOCUMENT_DATE, epochDay));
+        }
+        if (source.getTags() != null) {
+            for (String tag : source.getTags()) {
+                doc.add(new StringField(TAGS, tag, Field.Store.YES));
+                doc.add(new SortedSetDocValuesField(TAGS, new BytesRef(tag)));
+                doc.add(new TextField(TAGS_SUGGEST, tag, Field.Store.NO));
+            }
+        }
+        return doc;
+    }
+
+    /**
+     * Reads back the stored fields; the OCR text is left out like in Elasticsearch hits.
+     */
+    static IndexedDocument fromLucene(Document doc) {
+        IndexedDocument indexed = new IndexedDocument();
+        indexed.setId(Long.valueOf(doc.get(ID)));
+        indexed.setTitle(doc.get(TITLE));
+        indexed.setContent(doc.get(CONTENT));
+        indexed.setSummary(doc.get(SUMMARY));
+        indexed.setSummaryStatus(doc.get(SUMMARY_STATUS));
+        indexed.setUsername(doc.get(USERNAME));
+        String createdAt = doc.get(CREATED_AT);
+        indexed.setCreatedAt(createdAt != null ? LocalDateTime.parse(createdAt) : null);
+        IndexableField documentDate = doc.getField(DOCUMENT_DATE);
+        if (documentDate != null && documentDate.numericValue() != null) {
+            indexed.setDocumentDate(LocalDate.ofEpochDay(documentDate.numericValue().longValue()));
+        }
+        String[] tags = doc.getValues(TAGS);
+        indexed.setTags(tags.length > 0 ? Arrays.asList(tags) : List.of());
+        return indexed;
+    }
+
+    private static void addText(Document doc, String field, String value) {
+        if (value != null && !value.isBlank()) {
+            doc.add(new TextField(field, value, Field.Store.YES));
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.fhtw.shreddit.search;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.MMapDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+
+/**
+ * Embedded Lucene index on local disk, used instead of Elasticsearch when {@code search.engine=lucene}.
+ * Searches use near-real-time readers from the single writer, refreshed every {@code search.lucene.refresh-ms};
+ * changes are committed to disk every {@code search.lucene.commit-ms} and on shutdown. Only one backend instance
+ * can own the index directory, so this mode is for single-node installs.
+ */
+@Component
+@ConditionalOnProperty(name = "search.engine", havingValue = "lucene")
+public class LuceneIndex {
+    private static final Logger log = LoggerFactory.getLogger(LuceneIndex.class);
+
+    @FunctionalInterface
+    interface SearcherCallback<T> {
+        T apply(IndexSearcher searcher) throws IOException;
+    }
+
+    private final Analyzer analyzer;
+    private final Directory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    public LuceneIndex(@Value("${search.lucene.path:./data/search-index}") String path) throws IOException {
+        Path indexPath = Files.createDirectories(Path.of(path));
+        this.analyzer = LuceneDocuments.analyzer();
+        // Memory-mapped segments: queries read the index through the OS page cache without copying
+        this.directory = new MMapDirectory(indexPath);
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        this.searcherManager = new SearcherManager(writer, null);
+        log.info("SEARCH: opened Lucene index at {} with {} documents", indexPath, writer.getDocStats().numDocs);
+    }
+
+    Analyzer analyzer() {
+        return analyzer;
+    }
+
+    /**
+     * Adds or replaces a document; visible to searches after the next refresh.
+     */
+    public void index(IndexedDocument document) {
+        try {
+            writer.updateDocument(LuceneDocuments.idTerm(document.getId()), LuceneDocuments.toLucene(document));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to index document " + document.getId(), e);
+        }
+    }
+
+    /**
+     * Removes the documents and refreshes right away, so they disappear from results immediately.
+     */
+    void delete(Collection<Long> ids) {
+        try {
+            writer.deleteDocuments(ids.stream().map(LuceneDocuments::idTerm).toArray(Term[]::new));
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete documents from the Lucene index", e);
+        }
+    }
+
+    <T> T search(SearcherCallback<T> callback) throws IOException {
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            return callback.apply(searcher);
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${search.lucene.refresh-ms:1000}")
+    public void refresh() {
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            log.warn("SEARCH: Lucene refresh failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${search.lucene.commit-ms:30000}")
+    public void commit() {
+        try {
+            if (writer.hasUncommittedChanges()) {
+                writer.commit();
+            }
+        } catch (IOException e) {
+            log.warn("SEARCH: Lucene commit failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        // Commits pending changes
+        writer.close();
+        directory.close();
+    }
+}
@@ -0,0 +1,106 @@
+package com.fhtw.shreddit.search;
+
+import com.fhtw.shreddit.api.dto.DocumentStatusEvent;
+import com.fhtw.shreddit.api.dto.IndexingRequest;
+import com.fhtw.shreddit.model.DocumentEntity;
+import com.fhtw.shreddit.repository.DocumentRepository;
+import com.fhtw.shreddit.service.StorageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Feeds the embedded Lucene index from the indexing queue, taking the place of the indexing worker when
+ * {@code search.engine=lucene}. Publishes the same status events, so clients see no difference.
+ */
+@Component
+@ConditionalOnProperty(name = "search.engine", havingValue = "lucene")
+public class LuceneIndexingListener {
+    private static final Logger log = LoggerFactory.getLogger(LuceneIndexingListener.class);
+
+    private final LuceneIndex index;
+    private final DocumentRepository documentRepository;
+    private final StorageService storageService;
+    private final RabbitTemplate rabbitTemplate;
+    private final String statusExchange;
+
+    public LuceneIndexingListener(LuceneIndex index,
+                                  DocumentRepository documentRepository,
+                                  StorageService storageService,
+                                  RabbitTemplate rabbitTemplate,
+                                  @Value("${rabbitmq.exchange.status:document-status}") String statusExchange) {
+        this.index = index;
+        this.documentRepository = documentRepository;
+        this.storageService = storageService;
+        this.rabbitTemplate = rabbitTemplate;
+        this.statusExchange = statusExchange;
+    }
+
+    @RabbitListener(queues = "${rabbitmq.queue.indexing:indexing-queue}")
+    public void onIndexingRequest(IndexingRequest request) {
+        if (request == null || request.getDocumentId() == null
+                || request.getObjectName() == null || request.getObjectName().isBlank()) {
+            log.warn("SEARCH: ignoring malformed indexing request {}", request);
+            return;
+        }
+        Long documentId = request.getDocumentId();
+        try {
+            Optional<DocumentEntity> entity = documentRepository.findById(documentId);
+            if (entity.isEmpty()) {
+                // Deleted in the meantime; the cleanup job removes it from the index
+                log.info("SEARCH: document {} no longer exists, not indexing", documentId);
+                return;
+            }
+            String ocrText = storageService.readText(request.getObjectName());
+            index.index(toIndexed(entity.get(), ocrText));
+            log.info("SEARCH: indexed document {} into the Lucene index", documentId);
+            publish(documentId, "INDEXED");
+        } catch (Exception e) {
+            log.error("SEARCH: failed to index document {}", documentId, e);
+            publish(documentId, "FAILED");
+        }
+    }
+
+    static IndexedDocument toIndexed(DocumentEntity entity, String ocrText) {
+        IndexedDocument indexed = new IndexedDocument();
+        indexed.setId(entity.getId());
+        indexed.setTitle(entity.getTitle());
+        indexed.setContent(entity.getContent());
+        indexed.setSummary(entity.getSummary());
+        indexed.setSummaryStatus(entity.getSummaryStatus());
+        indexed.setOcrText(ocrText != null && !ocrText.isBlank() ? ocrText : entity.getOcrText());
+        indexed.setUsername(entity.getUsername());
+        indexed.setCreatedAt(entity.getCreatedAt());
+        indexed.setDocumentDate(entity.getDocumentDate());
+        indexed.setTags(parseTags(entity.getTags()));
+        return indexed;
+    }
+
+    private static List<String> parseTags(String tags) {
+        if (tags == null || tags.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(tags.split(","))
+                .map(String::trim)
+                .filter(tag -> !tag.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    private void publish(Long documentId, String status) {
+        try {
+            rabbitTemplate.convertAndSend(statusExchange, "",
+                    new DocumentStatusEvent(documentId, "INDEXING", status, System.currentTimeMillis()));
+        } catch (Exception e) {
+            log.warn("SEARCH: failed to publish status {} for document {}: {}", status, documentId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package com.fhtw.shreddit.search;
+
+import com.fhtw.shreddit.exception.SearchUnavailableException;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queries.mlt.MoreLikeThis;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.SimpleCollector;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.search.highlight.Highlighter;
+import org.apache.lucene.search.highlight.InvalidTokenOffsetsException;
+import org.apache.lucene.search.highlight.NullFragmenter;
+import org.apache.lucene.search.highlight.QueryScorer;
+import org.apache.lucene.search.highlight.SimpleHTMLEncoder;
+import org.apache.lucene.search.highlight.SimpleHTMLFormatter;
+import org.apache.lucene.search.highlight.SimpleSpanFragmenter;
+import org.apache.lucene.util.QueryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * {@link SearchGateway} on the embedded {@link LuceneIndex}. Same query semantics as the Elasticsearch gateway:
+ * the text is matched against title (boosted), summary, OCR text and content, the owner filter and tag/date
+ * filters are non-scoring, and pages continue with {@code searchAfter}. There is no point in time, so a page
+ * reflects the index as of its own request.
+ */
+@Service
+@ConditionalOnProperty(name = "search.engine", havingValue = "lucene")
+public class LuceneSearchGateway implements SearchGateway {
+    private static final Logger log = LoggerFactory.getLogger(LuceneSearchGateway.class);
+    private static final int FACET_SIZE = 20;
+    private static final int FRAGMENT_SIZE = 150;
+    private static final Set<String> SUGGEST_FIELDS = Set.of(LuceneDocuments.ID, LuceneDocuments.TITLE);
+    private static final String[] SIMILAR_FIELDS = {LuceneDocuments.TITLE, LuceneDocuments.SUMMARY, LuceneDocuments.OCR_TEXT};
+
+    private final LuceneIndex index;
+
+    public LuceneSearchGateway(LuceneIndex index) {
+        this.index = index;
+    }
+
+    @Override
+    public SearchPage search(SearchQuery query) {
+        if (query.text() == null || query.text().isBlank()) {
+            return SearchPage.empty();
+        }
+        Query text = textQuery(query.text());
+        if (text == null) {
+            // Nothing left after analysis, e.g. only punctuation
+            return SearchPage.empty();
+        }
+        Sort sort = sort(query.sort());
+        LuceneCursor cursor = query.cursor() != null ? LuceneCursor.decode(query.cursor()) : null;
+        BooleanQuery.Builder builder = new BooleanQuery.Builder()
+                .add(text, BooleanClause.Occur.MUST)
+                .add(ownerFilter(query.username()), BooleanClause.Occur.FILTER);
+        addFilters(builder, query);
+        Query filtered = builder.build();
+        try {
+            return index.search(searcher -> {
+                FieldDoc after = cursor != null ? cursor.toFieldDoc(sort.getSort(), searcher.getIndexReader().maxDoc()) : null;
+                TopFieldDocs top = after == null
+                        ? searcher.search(filtered, query.size(), sort, true)
+                        : searcher.searchAfter(after, filtered, query.size(), sort, true);
+                List<SearchHit> hits = toHits(searcher, top, text);
+                String nextCursor = top.scoreDocs.length == query.size()
+                        ? LuceneCursor.of((FieldDoc) top.scoreDocs[top.scoreDocs.length - 1]).encode()
+                        : null;
+                return new SearchPage(hits, top.totalHits.value,
+                        top.totalHits.relation == TotalHits.Relation.EQUAL_TO,
+                        nextCursor,
+                        after == null ? facets(searcher, filtered) : null);
+            });
+        } catch (IOException e) {
+            log.error("SEARCH: Lucene error while querying '{}': {}", query.text(), e.getMessage());
+            throw new SearchUnavailableException("Lucene index could not be read", e);
+        }
+    }
+
+    @Override
+    public List<SearchHit> suggest(String prefix, String username, int size) {
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+        for (String field : List.of(LuceneDocuments.TITLE_SUGGEST, LuceneDocuments.TAGS_SUGGEST)) {
+            Query fieldQuery = prefixQuery(field, prefix);
+            if (fieldQuery != null) {
+                anyField.add(fieldQuery, BooleanClause.Occur.SHOULD);
+            }
+        }
+        BooleanQuery fields = anyField.build();
+        if (fields.clauses().isEmpty()) {
+            return List.of();
+        }
+        Query query = new BooleanQuery.Builder()
+                .add(fields, BooleanClause.Occur.MUST)
+                .add(ownerFilter(username), BooleanClause.Occur.FILTER)
+                .build();
+        try {
+            return index.search(searcher -> {
+                TopDocs top = searcher.search(query, size);
+                StoredFields stored = searcher.storedFields();
+                List<SearchHit> hits = new ArrayList<>();
+                for (ScoreDoc scoreDoc : top.scoreDocs) {
+                    Document doc = stored.document(scoreDoc.doc, SUGGEST_FIELDS);
+                    IndexedDocument title = new IndexedDocument();
+                    title.setTitle(doc.get(LuceneDocuments.TITLE));
+                    hits.add(new SearchHit(Long.valueOf(doc.get(LuceneDocuments.ID)), title, scoreDoc.score));
+                }
+                return hits;
+            });
+        } catch (IOException e) {
+            throw new SearchUnavailableException("Lucene index could not be read", e);
+        }
+    }
+
+    @Override
+    public String indexVersion(Long id, String owner) {
+        try {
+            return index.search(searcher -> searcher.count(new TermQuery(LuceneDocuments.idTerm(id))) == 0
+                    ? null
+                    // No per-document versions in Lucene; the reader version changes with every write to the index
+                    : "lucene:" + ((DirectoryReader) searcher.getIndexReader()).getVersion());
+        } catch (IOException e) {
+            throw new SearchUnavailableException("Lucene index could not be read", e);
+        }
+    }
+
+    @Override
+    public List<SearchHit> similar(Long id, String owner, String username, int size) {
+        Query self = new TermQuery(LuceneDocuments.idTerm(id));
+        try {
+            return index.search(searcher -> {
+                TopDocs source = searcher.search(self, 1);
+                if (source.scoreDocs.length == 0) {
+                    return List.of();
+                }
+                // Without term vectors the stored field values are analyzed again, like Elasticsearch does
+                MoreLikeThis moreLikeThis = new MoreLikeThis(searcher.getIndexReader());
+                moreLikeThis.setAnalyzer(index.analyzer());
+                moreLikeThis.setFieldNames(SIMILAR_FIELDS);
+                moreLikeThis.setMinTermFreq(1);
+                moreLikeThis.setMinDocFreq(2);
+                moreLikeThis.setMaxQueryTerms(25);
+                Query query = new BooleanQuery.Builder()
+                        .add(moreLikeThis.like(source.scoreDocs[0].doc), BooleanClause.Occur.MUST)
+                        .add(ownerFilter(username), BooleanClause.Occur.FILTER)
+                        .add(self, BooleanClause.Occur.MUST_NOT)
+                        .build();
+                TopDocs top = searcher.search(query, size);
+                StoredFields stored = searcher.storedFields();
+                List<SearchHit> hits = new ArrayList<>(top.scoreDocs.length);
+                for (ScoreDoc scoreDoc : top.scoreDocs) {
+                    IndexedDocument document = LuceneDocuments.fromLucene(stored.document(scoreDoc.doc));
+                    hits.add(new SearchHit(document.getId(), document, scoreDoc.score));
+                }
+                return hits;
+            });
+        } catch (IOException e) {
+            log.error("SEARCH: Lucene error while finding documents similar to {}: {}", id, e.getMessage());
+            throw new SearchUnavailableException("Lucene index could not be read", e);
+        }
+    }
+
+    @Override
+    public void delete(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return;
+        }
+        index.delete(ids);
+        log.info("SEARCH: removed {} documents from the Lucene index", ids.size());
+    }
+
+    // Like a multi_match over the text fields: any analyzed term in any field, title counting double
+    private Query textQuery(String text) {
+        QueryBuilder builder = new QueryBuilder(index.analyzer());
+        BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+        addField(anyField, builder, LuceneDocuments.TITLE, text, 2f);
+        addField(anyField, builder, LuceneDocuments.SUMMARY, text, 1f);
+        addField(anyField, builder, LuceneDocuments.OCR_TEXT, text, 1f);
+        addField(anyField, builder, LuceneDocuments.CONTENT, text, 1f);
+        BooleanQuery query = anyField.build();
+        return query.clauses().isEmpty() ? null : query;
+    }
+
+    private static void addField(BooleanQuery.Builder anyField, QueryBuilder builder, String field, String text, float boost) {
+        Query query = builder.createBooleanQuery(field, text, BooleanClause.Occur.SHOULD);
+        if (query != null) {
+            anyField.add(boost != 1f ? new BoostQuery(query, boost) : query, BooleanClause.Occur.SHOULD);
+        }
+    }
+
+    // All typed words must match; the last one may be incomplete
+    private Query prefixQuery(String field, String prefix) {
+        List<String> terms = new ArrayList<>();
+        try (TokenStream stream = index.analyzer().tokenStream(field, prefix)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                terms.add(term.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to analyze '" + prefix + "'", e);
+        }
+        if (terms.isEmpty()) {
+            return null;
+        }
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        for (int i = 0; i < terms.size() - 1; i++) {
+            builder.add(new TermQuery(new Term(field, terms.get(i))), BooleanClause.Occur.MUST);
+        }
+        builder.add(new PrefixQuery(new Term(field, terms.get(terms.size() - 1))), BooleanClause.Occur.MUST);
+        return builder.build();
+    }
+
+    // The user's own documents plus those without owner
+    private static Query ownerFilter(String username) {
+        return new BooleanQuery.Builder()
+                .add(new TermQuery(new Term(LuceneDocuments.OWNER, username)), BooleanClause.Occur.SHOULD)
+                .add(new TermQuery(new Term(LuceneDocuments.OWNER, LuceneDocuments.SHARED_OWNER)), BooleanClause.Occur.SHOULD)
+                .build();
+    }
+
+    private static void addFilters(BooleanQuery.Builder builder, SearchQuery query) {
+        for (String tag : query.tags()) {
+            builder.add(new TermQuery(new Term(LuceneDocuments.TAGS, tag)), BooleanClause.Occur.FILTER);
+        }
+        if (query.dateFrom() != null || query.dateTo() != null) {
+            builder.add(LongPoint.newRangeQuery(LuceneDocuments.DOCUMENT_DATE,
+                    query.dateFrom() != null ? query.dateFrom().toEpochDay() : Long.MIN_VALUE,
+                    query.dateTo() != null ? query.dateTo().toEpochDay() : Long.MAX_VALUE), BooleanClause.Occur.FILTER);
+        }
+    }
+
+    // The id tiebreaker makes every sort total, which searchAfter needs to neither repeat nor skip hits
+    private static Sort sort(SearchSort sort) {
+        return switch (sort) {
+            case RELEVANCE -> new Sort(SortField.FIELD_SCORE,
+                    new SortField(LuceneDocuments.CREATED_AT_SORT, SortField.Type.LONG, true),
+                    new SortField(LuceneDocuments.ID_SORT, SortField.Type.LONG, true));
+            case NEWEST -> new Sort(new SortField(LuceneDocuments.CREATED_AT_SORT, SortField.Type.LONG, true),
+                    new SortField(LuceneDocuments.ID_SORT, SortField.Type.LONG, true));
+            case OLDEST -> new Sort(new SortField(LuceneDocuments.CREATED_AT_SORT, SortField.Type.LONG),
+                    new SortField(LuceneDocuments.ID_SORT, SortField.Type.LONG));
+        };
+    }
+
+    private List<SearchHit> toHits(IndexSearcher searcher, TopDocs top, Query text) throws IOException {
+        StoredFields stored = searcher.storedFields();
+        List<SearchHit> hits = new ArrayList<>(top.scoreDocs.length);
+        for (ScoreDoc scoreDoc : top.scoreDocs) {
+            Document doc = stored.document(scoreDoc.doc);
+            Map<String, List<String>> highlights = new LinkedHashMap<>();
+            highlight(highlights, text, LuceneDocuments.TITLE, doc.get(LuceneDocuments.TITLE), 0);
+            highlight(highlights, text, LuceneDocuments.SUMMARY, doc.get(LuceneDocuments.SUMMARY), 2);
+            highlight(highlights, text, LuceneDocuments.OCR_TEXT, doc.get(LuceneDocuments.OCR_TEXT), 2);
+            highlight(highlights, text, LuceneDocuments.CONTENT, doc.get(LuceneDocuments.CONTENT), 2);
+            IndexedDocument document = LuceneDocuments.fromLucene(doc);
+            hits.add(new SearchHit(document.getId(), document, scoreDoc.score, highlights));
+        }
+        return hits;
+    }
+
+    /**
+     * Adds HTML-encoded fragments with {@code <mark>} around matches; {@code fragments == 0} highlights the whole value.
+     */
+    private void highlight(Map<String, List<String>> highlights, Query text, String field, String value, int fragments)
+            throws IOException {
+        if (value == null) {
+            return;
+        }
+        QueryScorer scorer = new QueryScorer(text, field);
+        Highlighter highlighter = new Highlighter(new SimpleHTMLFormatter("<mark>", "</mark>"), new SimpleHTMLEncoder(), scorer);
+        highlighter.setTextFragmenter(fragments == 0 ? new NullFragmenter() : new SimpleSpanFragmenter(scorer, FRAGMENT_SIZE));
+        try {
+            String[] best = highlighter.getBestFragments(index.analyzer(), field, value, Math.max(fragments, 1));
+            if (best.length > 0) {
+                highlights.put(field, List.of(best));
+            }
+        } catch (InvalidTokenOffsetsException e) {
+            log.debug("SEARCH: could not highlight {}: {}", field, e.getMessage());
+        }
+    }
+
+    private static SearchFacets facets(IndexSearcher searcher, Query query) throws IOException {
+        Map<String, Long> tags = new HashMap<>();
+        Map<String, Long> months = new TreeMap<>();
+        searcher.search(query, new SimpleCollector() {
+            private SortedSetDocValues tagValues;
+            private NumericDocValues dates;
+
+            @Override
+            protected void doSetNextReader(LeafReaderContext context) throws IOException {
+                tagValues = DocValues.getSortedSet(context.reader(), LuceneDocuments.TAGS);
+                dates = DocValues.getNumeric(context.reader(), LuceneDocuments.DOCUMENT_DATE);
+            }
+
+            @Override
+            public void collect(int doc) throws IOException {
+                if (tagValues.advanceExact(doc)) {
+                    for (int i = 0; i < tagValues.docValueCount(); i++) {
+                        tags.merge(tagValues.lookupOrd(tagValues.nextOrd()).utf8ToString(), 1L, Long::sum);
+                    }
+                }
+                if (dates.advanceExact(doc)) {
+                    months.merge(YearMonth.from(LocalDate.ofEpochDay(dates.longValue())).toString(), 1L, Long::sum);
+                }
+            }
+
+            @Override
+            public ScoreMode scoreMode() {
+                return ScoreMode.COMPLETE_NO_SCORES;
+            }
+        });
+        List<SearchFacets.Bucket> tagBuckets = tags.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()).thenComparing(Map.Entry::getKey))
+                .limit(FACET_SIZE)
+                .map(e -> new SearchFacets.Bucket(e.getKey(), e.getValue()))
+                .toList();
+        List<SearchFacets.Bucket> monthBuckets = months.entrySet().stream()
+                .map(e -> new SearchFacets.Bucket(e.getKey(), e.getValue()))
+                .toList();
+        return new SearchFacets(tagBuckets, monthBuckets);
+    }
+}
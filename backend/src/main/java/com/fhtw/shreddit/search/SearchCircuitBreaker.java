@@ -0,0 +1,216 @@
+package com.fhtw.shreddit.search;
+
+import com.fhtw.shreddit.exception.DocumentException;
+import com.fhtw.shreddit.exception.SearchUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Guards every index query (searches, suggestions, similar documents) with a time budget and a circuit breaker.
+ * A query that fails or runs over its budget counts as a failure; after {@code failureThreshold} failures in a
+ * row the breaker opens and queries are rejected immediately for {@code openDuration}, instead of each one
+ * waiting for Elasticsearch. After that a single trial query is let through, which closes the breaker again if
+ * it succeeds. Suggestions get a shorter budget of their own: they run on every keystroke.
+ */
+@Component
+public class SearchCircuitBreaker {
+    private static final Logger log = LoggerFactory.getLogger(SearchCircuitBreaker.class);
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    // HIT and MISS: the index answered, with or without a result
+    public enum Outcome {
+        HIT, MISS, ERROR, TIMEOUT, REJECTED
+    }
+
+    private final SearchGateway searchGateway;
+    private final Duration timeout;
+    private final Duration suggestTimeout;
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Clock clock;
+    // Queries that overrun the budget are abandoned, not awaited; a virtual thread is cheap to leave behind
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean trialRunning = new AtomicBoolean();
+    private volatile Instant openUntil;
+    private final Map<Outcome, AtomicLong> outcomes = new EnumMap<>(Outcome.class);
+
+    @Autowired
+    public SearchCircuitBreaker(SearchGateway searchGateway,
+                                @Value("${elasticsearch.search.timeout-ms:1500}") long timeoutMs,
+                                @Value("${elasticsearch.suggest.timeout-ms:100}") long suggestTimeoutMs,
+                                @Value("${elasticsearch.search.breaker.failure-threshold:5}") int failureThreshold,
+                                @Value("${elasticsearch.search.breaker.open-ms:30000}") long openMs) {
+        this(searchGateway, Duration.ofMillis(timeoutMs), Duration.ofMillis(suggestTimeoutMs), failureThreshold,
+                Duration.ofMillis(openMs), Clock.systemUTC());
+    }
+
+    SearchCircuitBreaker(SearchGateway searchGateway, Duration timeout, Duration suggestTimeout, int failureThreshold,
+                         Duration openDuration, Clock clock) {
+        this.searchGateway = searchGateway;
+        this.timeout = timeout;
+        this.suggestTimeout = suggestTimeout;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.clock = clock;
+        for (Outcome outcome : Outcome.values()) {
+            outcomes.put(outcome, new AtomicLong());
+        }
+    }
+
+    /**
+     * Runs the search within the time budget.
+     *
+     * @throws SearchUnavailableException if the breaker is open, or the search failed or timed out
+     * @throws DocumentException          if the gateway rejected the query itself (e.g. an expired cursor)
+     */
+    public SearchPage search(SearchQuery query) {
+        return call(() -> searchGateway.search(query), timeout, page -> page.hits().isEmpty());
+    }
+
+    /**
+     * {@link SearchGateway#suggest} within the (short) suggestion budget.
+     *
+     * @throws SearchUnavailableException if the breaker is open, or the query failed or timed out
+     */
+    public List<SearchHit> suggest(String prefix, String username, int size) {
+        return call(() -> searchGateway.suggest(prefix, username, size), suggestTimeout, List::isEmpty);
+    }
+
+    /**
+     * {@link SearchGateway#indexVersion} within the time budget.
+     *
+     * @throws SearchUnavailableException if the breaker is open, or the lookup failed or timed out
+     */
+    public String indexVersion(Long id, String owner) {
+        return call(() -> searchGateway.indexVersion(id, owner), timeout, Objects::isNull);
+    }
+
+    /**
+     * {@link SearchGateway#similar} within the time budget.
+     *
+     * @throws SearchUnavailableException if the breaker is open, or the query failed or timed out
+     */
+    public List<SearchHit> similar(Long id, String owner, String username, int size) {
+        return call(() -> searchGateway.similar(id, owner, username, size), timeout, List::isEmpty);
+    }
+
+    private <T> T call(Callable<T> query, Duration budget, Predicate<T> miss) {
+        boolean trial;
+        switch (state()) {
+            case OPEN -> {
+                record(Outcome.REJECTED);
+                throw new SearchUnavailableException("Search index unavailable (circuit open)");
+            }
+            case HALF_OPEN -> {
+                // Only one query probes the index; the others keep being rejected until it answers
+                if (!trialRunning.compareAndSet(false, true)) {
+                    record(Outcome.REJECTED);
+                    throw new SearchUnavailableException("Search index unavailable (circuit open)");
+                }
+                trial = true;
+            }
+            default -> trial = false;
+        }
+
+        Future<T> future = executor.submit(query);
+        try {
+            T result = future.get(budget.toMillis(), TimeUnit.MILLISECONDS);
+            onSuccess();
+            record(miss.test(result) ? Outcome.MISS : Outcome.HIT);
+            return result;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            record(Outcome.TIMEOUT);
+            onFailure(trial);
+            throw new SearchUnavailableException("Search index did not answer within " + budget.toMillis() + " ms");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DocumentException invalid) {
+                // The index answered; the request was wrong
+                onSuccess();
+                throw invalid;
+            }
+            record(Outcome.ERROR);
+            onFailure(trial);
+            throw new SearchUnavailableException("Search index failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            if (trial) {
+                trialRunning.set(false);
+            }
+            throw new SearchUnavailableException("Interrupted while searching", e);
+        }
+    }
+
+    public State state() {
+        Instant until = openUntil;
+        if (until == null) {
+            return State.CLOSED;
+        }
+        return clock.instant().isBefore(until) ? State.OPEN : State.HALF_OPEN;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("state", state());
+        for (Map.Entry<Outcome, AtomicLong> entry : outcomes.entrySet()) {
+            stats.put(entry.getKey().name().toLowerCase(Locale.ROOT), entry.getValue().get());
+        }
+        stats.put("consecutiveFailures", consecutiveFailures.get());
+        stats.put("timeoutMs", timeout.toMillis());
+        stats.put("suggestTimeoutMs", suggestTimeout.toMillis());
+        return stats;
+    }
+
+    private void record(Outcome outcome) {
+        outcomes.get(outcome).incrementAndGet();
+    }
+
+    private void onSuccess() {
+        consecutiveFailures.set(0);
+        if (openUntil != null) {
+            log.info("SEARCH: index answered again, closing circuit");
+            openUntil = null;
+        }
+        trialRunning.set(false);
+    }
+
+    private void onFailure(boolean trial) {
+        int failures = consecutiveFailures.incrementAndGet();
+        if (trial || failures >= failureThreshold) {
+            openUntil = clock.instant().plus(openDuration);
+            log.warn("SEARCH: {} failed index queries in a row, rejecting them for {} s",
+                    failures, openDuration.toSeconds());
+        }
+        trialRunning.set(false);
+    }
+}
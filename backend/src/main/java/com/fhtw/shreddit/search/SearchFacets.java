@@ -0,0 +1,14 @@
+package com.fhtw.shreddit.search;
+
+import java.util.List;
+
+/**
+ * Facet counts over all documents matching a search, not just the returned page.
+ *
+ * @param documentMonths document dates per month, keys formatted as {@code yyyy-MM}
+ */
+public record SearchFacets(List<Bucket> tags, List<Bucket> documentMonths) {
+
+    public record Bucket(String key, long count) {
+    }
+}
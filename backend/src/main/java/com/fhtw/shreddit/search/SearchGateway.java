@@ -1,7 +1,48 @@
 package com.fhtw.shreddit.search;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface SearchGateway {
-    List<SearchHit> search(String query);
+    /**
+     * Searches the documents visible to {@link SearchQuery#username()}: their own and those without an owner.
+     *
+     * @throws com.fhtw.shreddit.exception.DocumentException          if the cursor is invalid or has expired
+     * @throws com.fhtw.shreddit.exception.SearchUnavailableException if the index could not be queried
+     */
+    SearchPage search(SearchQuery query);
+
+    /**
+     * Prefix matches on title and tags for search-as-you-type. Hits carry only the title.
+     *
+     * @throws com.fhtw.shreddit.exception.SearchUnavailableException if the index could not be queried
+     */
+    List<SearchHit> suggest(String prefix, String username, int size);
+
+    /**
+     * Opaque version of a document in the index; changes whenever the document is indexed again or the index
+     * is rebuilt. Null if the document is not indexed (yet).
+     *
+     * @param owner owner of the document (null for legacy documents), which locates it in a routed index
+     *
+     * @throws com.fhtw.shreddit.exception.SearchUnavailableException if the index could not be queried
+     */
+    String indexVersion(Long id, String owner);
+
+    /**
+     * Documents visible to {@code username} whose text resembles document {@code id}, most similar first.
+     * The document itself is never part of the result; hits carry no OCR text.
+     *
+     * @param owner owner of document {@code id} (null for legacy documents)
+     *
+     * @throws com.fhtw.shreddit.exception.SearchUnavailableException if the index could not be queried
+     */
+    List<SearchHit> similar(Long id, String owner, String username, int size);
+
+    /**
+     * Removes the given documents from the search index. Documents that are not indexed are ignored.
+     *
+     * @throws RuntimeException if the index could not be updated
+     */
+    void delete(Collection<Long> ids);
 }
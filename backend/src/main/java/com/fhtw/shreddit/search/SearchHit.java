@@ -1,4 +1,15 @@
 package com.fhtw.shreddit.search;
 
-public record SearchHit(Long id, IndexedDocument document, double score) {
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @param document   the indexed fields, without the OCR text
+ * @param highlights matched fragments per field, empty if nothing was highlighted
+ */
+public record SearchHit(Long id, IndexedDocument document, double score, Map<String, List<String>> highlights) {
+
+    public SearchHit(Long id, IndexedDocument document, double score) {
+        this(id, document, score, Map.of());
+    }
 }
@@ -0,0 +1,21 @@
+package com.fhtw.shreddit.search;
+
+import java.util.List;
+
+/**
+ * One page of search hits.
+ *
+ * @param total      number of matching documents, a lower bound unless {@code totalExact}
+ * @param nextCursor cursor for the following page, null on the last page
+ * @param facets     facet counts, computed for the first page only
+ */
+public record SearchPage(List<SearchHit> hits, long total, boolean totalExact, String nextCursor, SearchFacets facets) {
+
+    public SearchPage(List<SearchHit> hits, long total, boolean totalExact, String nextCursor) {
+        this(hits, total, totalExact, nextCursor, null);
+    }
+
+    public static SearchPage empty() {
+        return new SearchPage(List.of(), 0, true, null);
+    }
+}
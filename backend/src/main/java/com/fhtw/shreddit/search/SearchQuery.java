@@ -0,0 +1,23 @@
+package com.fhtw.shreddit.search;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * @param username the requesting user; only their documents and documents without owner match
+ * @param cursor   opaque cursor from the previous {@link SearchPage}, or null for the first page
+ * @param tags     tags a document must all carry; empty for no tag filter
+ * @param dateFrom inclusive lower bound of the document date, or null
+ * @param dateTo   inclusive upper bound of the document date, or null
+ */
+public record SearchQuery(String text, String username, int size, SearchSort sort, String cursor,
+                          List<String> tags, LocalDate dateFrom, LocalDate dateTo) {
+
+    public SearchQuery(String text, String username, int size, SearchSort sort, String cursor) {
+        this(text, username, size, sort, cursor, List.of(), null, null);
+    }
+
+    public boolean hasFilters() {
+        return !tags.isEmpty() || dateFrom != null || dateTo != null;
+    }
+}
@@ -0,0 +1,23 @@
+package com.fhtw.shreddit.search;
+
+import com.fhtw.shreddit.exception.DocumentException;
+
+import java.util.Locale;
+
+public enum SearchSort {
+    RELEVANCE, NEWEST, OLDEST;
+
+    /**
+     * Parses the {@code sort} request parameter (case-insensitive); none means {@link #RELEVANCE}.
+     */
+    public static SearchSort parse(String value) {
+        if (value == null || value.isBlank()) {
+            return RELEVANCE;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new DocumentException("Unknown sort '" + value.trim() + "'");
+        }
+    }
+}
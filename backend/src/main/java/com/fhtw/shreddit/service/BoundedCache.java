@@ -0,0 +1,138 @@
+package com.fhtw.shreddit.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Size-bounded in-memory map shared by the service caches: entries are evicted least-recently-used beyond
+ * {@code maxSize} and expire after the time-to-live they were stored with. Loading is left to the caller and
+ * happens outside the cache's monitor, so a slow query does not block other lookups.
+ * <p>
+ * A load that races with an invalidation must not store what it read before the invalidation; callers take
+ * the {@link #generation()} before loading and store with {@link #putIfUnchanged}.
+ */
+final class BoundedCache<K, V> {
+
+    private final int maxSize;
+    private final Clock clock;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    // Bumped on every invalidation; guarded by entries
+    private long generation;
+
+    // Access-ordered map gives LRU eviction; guarded by its own monitor
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    BoundedCache(int maxSize, Clock clock) {
+        this.maxSize = maxSize;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                boolean evict = size() > BoundedCache.this.maxSize;
+                if (evict) {
+                    evictions.incrementAndGet();
+                }
+                return evict;
+            }
+        };
+    }
+
+    /**
+     * The cached value, or null (counted as a miss) if there is none or it has expired.
+     */
+    V get(K key) {
+        return get(key, value -> true);
+    }
+
+    /**
+     * The cached value if it is still {@code usable}, or null (counted as a miss); an unusable value is dropped.
+     */
+    V get(K key, Predicate<V> usable) {
+        Instant now = clock.instant();
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt().isAfter(now) && usable.test(entry.value())) {
+                    hits.incrementAndGet();
+                    return entry.value();
+                }
+                entries.remove(key);
+                evictions.incrementAndGet();
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    long generation() {
+        synchronized (entries) {
+            return generation;
+        }
+    }
+
+    /**
+     * Stores the value unless an invalidation ran since {@code generation} was taken.
+     */
+    void putIfUnchanged(long generation, K key, V value, Duration ttl) {
+        Instant expiresAt = clock.instant().plus(ttl);
+        synchronized (entries) {
+            if (generation == this.generation) {
+                entries.put(key, new Entry<>(value, expiresAt));
+            }
+        }
+    }
+
+    void invalidate(K key) {
+        synchronized (entries) {
+            generation++;
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Removes every entry matching {@code stale}; walks the whole cache, so meant for rare writes.
+     *
+     * @return number of removed entries
+     */
+    int invalidateIf(BiPredicate<K, V> stale) {
+        synchronized (entries) {
+            generation++;
+            int before = entries.size();
+            entries.entrySet().removeIf(e -> stale.test(e.getKey(), e.getValue().value()));
+            return before - entries.size();
+        }
+    }
+
+    /**
+     * Hit, miss and eviction counts and the current size, in the layout the metrics endpoint reports.
+     */
+    Map<String, Object> stats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long total = hitCount + missCount;
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRatio", total == 0 ? 0.0 : (double) hitCount / total);
+        stats.put("evictions", evictions.get());
+        stats.put("size", size);
+        stats.put("maxSize", maxSize);
+        return stats;
+    }
+
+    private record Entry<V>(V value, Instant expiresAt) {
+    }
+}
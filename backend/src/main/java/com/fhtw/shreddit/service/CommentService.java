@@ -1,15 +1,19 @@
 package com.fhtw.shreddit.service;
 
 import com.fhtw.shreddit.api.dto.CommentDto;
+import com.fhtw.shreddit.api.dto.CursorPage;
+import com.fhtw.shreddit.api.dto.DocumentCountsDto;
 import com.fhtw.shreddit.exception.DocumentException;
 import com.fhtw.shreddit.model.CommentEntity;
-import com.fhtw.shreddit.model.DocumentEntity;
 import com.fhtw.shreddit.repository.CommentRepository;
-import com.fhtw.shreddit.repository.DocumentRepository;
+import com.fhtw.shreddit.repository.DocumentActivityCount;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -20,28 +24,75 @@ import java.util.stream.Collectors;
 public class CommentService {
     private static final Logger log = LoggerFactory.getLogger(CommentService.class);
 
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+    static final int MAX_COUNT_IDS = 200;
+
     private final CommentRepository commentRepository;
-    private final DocumentRepository documentRepository;
+    private final DocumentAccessCache documentAccessCache;
 
-    public CommentService(CommentRepository commentRepository, DocumentRepository documentRepository) {
+    public CommentService(CommentRepository commentRepository, DocumentAccessCache documentAccessCache) {
         this.commentRepository = commentRepository;
-        this.documentRepository = documentRepository;
+        this.documentAccessCache = documentAccessCache;
     }
 
     /**
-     * List all comments for a document, ordered by creation date (newest first).
+     * Keyset-paginated comments of a document, newest first.
      *
      * @param documentId the ID of the document
-     * @return list of comments for the document
-     * @throws DocumentException if the document doesn't exist
+     * @param limit      page size; defaults to {@value #DEFAULT_PAGE_SIZE}, capped at {@value #MAX_PAGE_SIZE}
+     * @param cursor     opaque cursor from the previous page, or null for the first page
+     * @return the page and the cursor for the next one (null on the last page)
+     * @throws DocumentException if the document doesn't exist or the cursor is invalid
      */
-    public List<CommentDto> listComments(Long documentId) {
+    public CursorPage<CommentDto> listComments(Long documentId, Integer limit, String cursor) {
         // Verify document exists
         ensureDocumentExists(documentId);
-        
-        return commentRepository.findByDocumentIdOrderByCreatedAtDesc(documentId)
+        return findComments(documentId, limit, cursor);
+    }
+
+    // Without existence check, for callers that already resolved the document
+    CursorPage<CommentDto> findComments(Long documentId, Integer limit, String cursor) {
+        int size = (limit == null || limit <= 0) ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        // Fetch one extra row to find out whether another page follows
+        PageRequest pageRequest = PageRequest.of(0, size + 1);
+
+        List<CommentEntity> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = commentRepository.findPage(documentId, pageRequest);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            rows = commentRepository.findPageAfter(documentId, after.createdAt(), after.id(), pageRequest);
+        }
+
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            CommentEntity last = rows.get(size - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(rows.stream().map(this::toDto).collect(Collectors.toList()), nextCursor);
+    }
+
+    /**
+     * Comment and note counts for many documents at once, so the document list does not need one
+     * request per document. Documents that don't exist or aren't visible to the user are left out.
+     *
+     * @param documentIds the IDs of the documents
+     * @param username    the authenticated user
+     * @return one entry per visible document
+     * @throws DocumentException if no or too many IDs are given
+     */
+    public List<DocumentCountsDto> countByDocuments(Collection<Long> documentIds, String username) {
+        if (documentIds == null || documentIds.isEmpty()) {
+            throw new DocumentException("At least one document id is required");
+        }
+        if (documentIds.size() > MAX_COUNT_IDS) {
+            throw new DocumentException("Cannot count more than " + MAX_COUNT_IDS + " documents at once");
+        }
+        return commentRepository.countActivity(new LinkedHashSet<>(documentIds), username)
                 .stream()
-                .map(this::toDto)
+                .map(this::toCountsDto)
                 .collect(Collectors.toList());
     }
 
@@ -85,15 +136,21 @@ public class CommentService {
     }
 
     /**
-     * Ensure a document exists.
+     * Ensure a document exists, using the access cache instead of loading the document row.
      *
      * @param documentId the ID of the document
-     * @return the document entity
      * @throws DocumentException if the document doesn't exist
      */
-    private DocumentEntity ensureDocumentExists(Long documentId) {
-        return documentRepository.findById(documentId)
-                .orElseThrow(() -> new DocumentException("Document not found"));
+    private void ensureDocumentExists(Long documentId) {
+        if (!documentAccessCache.lookup(documentId).exists()) {
+            throw new DocumentException("Document not found");
+        }
+    }
+
+    private DocumentCountsDto toCountsDto(DocumentActivityCount count) {
+        return new DocumentCountsDto(count.getDocumentId(),
+                count.getComments() != null ? count.getComments() : 0,
+                count.getNotes() != null ? count.getNotes() : 0);
     }
 
     /**
@@ -0,0 +1,14 @@
+package com.fhtw.shreddit.service;
+
+/**
+ * Cached result of a document access lookup: whether the document exists and who owns it.
+ * A null owner marks a legacy document that every user may access.
+ */
+public record DocumentAccess(boolean exists, String owner) {
+
+    static final DocumentAccess MISSING = new DocumentAccess(false, null);
+
+    public boolean isAccessibleBy(String username) {
+        return exists && (owner == null || owner.equals(username));
+    }
+}
@@ -0,0 +1,79 @@
+package com.fhtw.shreddit.service;
+
+import com.fhtw.shreddit.repository.DocumentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Bounded in-memory cache of document id -> (exists, owner) used by the per-request access checks
+ * of the comment and note endpoints, so they do not hit the database on every call.
+ * Entries are evicted least-recently-used once {@code maxSize} is reached and expire after {@code ttl}.
+ * Writers must call {@link #invalidate(Long)} whenever a document is created or deleted. Rows are also inserted
+ * by the xml-import worker, which cannot invalidate; so "does not exist" is only kept for the much shorter
+ * {@code missingTtl}, after which such a document is found.
+ */
+@Component
+public class DocumentAccessCache {
+    private static final Logger log = LoggerFactory.getLogger(DocumentAccessCache.class);
+
+    private final DocumentRepository documentRepository;
+    private final Duration ttl;
+    private final Duration missingTtl;
+    private final BoundedCache<Long, DocumentAccess> entries;
+
+    @Autowired
+    public DocumentAccessCache(DocumentRepository documentRepository,
+                               @Value("${documents.access-cache.max-size:10000}") int maxSize,
+                               @Value("${documents.access-cache.ttl-seconds:300}") long ttlSeconds,
+                               @Value("${documents.access-cache.missing-ttl-seconds:5}") long missingTtlSeconds) {
+        this(documentRepository, maxSize, Duration.ofSeconds(ttlSeconds), Duration.ofSeconds(missingTtlSeconds),
+                Clock.systemUTC());
+    }
+
+    DocumentAccessCache(DocumentRepository documentRepository, int maxSize, Duration ttl, Duration missingTtl,
+                        Clock clock) {
+        this.documentRepository = documentRepository;
+        this.ttl = ttl;
+        this.missingTtl = missingTtl;
+        this.entries = new BoundedCache<>(maxSize, clock);
+    }
+
+    /**
+     * Returns the access information for a document, loading it from the database on a miss.
+     */
+    public DocumentAccess lookup(Long documentId) {
+        DocumentAccess cached = entries.get(documentId);
+        if (cached != null) {
+            return cached;
+        }
+        // Taken before the load so a load racing with a create/delete does not cache a stale result
+        long generation = entries.generation();
+        DocumentAccess access = documentRepository.findOwnerById(documentId)
+                .map(owner -> new DocumentAccess(true, owner.getUsername()))
+                .orElse(DocumentAccess.MISSING);
+        entries.putIfUnchanged(generation, documentId, access, access.exists() ? ttl : missingTtl);
+        return access;
+    }
+
+    public void invalidate(Long documentId) {
+        if (documentId == null) {
+            return;
+        }
+        entries.invalidate(documentId);
+        log.debug("Invalidated access cache entry for document {}", documentId);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = entries.stats();
+        stats.put("ttlSeconds", ttl.toSeconds());
+        stats.put("missingTtlSeconds", missingTtl.toSeconds());
+        return stats;
+    }
+}
@@ -0,0 +1,145 @@
+package com.fhtw.shreddit.service;
+
+import com.fhtw.shreddit.api.dto.DocumentBatchItemResult;
+import com.fhtw.shreddit.api.dto.DocumentDto;
+import com.fhtw.shreddit.api.dto.OcrRequestDto;
+import com.fhtw.shreddit.exception.DocumentException;
+import com.fhtw.shreddit.exception.MessagePublishException;
+import com.fhtw.shreddit.model.DocumentEntity;
+import com.fhtw.shreddit.repository.DocumentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bulk document creation: validates each item, inserts all valid ones in one transaction (sent as JDBC
+ * batches thanks to sequence ids and hibernate.jdbc.batch_size) and publishes their OCR requests in one batched publish
+ * once that transaction has committed.
+ */
+@Service
+public class DocumentBatchService {
+    private static final Logger log = LoggerFactory.getLogger(DocumentBatchService.class);
+
+    private final DocumentRepository repository;
+    private final RabbitMQService rabbitMQService;
+    private final DocumentAccessCache documentAccessCache;
+    private final int maxBatchSize;
+
+    public DocumentBatchService(DocumentRepository repository,
+                                RabbitMQService rabbitMQService,
+                                DocumentAccessCache documentAccessCache,
+                                @Value("${documents.batch.max-size:1000}") int maxBatchSize) {
+        this.repository = repository;
+        this.rabbitMQService = rabbitMQService;
+        this.documentAccessCache = documentAccessCache;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Create many documents at once. Invalid items are rejected individually; if the insert fails the whole
+     * batch is rolled back and no OCR request is sent. The OCR requests go out after the commit, so workers
+     * never receive ids of rows they cannot see yet. If publishing fails the documents still exist; their results
+     * are returned with {@code ocrQueued=false} instead of an error, so a client retry does not create them twice.
+     *
+     * @param documents   documents to create; a username on an item is ignored
+     * @param username    the authenticated user, owner of every created document
+     * @return one result per request item, in request order
+     */
+    @Transactional
+    public List<DocumentBatchItemResult> createBatch(List<DocumentDto> documents, String username) {
+        if (documents == null || documents.isEmpty()) {
+            throw new DocumentException("Batch must contain at least one document");
+        }
+        if (documents.size() > maxBatchSize) {
+            throw new DocumentException("Batch must not contain more than " + maxBatchSize + " documents");
+        }
+
+        DocumentBatchItemResult[] results = new DocumentBatchItemResult[documents.size()];
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < documents.size(); i++) {
+            DocumentDto doc = documents.get(i);
+            if (doc == null || doc.getTitle() == null || doc.getTitle().isBlank()) {
+                results[i] = DocumentBatchItemResult.rejected(i, "Title must not be blank");
+            } else {
+                accepted.add(i);
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            List<Long> ids = insertAll(documents, accepted, username);
+            List<OcrRequestDto> ocrRequests = new ArrayList<>(ids.size());
+            for (int k = 0; k < accepted.size(); k++) {
+                int index = accepted.get(k);
+                Long id = ids.get(k);
+                results[index] = DocumentBatchItemResult.created(index, id);
+                ocrRequests.add(new OcrRequestDto(id, documents.get(index).getTitle()));
+            }
+            afterCommit(() -> {
+                ids.forEach(documentAccessCache::invalidate);
+                try {
+                    rabbitMQService.sendOcrRequests(ocrRequests);
+                } catch (MessagePublishException e) {
+                    // The rows are committed; report them as created so the batch is not sent again
+                    log.error("Batch create by '{}': {} documents created but OCR not queued", username, ids.size(), e);
+                    for (int index : accepted) {
+                        results[index] = results[index].withoutOcr();
+                    }
+                }
+            });
+        }
+
+        log.info("Batch create by '{}': {} created, {} rejected", username, accepted.size(), documents.size() - accepted.size());
+        // A view of the array, so a failed publish after the commit still shows up in the results
+        return Arrays.asList(results);
+    }
+
+    // Runs right away when called without a transaction
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private List<Long> insertAll(List<DocumentDto> documents, List<Integer> accepted, String username) {
+        LocalDateTime now = LocalDateTime.now();
+        List<DocumentEntity> entities = new ArrayList<>(accepted.size());
+        for (int index : accepted) {
+            DocumentDto doc = documents.get(index);
+            DocumentEntity entity = new DocumentEntity();
+            entity.setTitle(doc.getTitle());
+            entity.setContent(doc.getContent());
+            entity.setCreatedAt(doc.getCreatedAt() != null ? doc.getCreatedAt() : now);
+            entity.setUsername(username);
+            entity.setFilename(doc.getFilename());
+            entity.setSummaryStatus(doc.getSummaryStatus() == null || doc.getSummaryStatus().isBlank()
+                    ? "PENDING"
+                    : doc.getSummaryStatus());
+            entity.setDocumentDate(doc.getDocumentDate());
+            entity.setTags(doc.getTags());
+            entities.add(entity);
+        }
+        // Flush so constraint violations surface here, as a rejected batch, rather than at commit
+        List<DocumentEntity> saved = repository.saveAllAndFlush(entities);
+        List<Long> ids = new ArrayList<>(saved.size());
+        for (DocumentEntity entity : saved) {
+            ids.add(entity.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,105 @@
+package com.fhtw.shreddit.service;
+
+import com.fhtw.shreddit.repository.CommentRepository;
+import com.fhtw.shreddit.repository.DocumentAccessDailyRepository;
+import com.fhtw.shreddit.repository.DocumentRepository;
+import com.fhtw.shreddit.repository.NoteRepository;
+import com.fhtw.shreddit.repository.PendingDeletionView;
+import com.fhtw.shreddit.search.SearchGateway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Background half of document deletion. Picks up documents marked deleted by {@link DocumentService}
+ * and removes, per batch: the stored objects (one multi-object delete), the search index entries
+ * (one delete-by-query), comments, notes and access statistics, and finally the rows themselves.
+ * A failing step leaves the batch in place, so it is retried on the next run.
+ */
+@Service
+public class DocumentCleanupService {
+    private static final Logger log = LoggerFactory.getLogger(DocumentCleanupService.class);
+
+    private final DocumentRepository documentRepository;
+    private final CommentRepository commentRepository;
+    private final NoteRepository noteRepository;
+    private final DocumentAccessDailyRepository accessDailyRepository;
+    private final StorageService storageService;
+    private final SearchGateway searchGateway;
+    private final int batchSize;
+    private final long graceSeconds;
+
+    public DocumentCleanupService(DocumentRepository documentRepository,
+                                  CommentRepository commentRepository,
+                                  NoteRepository noteRepository,
+                                  DocumentAccessDailyRepository accessDailyRepository,
+                                  StorageService storageService,
+                                  SearchGateway searchGateway,
+                                  @Value("${documents.cleanup.batch-size:100}") int batchSize,
+                                  @Value("${documents.cleanup.grace-seconds:300}") long graceSeconds) {
+        this.documentRepository = documentRepository;
+        this.commentRepository = commentRepository;
+        this.noteRepository = noteRepository;
+        this.accessDailyRepository = accessDailyRepository;
+        this.storageService = storageService;
+        this.searchGateway = searchGateway;
+        this.batchSize = batchSize;
+        this.graceSeconds = graceSeconds;
+    }
+
+    @Scheduled(fixedDelayString = "${documents.cleanup.interval-ms:5000}",
+            initialDelayString = "${documents.cleanup.interval-ms:5000}")
+    public void run() {
+        try {
+            int purged;
+            do {
+                purged = cleanupBatch();
+            } while (purged == batchSize);
+        } catch (Exception e) {
+            log.warn("Document cleanup failed, will retry: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Cleans up one batch of deleted documents.
+     *
+     * @return number of purged documents
+     */
+    int cleanupBatch() {
+        // The grace period lets OCR/summary jobs that were already running for a document finish
+        // writing their output before its prefix is emptied
+        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(graceSeconds);
+        List<PendingDeletionView> pending = documentRepository.findPendingDeletion(cutoff, batchSize);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = pending.stream().map(PendingDeletionView::getId).toList();
+
+        Set<String> objects = new LinkedHashSet<>();
+        for (PendingDeletionView doc : pending) {
+            objects.addAll(storageService.listObjects("documents/" + doc.getId() + "/"));
+            String filename = doc.getFilename();
+            // Uploads are stored under their original name, which another document may share
+            if (filename != null && !filename.isBlank()
+                    && !documentRepository.existsByFilenameAndIdNot(filename, doc.getId())) {
+                objects.add(filename);
+            }
+        }
+        storageService.deleteObjects(objects);
+        searchGateway.delete(ids);
+
+        commentRepository.deleteByDocumentIds(ids);
+        noteRepository.deleteByDocumentIds(ids);
+        accessDailyRepository.deleteByDocumentIds(ids);
+        int purged = documentRepository.purgeDeleted(ids);
+        log.info("Cleaned up {} deleted documents ({} stored objects)", purged, objects.size());
+        return purged;
+    }
+}
@@ -0,0 +1,200 @@
+package com.fhtw.shreddit.service;
+
+import com.fhtw.shreddit.api.dto.CommentDto;
+import com.fhtw.shreddit.api.dto.CursorPage;
+import com.fhtw.shreddit.api.dto.DocumentAccessDayDto;
+import com.fhtw.shreddit.api.dto.DocumentDetailDto;
+import com.fhtw.shreddit.api.dto.DocumentDto;
+import com.fhtw.shreddit.api.dto.NoteDto;
+import com.fhtw.shreddit.exception.DocumentException;
+import com.fhtw.shreddit.repository.DocumentAccessDailyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+/**
+ * Aggregated document detail view. Ownership is resolved once through the access cache; the requested
+ * sections are then loaded concurrently, one virtual thread per query, so the response takes about as
+ * long as the slowest query instead of their sum. Virtual threads are unbounded but connections are not:
+ * a shared semaphore (half the connection pool by default) caps the queries running at once across all requests,
+ * so a burst of detail requests queues for permits and leaves connections for every other endpoint. This relies
+ * on {@code spring.jpa.open-in-view=false}; otherwise the request thread would keep the connection of its
+ * ownership lookup for the whole request while its queries wait for more.
+ */
+@Service
+public class DocumentDetailService {
+    private static final Logger log = LoggerFactory.getLogger(DocumentDetailService.class);
+
+    public enum Section {
+        DOCUMENT, NOTES, COMMENTS, ACCESS;
+
+        /**
+         * Parses {@code include} values (case-insensitive, comma-separated or repeated); none means all sections.
+         */
+        public static Set<Section> parse(Collection<String> include) {
+            if (include == null || include.isEmpty()) {
+                return EnumSet.allOf(Section.class);
+            }
+            Set<Section> sections = EnumSet.noneOf(Section.class);
+            for (String value : include) {
+                for (String part : value.split(",")) {
+                    if (part.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        sections.add(Section.valueOf(part.trim().toUpperCase(Locale.ROOT)));
+                    } catch (IllegalArgumentException e) {
+                        throw new DocumentException("Unknown section '" + part.trim() + "'");
+                    }
+                }
+            }
+            return sections.isEmpty() ? EnumSet.allOf(Section.class) : sections;
+        }
+    }
+
+    private final DocumentAccessCache documentAccessCache;
+    private final DocumentService documentService;
+    private final NoteService noteService;
+    private final CommentService commentService;
+    private final DocumentAccessDailyRepository accessDailyRepository;
+    private final int commentLimit;
+    private final int accessDays;
+    private final Semaphore queryPermits;
+
+    @Autowired
+    public DocumentDetailService(DocumentAccessCache documentAccessCache,
+                                 DocumentService documentService,
+                                 NoteService noteService,
+                                 CommentService commentService,
+                                 DocumentAccessDailyRepository accessDailyRepository,
+                                 @Value("${documents.detail.comment-limit:20}") int commentLimit,
+                                 @Value("${documents.detail.access-days:30}") int accessDays,
+                                 @Value("${documents.detail.max-concurrent-queries:0}") int maxConcurrentQueries,
+                                 @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+        this(documentAccessCache, documentService, noteService, commentService, accessDailyRepository, commentLimit,
+                accessDays, new Semaphore(queryPermits(maxConcurrentQueries, poolSize)));
+    }
+
+    DocumentDetailService(DocumentAccessCache documentAccessCache,
+                          DocumentService documentService,
+                          NoteService noteService,
+                          CommentService commentService,
+                          DocumentAccessDailyRepository accessDailyRepository,
+                          int commentLimit,
+                          int accessDays,
+                          Semaphore queryPermits) {
+        this.documentAccessCache = documentAccessCache;
+        this.documentService = documentService;
+        this.noteService = noteService;
+        this.commentService = commentService;
+        this.accessDailyRepository = accessDailyRepository;
+        this.commentLimit = commentLimit;
+        this.accessDays = accessDays;
+        this.queryPermits = queryPermits;
+    }
+
+    /**
+     * Permits for detail queries: the configured number, or half the connection pool (at least one) if none is set.
+     */
+    static int queryPermits(int maxConcurrentQueries, int poolSize) {
+        return maxConcurrentQueries > 0 ? maxConcurrentQueries : Math.max(1, poolSize / 2);
+    }
+
+    /**
+     * Load the requested sections of a document.
+     *
+     * @param id       the ID of the document
+     * @param username the authenticated user
+     * @param sections the sections to load
+     * @return the details, or empty if the document doesn't exist or isn't visible to the user
+     */
+    public Optional<DocumentDetailDto> getDetail(Long id, String username, Set<Section> sections) {
+        if (!documentAccessCache.lookup(id).isAccessibleBy(username)) {
+            return Optional.empty();
+        }
+
+        Future<Optional<DocumentDto>> document;
+        Future<List<NoteDto>> notes;
+        Future<CursorPage<CommentDto>> comments;
+        Future<List<DocumentAccessDayDto>> accessStats;
+        // Closing the executor waits for all submitted queries
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            document = submit(executor, sections.contains(Section.DOCUMENT), () -> documentService.getById(id));
+            notes = submit(executor, sections.contains(Section.NOTES), () -> noteService.findNotes(id));
+            comments = submit(executor, sections.contains(Section.COMMENTS),
+                    () -> commentService.findComments(id, commentLimit, null));
+            accessStats = submit(executor, sections.contains(Section.ACCESS), () -> loadAccessStats(id));
+        }
+
+        Optional<DocumentDto> documentDto = result(document);
+        if (documentDto != null && documentDto.isEmpty()) {
+            // Deleted between the ownership lookup and the load
+            return Optional.empty();
+        }
+        CursorPage<CommentDto> commentPage = result(comments);
+        log.debug("Loaded sections {} of document {} for '{}'", sections, id, username);
+        return Optional.of(new DocumentDetailDto(
+                documentDto != null ? documentDto.get() : null,
+                result(notes),
+                commentPage != null ? commentPage.items() : null,
+                commentPage != null ? commentPage.nextCursor() : null,
+                result(accessStats)));
+    }
+
+    private List<DocumentAccessDayDto> loadAccessStats(Long id) {
+        LocalDate from = LocalDate.now().minusDays(accessDays - 1L);
+        return accessDailyRepository.findByDocumentIdAndAccessDateGreaterThanEqualOrderByAccessDateDesc(id, from)
+                .stream()
+                .map(day -> new DocumentAccessDayDto(day.getAccessDate(), day.getAccessCount()))
+                .collect(Collectors.toList());
+    }
+
+    private <T> Future<T> submit(ExecutorService executor, boolean requested, Callable<T> task) {
+        if (!requested) {
+            return null;
+        }
+        return executor.submit(() -> {
+            // Each query holds a connection while it runs; wait for a permit first
+            queryPermits.acquire();
+            try {
+                return task.call();
+            } finally {
+                queryPermits.release();
+            }
+        });
+    }
+
+    private static <T> T result(Future<T> future) {
+        if (future == null) {
+            return null;
+        }
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Failed to load document details", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading document details", e);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.fhtw.shreddit.service;
+
+import com.fhtw.shreddit.api.dto.DocumentStatusEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Relays document status events from the workers to connected SSE clients. Each event is delivered
+ * only to users that may access the document (owner, or everyone for legacy documents without owner).
+ */
+@Service
+public class DocumentEventService {
+    private static final Logger log = LoggerFactory.getLogger(DocumentEventService.class);
+
+    private final DocumentAccessCache documentAccessCache;
+    private final long timeoutMs;
+    private final Map<String, Set<SseEmitter>> emitters = new ConcurrentHashMap<>();
+
+    public DocumentEventService(DocumentAccessCache documentAccessCache,
+                                @Value("${documents.events.timeout-ms:1800000}") long timeoutMs) {
+        this.documentAccessCache = documentAccessCache;
+        this.timeoutMs = timeoutMs;
+    }
+
+    public SseEmitter subscribe(String username) {
+        SseEmitter emitter = createEmitter();
+        emitters.compute(username, (user, set) -> {
+            Set<SseEmitter> target = set != null ? set : ConcurrentHashMap.newKeySet();
+            target.add(emitter);
+            return target;
+        });
+        emitter.onCompletion(() -> remove(username, emitter));
+        emitter.onTimeout(() -> remove(username, emitter));
+        emitter.onError(e -> remove(username, emitter));
+        // Flushes the response headers so the client sees the stream as open right away
+        send(username, emitter, SseEmitter.event().comment("connected"));
+        log.debug("SSE subscriber added for '{}'", username);
+        return emitter;
+    }
+
+    @RabbitListener(queues = "#{documentStatusQueue.name}")
+    public void onStatusEvent(DocumentStatusEvent event) {
+        if (event == null || event.getDocumentId() == null || emitters.isEmpty()) {
+            return;
+        }
+        DocumentAccess access = documentAccessCache.lookup(event.getDocumentId());
+        if (!access.exists()) {
+            return;
+        }
+        emitters.forEach((username, userEmitters) -> {
+            if (access.isAccessibleBy(username)) {
+                for (SseEmitter emitter : userEmitters) {
+                    send(username, emitter, SseEmitter.event()
+                            .name("status")
+                            .data(event, MediaType.APPLICATION_JSON));
+                }
+            }
+        });
+    }
+
+    /**
+     * Keeps idle connections open through proxies and detects clients that went away.
+     */
+    @Scheduled(fixedDelayString = "${documents.events.heartbeat-ms:25000}")
+    public void heartbeat() {
+        emitters.forEach((username, userEmitters) -> {
+            for (SseEmitter emitter : userEmitters) {
+                send(username, emitter, SseEmitter.event().comment("ping"));
+            }
+        });
+    }
+
+    SseEmitter createEmitter() {
+        return new SseEmitter(timeoutMs);
+    }
+
+    int subscriberCount() {
+        return emitters.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private void send(String username, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping SSE subscriber of '{}': {}", username, e.getMessage());
+            remove(username, emitter);
+        }
+    }
+
+    private void remove(String username, SseEmitter emitter) {
+        emitters.computeIfPresent(username, (user, set) -> {
+            set.remove(emitter);
+            return set.isEmpty() ? null : set;
+        });
+    }
+}
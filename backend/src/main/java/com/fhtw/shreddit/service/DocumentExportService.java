@@ -0,0 +1,85 @@
+package com.fhtw.shreddit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fhtw.shreddit.api.dto.DocumentDto;
+import com.fhtw.shreddit.model.DocumentEntity;
+import com.fhtw.shreddit.repository.DocumentRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes a user's documents as newline-delimited JSON straight from a database cursor,
+ * so memory use does not depend on the number of documents exported.
+ */
+@Service
+public class DocumentExportService {
+    private static final Logger log = LoggerFactory.getLogger(DocumentExportService.class);
+
+    private static final int FLUSH_EVERY = 100;
+
+    private final DocumentRepository documentRepository;
+    private final EntityManager entityManager;
+    private final ObjectWriter writer;
+
+    public DocumentExportService(DocumentRepository documentRepository, EntityManager entityManager, ObjectMapper objectMapper) {
+        this.documentRepository = documentRepository;
+        this.entityManager = entityManager;
+        this.writer = objectMapper.writerFor(DocumentDto.class);
+    }
+
+    /**
+     * Export all documents visible to {@code username}, one JSON object per line.
+     *
+     * @param includeText whether to include the large ocrText and summary fields
+     * @return number of documents written
+     */
+    @Transactional(readOnly = true)
+    public long exportNdjson(String username, boolean includeText, OutputStream out) throws IOException {
+        long count = 0;
+        try (Stream<DocumentEntity> documents = documentRepository.streamVisibleTo(username)) {
+            Iterator<DocumentEntity> it = documents.iterator();
+            while (it.hasNext()) {
+                DocumentEntity entity = it.next();
+                out.write(writer.writeValueAsBytes(toDto(entity, includeText)));
+                out.write('\n');
+                // Keep the persistence context from accumulating every exported row
+                entityManager.detach(entity);
+                if (++count % FLUSH_EVERY == 0) {
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+        log.info("Exported {} documents for user '{}' (includeText={})", count, username, includeText);
+        return count;
+    }
+
+    private DocumentDto toDto(DocumentEntity entity, boolean includeText) {
+        DocumentDto dto = new DocumentDto();
+        dto.setId(entity.getId());
+        dto.setTitle(entity.getTitle());
+        dto.setContent(entity.getContent());
+        dto.setCreatedAt(entity.getCreatedAt());
+        dto.setUsername(entity.getUsername());
+        dto.setFilename(entity.getFilename());
+        dto.setSummaryStatus(entity.getSummaryStatus());
+        dto.setDocumentDate(entity.getDocumentDate());
+        dto.setTags(entity.getTags());
+        dto.setVersion(entity.getVersion());
+        dto.setUpdatedAt(entity.getUpdatedAt());
+        if (includeText) {
+            dto.setSummary(entity.getSummary());
+            dto.setOcrText(entity.getOcrText());
+        }
+        return dto;
+    }
+}
@@ -1,47 +1,95 @@
 package com.fhtw.shreddit.service;
 
+import com.fhtw.shreddit.api.dto.CursorPage;
+import com.fhtw.shreddit.api.dto.DocumentDeleteResult;
 import com.fhtw.shreddit.api.dto.DocumentDto;
+import com.fhtw.shreddit.api.dto.DocumentListItemDto;
 import com.fhtw.shreddit.api.dto.OcrRequestDto;
 import com.fhtw.shreddit.exception.DocumentCreationException;
+import com.fhtw.shreddit.exception.DocumentException;
 import com.fhtw.shreddit.model.DocumentEntity;
 import com.fhtw.shreddit.repository.DocumentRepository;
+import com.fhtw.shreddit.search.SearchGateway;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 public class DocumentService {
     private static final Logger log = LoggerFactory.getLogger(DocumentService.class);
 
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+    static final int MAX_DELETE_SIZE = 1000;
+
     private final DocumentRepository repository;
     private final RabbitMQService rabbitMQService;
+    private final DocumentAccessCache documentAccessCache;
+    private final SearchGateway searchGateway;
+    private final SimilarDocumentsService similarDocumentsService;
 
-    public DocumentService(DocumentRepository repository, RabbitMQService rabbitMQService) {
+    public DocumentService(DocumentRepository repository, RabbitMQService rabbitMQService,
+                           DocumentAccessCache documentAccessCache, SearchGateway searchGateway,
+                           SimilarDocumentsService similarDocumentsService) {
         this.repository = repository;
         this.rabbitMQService = rabbitMQService;
+        this.documentAccessCache = documentAccessCache;
+        this.searchGateway = searchGateway;
+        this.similarDocumentsService = similarDocumentsService;
     }
 
-    public List<DocumentDto> getAll() {
-        // Get current authenticated user
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String username = auth != null ? auth.getName() : "anonymous";
+    /**
+     * Keyset-paginated listing of the current user's documents, newest first.
+     * Returns the slim list projection; heavy fields come from {@link #getById(Long)}.
+     *
+     * @param limit  page size; defaults to {@value #DEFAULT_PAGE_SIZE}, capped at {@value #MAX_PAGE_SIZE}
+     * @param cursor opaque cursor from the previous page, or null for the first page
+     * @return the page and the cursor for the next one (null on the last page)
+     */
+    public CursorPage<DocumentListItemDto> getPage(Integer limit, String cursor) {
+        int size = (limit == null || limit <= 0) ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        String username = currentUser();
+        // Fetch one extra row to find out whether another page follows
+        PageRequest pageRequest = PageRequest.of(0, size + 1);
+
+        List<DocumentListItemDto> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = repository.findVisiblePage(username, pageRequest);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            rows = repository.findVisiblePageAfter(username, after.createdAt(), after.id(), pageRequest);
+        }
 
-        return repository.findAll().stream()
-                .filter(doc -> doc.getUsername() == null || doc.getUsername().equals(username))
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            DocumentListItemDto last = rows.get(size - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(rows, nextCursor);
     }
 
     public Optional<DocumentDto> getById(Long id) {
         return repository.findById(id).map(this::toDto);
     }
 
+    /**
+     * Current version of a document without loading its content, or empty if it does not exist.
+     */
+    public Optional<Long> getVersion(Long id) {
+        return repository.findVersionById(id);
+    }
+
     public DocumentDto create(DocumentDto doc) {
         try {
             log.info("Creating document: {}", doc.getTitle());
@@ -52,6 +100,7 @@ public class DocumentService {
             // Clear any client-provided summary; it will be generated by workers
             entity.setSummary(null);
             DocumentEntity saved = repository.save(entity);
+            documentAccessCache.invalidate(saved.getId());
             DocumentDto createdDoc = toDto(saved);
 
             // Send OCR request
@@ -80,6 +129,7 @@ public class DocumentService {
             // Summary will be produced asynchronously by GenAI worker
             entity.setSummary(null);
             DocumentEntity saved = repository.save(entity);
+            documentAccessCache.invalidate(saved.getId());
             return toDto(saved);
         } catch (Exception e) {
             log.error("Error creating document (upload flow): {}", e.getMessage(), e);
@@ -87,15 +137,58 @@ public class DocumentService {
         }
     }
 
-    public void delete(Long id) {
-        repository.deleteById(id);
+    /**
+     * Deletes the given documents on behalf of {@code username}. The rows are only marked deleted here,
+     * which hides them immediately, and they are taken out of the search index, which answers searches without
+     * looking at the rows; {@link DocumentCleanupService} removes stored files, child rows and any index entries
+     * left behind afterwards.
+     */
+    public DocumentDeleteResult delete(Collection<Long> ids, String username) {
+        if (ids == null || ids.isEmpty()) {
+            throw new DocumentException("At least one document id is required");
+        }
+        if (ids.size() > MAX_DELETE_SIZE) {
+            throw new DocumentException("Cannot delete more than " + MAX_DELETE_SIZE + " documents at once");
+        }
+
+        List<Long> deletable = new ArrayList<>();
+        List<Long> notFound = new ArrayList<>();
+        List<Long> forbidden = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            DocumentAccess access = documentAccessCache.lookup(id);
+            if (!access.exists()) {
+                notFound.add(id);
+            } else if (access.isAccessibleBy(username)) {
+                deletable.add(id);
+            } else {
+                forbidden.add(id);
+            }
+        }
+
+        if (!deletable.isEmpty()) {
+            int marked = repository.markDeleted(deletable, LocalDateTime.now());
+            deletable.forEach(documentAccessCache::invalidate);
+            similarDocumentsService.evict(deletable);
+            log.info("Marked {} documents deleted for '{}'", marked, username);
+            try {
+                searchGateway.delete(deletable);
+            } catch (Exception e) {
+                // The rows are deleted already; the cleanup removes the index entries on its next pass
+                log.warn("Could not remove deleted documents {} from the search index: {}", deletable, e.getMessage());
+            }
+        }
+        return new DocumentDeleteResult(deletable, notFound, forbidden);
     }
 
     public void updateFilename(Long id, String filename) {
-        repository.findById(id).ifPresent(entity -> {
-            entity.setFilename(filename);
-            repository.save(entity);
-        });
+        if (repository.updateFilename(id, filename, LocalDateTime.now()) == 0) {
+            log.warn("Filename not stored: document {} does not exist", id);
+        }
+    }
+
+    private String currentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null ? auth.getName() : "anonymous";
     }
 
     private DocumentEntity toEntity(DocumentDto doc) {
@@ -127,6 +220,8 @@ public class DocumentService {
         doc.setOcrText(entity.getOcrText());
         doc.setDocumentDate(entity.getDocumentDate());
         doc.setTags(entity.getTags());
+        doc.setVersion(entity.getVersion());
+        doc.setUpdatedAt(entity.getUpdatedAt());
         return doc;
     }
 }
@@ -2,9 +2,7 @@ package com.fhtw.shreddit.service;
 
 import com.fhtw.shreddit.api.dto.NoteDto;
 import com.fhtw.shreddit.exception.DocumentException;
-import com.fhtw.shreddit.model.DocumentEntity;
 import com.fhtw.shreddit.model.NoteEntity;
-import com.fhtw.shreddit.repository.DocumentRepository;
 import com.fhtw.shreddit.repository.NoteRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,16 +18,21 @@ public class NoteService {
     private static final Logger log = LoggerFactory.getLogger(NoteService.class);
 
     private final NoteRepository noteRepository;
-    private final DocumentRepository documentRepository;
+    private final DocumentAccessCache documentAccessCache;
 
-    public NoteService(NoteRepository noteRepository, DocumentRepository documentRepository) {
+    public NoteService(NoteRepository noteRepository, DocumentAccessCache documentAccessCache) {
         this.noteRepository = noteRepository;
-        this.documentRepository = documentRepository;
+        this.documentAccessCache = documentAccessCache;
     }
 
     public List<NoteDto> listNotes(Long documentId) {
         String currentUser = currentUser();
         ensureDocumentAccessible(documentId, currentUser);
+        return findNotes(documentId);
+    }
+
+    // Without access check, for callers that already resolved the document's owner
+    List<NoteDto> findNotes(Long documentId) {
         return noteRepository.findByDocumentIdOrderByCreatedAtAsc(documentId)
                 .stream()
                 .map(this::toDto)
@@ -41,10 +44,10 @@ public class NoteService {
             throw new DocumentException("Note content must not be empty");
         }
         String currentUser = currentUser();
-        DocumentEntity doc = ensureDocumentAccessible(documentId, currentUser);
+        ensureDocumentAccessible(documentId, currentUser);
 
         NoteEntity entity = new NoteEntity();
-        entity.setDocumentId(doc.getId());
+        entity.setDocumentId(documentId);
         entity.setContent(content.trim());
         entity.setAuthor(currentUser);
 
@@ -53,13 +56,14 @@ public class NoteService {
         return toDto(saved);
     }
 
-    private DocumentEntity ensureDocumentAccessible(Long documentId, String currentUser) {
-        DocumentEntity doc = documentRepository.findById(documentId)
-                .orElseThrow(() -> new DocumentException("Document not found"));
-        if (doc.getUsername() != null && !doc.getUsername().equals(currentUser)) {
+    private void ensureDocumentAccessible(Long documentId, String currentUser) {
+        DocumentAccess access = documentAccessCache.lookup(documentId);
+        if (!access.exists()) {
+            throw new DocumentException("Document not found");
+        }
+        if (!access.isAccessibleBy(currentUser)) {
             throw new DocumentException("Not allowed to access this document");
         }
-        return doc;
     }
 
     private String currentUser() {
@@ -9,6 +9,8 @@ import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 public class RabbitMQService {
     private static final Logger log = LoggerFactory.getLogger(RabbitMQService.class);
@@ -33,6 +35,28 @@ public class RabbitMQService {
         }
     }
 
+    /**
+     * Publish many OCR requests over a single channel in one operation instead of one publish per document.
+     */
+    public void sendOcrRequests(List<OcrRequestDto> requests) {
+        if (requests == null || requests.isEmpty()) {
+            return;
+        }
+        try {
+            log.info("Sending {} OCR requests in one batch", requests.size());
+            rabbitTemplate.invoke(operations -> {
+                for (OcrRequestDto request : requests) {
+                    operations.convertAndSend(ocrQueueName, request);
+                }
+                return null;
+            });
+            log.info("Batch of {} OCR requests sent successfully", requests.size());
+        } catch (AmqpException e) {
+            log.error("Failed to send batch of {} OCR requests", requests.size(), e);
+            throw new MessagePublishException("Failed to send OCR requests", e);
+        }
+    }
+
     // New: send OCR request for a file stored in object storage (MinIO)
     public void sendOcrFileRequest(com.fhtw.shreddit.api.dto.OcrFileRequestDto request) {
         try {
@@ -1,17 +1,34 @@
 package com.fhtw.shreddit.service;
 
 import com.fhtw.shreddit.api.dto.DocumentDto;
+import com.fhtw.shreddit.api.dto.FacetBucketDto;
+import com.fhtw.shreddit.api.dto.SearchFacetsDto;
+import com.fhtw.shreddit.api.dto.SearchResultDto;
+import com.fhtw.shreddit.api.dto.SearchSuggestionDto;
+import com.fhtw.shreddit.exception.DocumentException;
+import com.fhtw.shreddit.exception.SearchUnavailableException;
 import com.fhtw.shreddit.model.DocumentEntity;
 import com.fhtw.shreddit.repository.DocumentRepository;
-import com.fhtw.shreddit.search.SearchGateway;
+import com.fhtw.shreddit.search.IndexedDocument;
+import com.fhtw.shreddit.search.SearchCircuitBreaker;
+import com.fhtw.shreddit.search.SearchFacets;
 import com.fhtw.shreddit.search.SearchHit;
+import com.fhtw.shreddit.search.SearchPage;
+import com.fhtw.shreddit.search.SearchQuery;
+import com.fhtw.shreddit.search.SearchSort;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -22,39 +39,129 @@ import java.util.stream.Collectors;
 public class SearchService {
     private static final Logger log = LoggerFactory.getLogger(SearchService.class);
 
-    private final SearchGateway searchGateway;
+    public static final int DEFAULT_PAGE_SIZE = 25;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int DEFAULT_SUGGEST_SIZE = 8;
+    public static final int MAX_SUGGEST_SIZE = 20;
+    public static final int MAX_TAG_FILTERS = 10;
+
+    private final SearchCircuitBreaker searchCircuitBreaker;
     private final DocumentRepository documentRepository;
+    private final int fallbackLimit;
+    private final boolean hydrate;
 
-    public SearchService(SearchGateway searchGateway, DocumentRepository documentRepository) {
-        this.searchGateway = searchGateway;
+    /**
+     * @param hydrate load the hits from the database instead of answering from the index {@code _source};
+     *                only needed when fields that are not indexed must be in the search results
+     */
+    public SearchService(SearchCircuitBreaker searchCircuitBreaker, DocumentRepository documentRepository,
+                         @Value("${documents.search.fallback-limit:50}") int fallbackLimit,
+                         @Value("${documents.search.hydrate:false}") boolean hydrate) {
+        this.searchCircuitBreaker = searchCircuitBreaker;
         this.documentRepository = documentRepository;
+        this.fallbackLimit = fallbackLimit;
+        this.hydrate = hydrate;
     }
 
-    public List<DocumentDto> search(String query) {
+    /**
+     * Full-text search over the current user's documents.
+     *
+     * @param limit  page size; defaults to {@value #DEFAULT_PAGE_SIZE}, capped at {@value #MAX_PAGE_SIZE}
+     * @param sort   {@code relevance} (default), {@code newest} or {@code oldest}
+     * @param cursor opaque cursor from the previous page, or null for the first page
+     * @param tags   tags the results must all carry (repeated or comma-separated), or null
+     * @param from   inclusive lower bound of the document date (ISO {@code yyyy-MM-dd}), or null
+     * @param to     inclusive upper bound of the document date (ISO {@code yyyy-MM-dd}), or null
+     * @throws com.fhtw.shreddit.exception.DocumentException          if the sort, cursor or filters are invalid
+     * @throws com.fhtw.shreddit.exception.SearchUnavailableException if neither the index nor the database can answer
+     */
+    public SearchResultDto search(String query, Integer limit, String sort, String cursor,
+                                  Collection<String> tags, String from, String to) {
         if (query == null || query.isBlank()) {
-            return List.of();
+            return new SearchResultDto(List.of(), 0, true, null);
+        }
+        int size = (limit == null || limit <= 0) ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        SearchSort searchSort = SearchSort.parse(sort);
+        boolean firstPage = cursor == null || cursor.isBlank();
+        List<String> tagFilter = parseTags(tags);
+        LocalDate dateFrom = parseDate(from, "from");
+        LocalDate dateTo = parseDate(to, "to");
+        if (dateFrom != null && dateTo != null && dateFrom.isAfter(dateTo)) {
+            throw new DocumentException("'from' must not be after 'to'");
         }
 
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         String username = auth != null ? auth.getName() : "anonymous";
 
-        List<DocumentDto> fromIndex = mapFromIndex(query, username);
-        if (!fromIndex.isEmpty()) {
-            return fromIndex;
+        SearchQuery searchQuery = new SearchQuery(query, username, size, searchSort, firstPage ? null : cursor,
+                tagFilter, dateFrom, dateTo);
+        SearchPage page;
+        try {
+            page = searchCircuitBreaker.search(searchQuery);
+        } catch (SearchUnavailableException e) {
+            // Later pages have no cursor the database could continue from, and it cannot apply tag or date filters
+            if (!firstPage || searchQuery.hasFilters()) {
+                throw e;
+            }
+            return searchDatabase(query, username, size, e);
+        }
+        // An empty page is a real answer: no database scan for queries that simply match nothing
+        List<DocumentDto> fromIndex = mapFromIndex(page.hits(), query, username);
+        return new SearchResultDto(fromIndex, page.total(), page.totalExact(), page.nextCursor(),
+                toDto(page.facets()), SearchResultDto.SERVED_BY_INDEX);
+    }
+
+    // Ranked full-text query in the database, scoped to the owner and limited in rows
+    private SearchResultDto searchDatabase(String query, String username, int size, SearchUnavailableException cause) {
+        int fallbackSize = Math.min(size, fallbackLimit);
+        List<DocumentDto> fallback;
+        try {
+            fallback = documentRepository.searchFullText(query.trim(), titlePattern(query), username, fallbackSize)
+                    .stream()
+                    .map(this::toDto)
+                    .toList();
+        } catch (DataAccessException e) {
+            log.warn("SEARCH: database fallback failed for query='{}': {}", query, e.getMessage());
+            cause.addSuppressed(e);
+            throw cause;
+        }
+        log.debug("SEARCH: index unavailable ({}); database found {} docs for query='{}'",
+                cause.getMessage(), fallback.size(), query);
+        return new SearchResultDto(fallback, fallback.size(), fallback.size() < fallbackSize, null, null,
+                SearchResultDto.SERVED_BY_DATABASE);
+    }
+
+    /**
+     * Title suggestions for a partially typed query. Answered from the index only, never from the database;
+     * while the index is unavailable there are simply no suggestions.
+     *
+     * @param limit number of suggestions; defaults to {@value #DEFAULT_SUGGEST_SIZE}, capped at {@value #MAX_SUGGEST_SIZE}
+     */
+    public List<SearchSuggestionDto> suggest(String prefix, Integer limit) {
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
         }
+        int size = (limit == null || limit <= 0) ? DEFAULT_SUGGEST_SIZE : Math.min(limit, MAX_SUGGEST_SIZE);
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String username = auth != null ? auth.getName() : "anonymous";
 
-        // Fallback: simple DB contains search across title/content/summary/ocr_text
-        List<DocumentDto> fallback = documentRepository.findAll().stream()
-                .filter(doc -> doc.getUsername() == null || doc.getUsername().equals(username))
-                .filter(doc -> matches(doc, query))
-                .map(this::toDto)
+        List<SearchHit> hits;
+        try {
+            hits = searchCircuitBreaker.suggest(prefix.trim(), username, size);
+        } catch (SearchUnavailableException e) {
+            log.debug("SEARCH: no suggestions for prefix='{}': {}", prefix, e.getMessage());
+            return List.of();
+        }
+        return hits.stream()
+                .filter(hit -> hit.id() != null && hit.document() != null)
+                .map(hit -> new SearchSuggestionDto(hit.id(), hit.document().getTitle()))
                 .toList();
-        log.debug("SEARCH: ES returned empty; fallback found {} docs for query='{}'", fallback.size(), query);
-        return fallback;
     }
 
-    private List<DocumentDto> mapFromIndex(String query, String username) {
-        List<SearchHit> hits = searchGateway.search(query);
+    private List<DocumentDto> mapFromIndex(List<SearchHit> hits, String query, String username) {
+        if (!hydrate) {
+            return mapFromSource(hits, query, username);
+        }
         List<Long> ids = hits.stream()
                 .map(SearchHit::id)
                 .filter(Objects::nonNull)
@@ -77,26 +184,91 @@ public class SearchService {
             if (entity == null) {
                 continue;
             }
+            // The index filters by owner already; the row is authoritative if the index is stale
             if (entity.getUsername() != null && !entity.getUsername().equals(username)) {
                 continue;
             }
-            results.add(toDto(entity));
+            DocumentDto dto = toDto(entity);
+            dto.setHighlights(highlightsOf(hit));
+            results.add(dto);
         }
         log.debug("SEARCH: returning {} documents for query='{}' via ES", results.size(), query);
         return results;
     }
 
-    private boolean matches(DocumentEntity doc, String q) {
-        String needle = q.toLowerCase();
-        return contains(doc.getTitle(), needle)
-                || contains(doc.getContent(), needle)
-                || contains(doc.getSummary(), needle)
-                || contains(doc.getOcrText(), needle)
-                || contains(doc.getTags(), needle);
+    // Single round trip: the hit already carries everything the result list shows
+    private List<DocumentDto> mapFromSource(List<SearchHit> hits, String query, String username) {
+        List<DocumentDto> results = new ArrayList<>();
+        for (SearchHit hit : hits) {
+            IndexedDocument source = hit.document();
+            if (hit.id() == null || source == null) {
+                continue;
+            }
+            if (source.getUsername() != null && !source.getUsername().equals(username)) {
+                continue;
+            }
+            DocumentDto dto = new DocumentDto();
+            dto.setId(hit.id());
+            dto.setTitle(source.getTitle());
+            dto.setContent(source.getContent());
+            dto.setCreatedAt(source.getCreatedAt());
+            dto.setUsername(source.getUsername());
+            dto.setSummary(source.getSummary());
+            dto.setSummaryStatus(source.getSummaryStatus());
+            dto.setHighlights(highlightsOf(hit));
+            results.add(dto);
+        }
+        log.debug("SEARCH: returning {} documents for query='{}' from the index", results.size(), query);
+        return results;
+    }
+
+    private static Map<String, List<String>> highlightsOf(SearchHit hit) {
+        return hit.highlights() == null || hit.highlights().isEmpty() ? null : hit.highlights();
+    }
+
+    static List<String> parseTags(Collection<String> tags) {
+        if (tags == null || tags.isEmpty()) {
+            return List.of();
+        }
+        List<String> parsed = tags.stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .map(String::trim)
+                .filter(tag -> !tag.isEmpty())
+                .distinct()
+                .toList();
+        if (parsed.size() > MAX_TAG_FILTERS) {
+            throw new DocumentException("At most " + MAX_TAG_FILTERS + " tags can be filtered at once");
+        }
+        return parsed;
+    }
+
+    private static LocalDate parseDate(String value, String name) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new DocumentException("'" + name + "' must be a date like 2024-01-31", e);
+        }
+    }
+
+    private static SearchFacetsDto toDto(SearchFacets facets) {
+        if (facets == null) {
+            return null;
+        }
+        return new SearchFacetsDto(
+                facets.tags().stream().map(b -> new FacetBucketDto(b.key(), b.count())).toList(),
+                facets.documentMonths().stream().map(b -> new FacetBucketDto(b.key(), b.count())).toList());
     }
 
-    private boolean contains(String haystack, String needle) {
-        return haystack != null && haystack.toLowerCase().contains(needle);
+    // Substring pattern for ILIKE; the default escape character is the backslash
+    static String titlePattern(String query) {
+        String escaped = query.trim()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
     }
 
     private DocumentDto toDto(DocumentEntity entity) {
@@ -0,0 +1,128 @@
+package com.fhtw.shreddit.service;
+
+import com.fhtw.shreddit.api.dto.SimilarDocumentDto;
+import com.fhtw.shreddit.search.IndexedDocument;
+import com.fhtw.shreddit.search.SearchCircuitBreaker;
+import com.fhtw.shreddit.search.SearchHit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * "More like this" for a single document. Results are cached per document and user together with the
+ * index version of the document, and reused until that version changes (the document is indexed again or
+ * the index is rebuilt). Reading the version is a cheap lookup; the similarity query itself has to read all
+ * terms of a possibly long OCR text. The version says nothing about the neighbours, so {@link #evict} drops
+ * the entries of deleted documents and those listing one, and every entry expires after {@code ttl} for
+ * neighbours that changed otherwise. Entries are evicted least-recently-used beyond {@code maxSize}.
+ * Both index queries go through the {@link SearchCircuitBreaker}, so a hanging index fails fast.
+ */
+@Service
+public class SimilarDocumentsService {
+    private static final Logger log = LoggerFactory.getLogger(SimilarDocumentsService.class);
+
+    public static final int DEFAULT_SIZE = 5;
+    public static final int MAX_SIZE = 20;
+
+    private final SearchCircuitBreaker searchCircuitBreaker;
+    private final DocumentAccessCache documentAccessCache;
+    private final Duration ttl;
+    private final BoundedCache<Key, Entry> entries;
+
+    @Autowired
+    public SimilarDocumentsService(SearchCircuitBreaker searchCircuitBreaker, DocumentAccessCache documentAccessCache,
+                                   @Value("${documents.similar.cache-size:1000}") int maxSize,
+                                   @Value("${documents.similar.ttl-seconds:600}") long ttlSeconds) {
+        this(searchCircuitBreaker, documentAccessCache, maxSize, Duration.ofSeconds(ttlSeconds), Clock.systemUTC());
+    }
+
+    SimilarDocumentsService(SearchCircuitBreaker searchCircuitBreaker, DocumentAccessCache documentAccessCache, int maxSize,
+                            Duration ttl, Clock clock) {
+        this.searchCircuitBreaker = searchCircuitBreaker;
+        this.documentAccessCache = documentAccessCache;
+        this.ttl = ttl;
+        this.entries = new BoundedCache<>(maxSize, clock);
+    }
+
+    /**
+     * Documents similar to {@code id} among those visible to {@code username}, most similar first.
+     *
+     * @param limit number of documents; defaults to {@value #DEFAULT_SIZE}, capped at {@value #MAX_SIZE}
+     * @return the documents (empty while the document is not indexed yet), or empty if the document
+     * doesn't exist or isn't visible to the user
+     * @throws com.fhtw.shreddit.exception.SearchUnavailableException if the index could not be queried
+     */
+    public Optional<List<SimilarDocumentDto>> findSimilar(Long id, String username, Integer limit) {
+        DocumentAccess access = documentAccessCache.lookup(id);
+        if (!access.isAccessibleBy(username)) {
+            return Optional.empty();
+        }
+        int size = (limit == null || limit <= 0) ? DEFAULT_SIZE : Math.min(limit, MAX_SIZE);
+        String version = searchCircuitBreaker.indexVersion(id, access.owner());
+        if (version == null) {
+            // Still in OCR/indexing: nothing to compare yet, and nothing worth caching
+            return Optional.of(List.of());
+        }
+
+        Key key = new Key(id, username);
+        Entry entry = entries.get(key, cached -> cached.version().equals(version));
+        List<SimilarDocumentDto> documents;
+        if (entry != null) {
+            documents = entry.documents();
+        } else {
+            long generation = entries.generation();
+            // Always the full list, so every limit is answered from the same entry
+            documents = searchCircuitBreaker.similar(id, access.owner(), username, MAX_SIZE).stream()
+                    .filter(hit -> hit.id() != null && hit.document() != null)
+                    .map(SimilarDocumentsService::toDto)
+                    .toList();
+            // Not stored if a delete ran meanwhile: the list may still name the deleted document
+            entries.putIfUnchanged(generation, key, new Entry(version, documents), ttl);
+            log.debug("SEARCH: {} documents similar to {} for '{}' (index version {})",
+                    documents.size(), id, username, version);
+        }
+        return Optional.of(documents.size() > size ? documents.subList(0, size) : documents);
+    }
+
+    /**
+     * Drops the cached results of the deleted documents and every result listing one of them.
+     */
+    public void evict(Collection<Long> deletedIds) {
+        if (deletedIds == null || deletedIds.isEmpty()) {
+            return;
+        }
+        Set<Long> deleted = Set.copyOf(deletedIds);
+        int removed = entries.invalidateIf((key, entry) -> deleted.contains(key.id())
+                || entry.documents().stream().anyMatch(document -> deleted.contains(document.id())));
+        log.debug("SEARCH: evicted {} similar-documents entries for deleted documents {}", removed, deleted);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = entries.stats();
+        stats.put("ttlSeconds", ttl.toSeconds());
+        return stats;
+    }
+
+    private static SimilarDocumentDto toDto(SearchHit hit) {
+        IndexedDocument source = hit.document();
+        return new SimilarDocumentDto(hit.id(), source.getTitle(), source.getCreatedAt(), source.getDocumentDate(),
+                source.getTags(), hit.score());
+    }
+
+    // Results depend on the user: documents without owner are shared, so their neighbours differ per user
+    private record Key(Long id, String username) {
+    }
+
+    private record Entry(String version, List<SimilarDocumentDto> documents) {
+    }
+}
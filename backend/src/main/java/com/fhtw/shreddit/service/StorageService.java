@@ -1,11 +1,17 @@
 package com.fhtw.shreddit.service;
 
 import io.minio.GetObjectArgs;
+import io.minio.ListObjectsArgs;
 import io.minio.MinioClient;
 import io.minio.PutObjectArgs;
+import io.minio.RemoveObjectsArgs;
+import io.minio.Result;
 import io.minio.StatObjectArgs;
 import io.minio.StatObjectResponse;
 import io.minio.RemoveObjectArgs;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import io.minio.messages.Item;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -16,7 +22,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -166,4 +176,63 @@ public class StorageService {
             return false;
         }
     }
+
+    /**
+     * Reads a text object (e.g. the OCR output) as UTF-8.
+     * @throws RuntimeException if the object cannot be read
+     */
+    public String readText(String name) {
+        try (InputStream stream = minioClient.getObject(GetObjectArgs.builder().bucket(bucket).object(name).build())) {
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            log.error("Failed to read '{}' from bucket '{}': {}", name, bucket, e.getMessage(), e);
+            throw new RuntimeException("Failed to read object " + name, e);
+        }
+    }
+
+    /**
+     * Lists the names of all objects below the given prefix (recursively).
+     * @throws RuntimeException if the listing fails
+     */
+    public List<String> listObjects(String prefix) {
+        List<String> names = new ArrayList<>();
+        try {
+            for (Result<Item> result : minioClient.listObjects(
+                    ListObjectsArgs.builder().bucket(bucket).prefix(prefix).recursive(true).build())) {
+                names.add(result.get().objectName());
+            }
+            return names;
+        } catch (Exception e) {
+            log.error("Failed to list objects under '{}' in bucket '{}': {}", prefix, bucket, e.getMessage(), e);
+            throw new RuntimeException("Failed to list objects", e);
+        }
+    }
+
+    /**
+     * Removes many objects with a single multi-object delete request. Missing objects are not an error.
+     * @throws RuntimeException if the request fails or any object could not be removed
+     */
+    public void deleteObjects(Collection<String> names) {
+        if (names == null || names.isEmpty()) {
+            return;
+        }
+        List<DeleteObject> objects = names.stream().map(DeleteObject::new).toList();
+        int failed = 0;
+        try {
+            // removeObjects is lazy: the request is only sent while the results are iterated
+            for (Result<DeleteError> result : minioClient.removeObjects(
+                    RemoveObjectsArgs.builder().bucket(bucket).objects(objects).build())) {
+                DeleteError error = result.get();
+                log.warn("Failed to delete object '{}' from bucket '{}': {}", error.objectName(), bucket, error.message());
+                failed++;
+            }
+        } catch (Exception e) {
+            log.error("Failed to delete {} objects from bucket '{}': {}", names.size(), bucket, e.getMessage(), e);
+            throw new RuntimeException("Failed to delete objects", e);
+        }
+        if (failed > 0) {
+            throw new RuntimeException("Failed to delete " + failed + " of " + names.size() + " objects");
+        }
+        log.info("Deleted {} objects from bucket '{}'", names.size(), bucket);
+    }
 }
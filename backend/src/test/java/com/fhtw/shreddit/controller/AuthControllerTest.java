@@ -118,6 +118,22 @@ class AuthControllerTest {
         verify(userRepository, never()).save(any(UserEntity.class));
     }
 
+    @Test
+    void registerWithReservedSharedRouteNameReturnsBadRequest() {
+        // Arrange
+        validAuthRequest.username = " _shared ";
+
+        // Act
+        ResponseEntity<?> response = authController.register(validAuthRequest);
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        @SuppressWarnings("unchecked")
+        Map<String, String> responseBody = (Map<String, String>) response.getBody();
+        assertEquals("username is reserved", responseBody.get("error"));
+        verify(userRepository, never()).save(any(UserEntity.class));
+    }
+
     @Test
     void registerWithNullRequestReturnsBadRequest() {
         // Act
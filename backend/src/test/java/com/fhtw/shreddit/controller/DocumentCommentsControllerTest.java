@@ -2,6 +2,8 @@ package com.fhtw.shreddit.controller;
 
 import com.fhtw.shreddit.api.dto.CommentDto;
 import com.fhtw.shreddit.api.dto.CreateCommentRequest;
+import com.fhtw.shreddit.api.dto.CursorPage;
+import com.fhtw.shreddit.api.dto.DocumentCountsDto;
 import com.fhtw.shreddit.exception.DocumentException;
 import com.fhtw.shreddit.service.CommentService;
 import org.junit.jupiter.api.BeforeEach;
@@ -49,16 +51,43 @@ public class DocumentCommentsControllerTest {
     @Test
     void listComments_ShouldReturnComments() {
         // Given
-        when(commentService.listComments(5L)).thenReturn(Arrays.asList(comment));
+        when(commentService.listComments(5L, null, null)).thenReturn(new CursorPage<>(Arrays.asList(comment), null));
 
         // When
-        ResponseEntity<List<CommentDto>> response = controller.listComments(5L);
+        ResponseEntity<List<CommentDto>> response = controller.listComments(5L, null, null);
 
         // Then
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).hasSize(1);
         assertThat(response.getBody().get(0).getId()).isEqualTo(1L);
-        verify(commentService).listComments(5L);
+        assertThat(response.getHeaders().getFirst(DocumentsController.NEXT_CURSOR_HEADER)).isNull();
+        verify(commentService).listComments(5L, null, null);
+    }
+
+    @Test
+    void listComments_ShouldExposeNextCursorHeader() {
+        // Given
+        when(commentService.listComments(5L, 1, null)).thenReturn(new CursorPage<>(Arrays.asList(comment), "next"));
+
+        // When
+        ResponseEntity<List<CommentDto>> response = controller.listComments(5L, 1, null);
+
+        // Then
+        assertThat(response.getHeaders().getFirst(DocumentsController.NEXT_CURSOR_HEADER)).isEqualTo("next");
+    }
+
+    @Test
+    void countByDocuments_ShouldReturnCounts() {
+        // Given
+        List<DocumentCountsDto> counts = List.of(new DocumentCountsDto(5L, 2, 0));
+        when(commentService.countByDocuments(List.of(5L, 6L), "anonymous")).thenReturn(counts);
+
+        // When
+        ResponseEntity<List<DocumentCountsDto>> response = controller.countByDocuments(List.of(5L, 6L));
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(counts);
     }
 
     @Test
@@ -0,0 +1,51 @@
+package com.fhtw.shreddit.controller;
+
+import com.fhtw.shreddit.api.dto.DocumentDetailDto;
+import com.fhtw.shreddit.service.DocumentDetailService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentDetailControllerTest {
+
+    @Mock
+    private DocumentDetailService documentDetailService;
+
+    @InjectMocks
+    private DocumentDetailController controller;
+
+    @Test
+    void getDocumentDetailReturnsRequestedSections() {
+        DocumentDetailDto detail = new DocumentDetailDto(null, List.of(), null, null, null);
+        when(documentDetailService.getDetail(5L, "anonymous", EnumSet.of(DocumentDetailService.Section.NOTES)))
+                .thenReturn(Optional.of(detail));
+
+        ResponseEntity<DocumentDetailDto> response = controller.getDocumentDetail(5L, List.of("notes"));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(detail, response.getBody());
+    }
+
+    @Test
+    void getDocumentDetailReturnsNotFoundForInvisibleDocument() {
+        when(documentDetailService.getDetail(5L, "anonymous", EnumSet.allOf(DocumentDetailService.Section.class)))
+                .thenReturn(Optional.empty());
+
+        ResponseEntity<DocumentDetailDto> response = controller.getDocumentDetail(5L, null);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+}
@@ -1,8 +1,12 @@
 package com.fhtw.shreddit.controller;
 
+import com.fhtw.shreddit.api.dto.CursorPage;
+import com.fhtw.shreddit.api.dto.DocumentBatchItemResult;
+import com.fhtw.shreddit.api.dto.DocumentDeleteResult;
 import com.fhtw.shreddit.api.dto.DocumentDto;
+import com.fhtw.shreddit.api.dto.DocumentListItemDto;
+import com.fhtw.shreddit.service.DocumentBatchService;
 import com.fhtw.shreddit.service.DocumentService;
-import com.fhtw.shreddit.service.StorageService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -27,7 +31,7 @@ class DocumentsControllerTest {
     private DocumentService documentService;
 
     @Mock
-    private StorageService storageService;
+    private DocumentBatchService documentBatchService;
 
     @InjectMocks
     private DocumentsController documentsController;
@@ -45,47 +49,80 @@ class DocumentsControllerTest {
     @Test
     void getDocumentsReturnsAllDocuments() {
         // Arrange
-        List<DocumentDto> documents = Arrays.asList(testDocument1, testDocument2);
-        when(documentService.getAll()).thenReturn(documents);
+        List<DocumentListItemDto> documents = Arrays.asList(listItem(testDocument1), listItem(testDocument2));
+        when(documentService.getPage(null, null)).thenReturn(new CursorPage<>(documents, null));
 
         // Act
-        ResponseEntity<List<DocumentDto>> response = documentsController.getDocuments();
+        ResponseEntity<List<DocumentListItemDto>> response = documentsController.getDocuments(null, null);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(2, response.getBody().size());
         assertEquals(testDocument1.getId(), response.getBody().get(0).getId());
         assertEquals(testDocument2.getId(), response.getBody().get(1).getId());
-        verify(documentService, times(1)).getAll();
+        assertNull(response.getHeaders().getFirst(DocumentsController.NEXT_CURSOR_HEADER));
+        verify(documentService, times(1)).getPage(null, null);
+    }
+
+    @Test
+    void getDocumentsExposesNextCursorHeader() {
+        // Arrange
+        when(documentService.getPage(1, null)).thenReturn(new CursorPage<>(List.of(listItem(testDocument1)), "abc"));
+
+        // Act
+        ResponseEntity<List<DocumentListItemDto>> response = documentsController.getDocumentsApi(1, null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().size());
+        assertEquals("abc", response.getHeaders().getFirst(DocumentsController.NEXT_CURSOR_HEADER));
     }
 
     @Test
     void getDocumentReturnsDocumentWhenFound() {
         // Arrange
+        testDocument1.setVersion(3L);
+        when(documentService.getVersion(1L)).thenReturn(Optional.of(3L));
         when(documentService.getById(1L)).thenReturn(Optional.of(testDocument1));
 
         // Act
-        ResponseEntity<DocumentDto> response = documentsController.getDocument(1L);
+        ResponseEntity<DocumentDto> response = documentsController.getDocument(1L, null);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(testDocument1.getId(), response.getBody().getId());
         assertEquals(testDocument1.getTitle(), response.getBody().getTitle());
+        assertEquals("\"1-3\"", response.getHeaders().getETag());
         verify(documentService, times(1)).getById(1L);
     }
 
+    @Test
+    void getDocumentReturnsNotModifiedWhenETagMatches() {
+        // Arrange
+        when(documentService.getVersion(1L)).thenReturn(Optional.of(3L));
+
+        // Act
+        ResponseEntity<DocumentDto> response = documentsController.getDocumentApi(1L, "\"1-3\"");
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals("\"1-3\"", response.getHeaders().getETag());
+        verify(documentService, never()).getById(1L);
+    }
+
     @Test
     void getDocumentReturnsNotFoundWhenDocumentDoesNotExist() {
         // Arrange
-        when(documentService.getById(999L)).thenReturn(Optional.empty());
+        when(documentService.getVersion(999L)).thenReturn(Optional.empty());
 
         // Act
-        ResponseEntity<DocumentDto> response = documentsController.getDocument(999L);
+        ResponseEntity<DocumentDto> response = documentsController.getDocument(999L, null);
 
         // Assert
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
         assertNull(response.getBody());
-        verify(documentService, times(1)).getById(999L);
+        verify(documentService, never()).getById(999L);
     }
 
     @Test
@@ -108,18 +145,63 @@ class DocumentsControllerTest {
 
     @Test
     void deleteDocumentReturnsNoContent() {
-        // Arrange: return a document with null username to bypass auth check
-        DocumentDto doc = new DocumentDto(1L, "Test Document 1", "Content 1", LocalDateTime.now(), null);
-        when(documentService.getById(1L)).thenReturn(java.util.Optional.of(doc));
-        doNothing().when(documentService).delete(1L);
-        when(storageService.deleteObject(doc.getTitle())).thenReturn(true);
+        // Arrange
+        when(documentService.delete(List.of(1L), "anonymous"))
+                .thenReturn(new DocumentDeleteResult(List.of(1L), List.of(), List.of()));
 
         // Act
         ResponseEntity<Void> response = documentsController.deleteDocument(1L);
 
         // Assert
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
-        verify(storageService, times(1)).deleteObject(doc.getTitle());
-        verify(documentService, times(1)).delete(1L);
+        verify(documentService, times(1)).delete(List.of(1L), "anonymous");
+    }
+
+    @Test
+    void deleteDocumentReturnsForbiddenForForeignDocument() {
+        // Arrange
+        when(documentService.delete(List.of(1L), "anonymous"))
+                .thenReturn(new DocumentDeleteResult(List.of(), List.of(), List.of(1L)));
+
+        // Act
+        ResponseEntity<Void> response = documentsController.deleteDocument(1L);
+
+        // Assert
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+    }
+
+    @Test
+    void deleteDocumentsReturnsPerIdOutcome() {
+        // Arrange
+        DocumentDeleteResult result = new DocumentDeleteResult(List.of(1L), List.of(2L), List.of(3L));
+        when(documentService.delete(List.of(1L, 2L, 3L), "anonymous")).thenReturn(result);
+
+        // Act
+        ResponseEntity<DocumentDeleteResult> response = documentsController.deleteDocuments(List.of(1L, 2L, 3L));
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(result, response.getBody());
+    }
+
+    private DocumentListItemDto listItem(DocumentDto doc) {
+        return new DocumentListItemDto(doc.getId(), doc.getTitle(), doc.getCreatedAt(), null, null, null, null);
+    }
+
+    @Test
+    void createDocumentsDelegatesToBatchServiceForCurrentUser() {
+        // Arrange
+        List<DocumentDto> batch = List.of(testDocument1, testDocument2);
+        List<DocumentBatchItemResult> results = List.of(
+                DocumentBatchItemResult.created(0, 10L),
+                DocumentBatchItemResult.created(1, 11L));
+        when(documentBatchService.createBatch(batch, "anonymous")).thenReturn(results);
+
+        // Act
+        ResponseEntity<List<DocumentBatchItemResult>> response = documentsController.createDocuments(batch);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(results, response.getBody());
     }
 }
@@ -1,7 +1,11 @@
 package com.fhtw.shreddit.controller;
 
 import com.fhtw.shreddit.api.dto.DocumentDto;
+import com.fhtw.shreddit.api.dto.SearchResultDto;
+import com.fhtw.shreddit.api.dto.SearchSuggestionDto;
+import com.fhtw.shreddit.api.dto.SimilarDocumentDto;
 import com.fhtw.shreddit.service.SearchService;
+import com.fhtw.shreddit.service.SimilarDocumentsService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,8 +16,11 @@ import org.springframework.http.ResponseEntity;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -22,6 +29,9 @@ class SearchControllerTest {
     @Mock
     private SearchService searchService;
 
+    @Mock
+    private SimilarDocumentsService similarDocumentsService;
+
     @InjectMocks
     private SearchController searchController;
 
@@ -34,12 +44,38 @@ class SearchControllerTest {
 
     @Test
     void searchReturnsResults() {
-        when(searchService.search("Doc")).thenReturn(List.of(doc));
+        when(searchService.search("Doc", 10, "newest", "abc", List.of("tax"), "2024-01-01", null))
+                .thenReturn(new SearchResultDto(List.of(doc), 1, true, null));
 
-        ResponseEntity<List<DocumentDto>> response = searchController.search("Doc");
+        ResponseEntity<SearchResultDto> response = searchController.search("Doc", 10, "newest", "abc",
+                List.of("tax"), "2024-01-01", null);
 
         assertEquals(200, response.getStatusCode().value());
-        assertEquals(1, response.getBody().size());
-        assertEquals(doc.getId(), response.getBody().get(0).getId());
+        assertEquals(1, response.getBody().items().size());
+        assertEquals(doc.getId(), response.getBody().items().get(0).getId());
+    }
+
+    @Test
+    void suggestReturnsSuggestions() {
+        when(searchService.suggest("Do", null)).thenReturn(List.of(new SearchSuggestionDto(1L, "Doc")));
+
+        ResponseEntity<List<SearchSuggestionDto>> response = searchController.suggest("Do", null);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("Doc", response.getBody().get(0).title());
+    }
+
+    @Test
+    void similarReturnsDocumentsOr404() {
+        when(similarDocumentsService.findSimilar(eq(1L), anyString(), eq(5)))
+                .thenReturn(Optional.of(List.of(new SimilarDocumentDto(2L, "Other", null, null, List.of(), 1.5))));
+        when(similarDocumentsService.findSimilar(eq(9L), anyString(), eq(5))).thenReturn(Optional.empty());
+
+        ResponseEntity<List<SimilarDocumentDto>> found = searchController.similar(1L, 5);
+        ResponseEntity<List<SimilarDocumentDto>> missing = searchController.similar(9L, 5);
+
+        assertEquals(200, found.getStatusCode().value());
+        assertEquals(2L, found.getBody().get(0).id());
+        assertEquals(404, missing.getStatusCode().value());
     }
 }
@@ -49,6 +49,18 @@ class GlobalExceptionHandlerTest {
         assertEquals("doc error", errorResponse.getDetails());
     }
 
+    @Test
+    void handleSearchUnavailableException() {
+        SearchUnavailableException ex = new SearchUnavailableException("circuit open");
+        ResponseEntity<ErrorResponse> response = handler.handleSearchUnavailableException(ex);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        ErrorResponse errorResponse = response.getBody();
+        assertNotNull(errorResponse);
+        assertEquals("Search is temporarily unavailable", errorResponse.getMessage());
+        assertEquals("circuit open", errorResponse.getDetails());
+    }
+
     @Test
     void handleGenericException() {
         Exception ex = new RuntimeException("test generic error");
@@ -2,11 +2,13 @@ package com.fhtw.shreddit.repository;
 
 import com.fhtw.shreddit.model.CommentEntity;
 import com.fhtw.shreddit.model.DocumentEntity;
+import com.fhtw.shreddit.model.NoteEntity;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -35,26 +37,27 @@ public class CommentRepositoryTest {
         entityManager.persist(document);
         entityManager.flush();
 
-        // Create test comments with different timestamps
+        // Create test comments with different timestamps; whole seconds, so H2 stores them unchanged
+        LocalDateTime now = LocalDateTime.of(2024, 5, 1, 12, 0);
         comment1 = new CommentEntity();
         comment1.setDocumentId(document.getId());
         comment1.setText("First comment");
-        comment1.setCreatedAt(LocalDateTime.now().minusHours(1)); // Older comment
+        comment1.setCreatedAt(now.minusHours(1)); // Older comment
         entityManager.persist(comment1);
 
         comment2 = new CommentEntity();
         comment2.setDocumentId(document.getId());
         comment2.setText("Second comment");
-        comment2.setCreatedAt(LocalDateTime.now()); // Newer comment
+        comment2.setCreatedAt(now); // Newer comment
         entityManager.persist(comment2);
 
         entityManager.flush();
     }
 
     @Test
-    void findByDocumentIdOrderByCreatedAtDesc_ShouldReturnCommentsInDescendingOrder() {
+    void findPage_ShouldReturnCommentsInDescendingOrder() {
         // When
-        List<CommentEntity> comments = commentRepository.findByDocumentIdOrderByCreatedAtDesc(document.getId());
+        List<CommentEntity> comments = commentRepository.findPage(document.getId(), PageRequest.of(0, 10));
 
         // Then
         assertThat(comments).hasSize(2);
@@ -63,11 +66,61 @@ public class CommentRepositoryTest {
     }
 
     @Test
-    void findByDocumentIdOrderByCreatedAtDesc_ShouldReturnEmptyListForNonExistentDocument() {
+    void findPage_ShouldReturnEmptyListForNonExistentDocument() {
         // When
-        List<CommentEntity> comments = commentRepository.findByDocumentIdOrderByCreatedAtDesc(999L);
+        List<CommentEntity> comments = commentRepository.findPage(999L, PageRequest.of(0, 10));
 
         // Then
         assertThat(comments).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    void findPageAfter_ShouldContinueBelowCursor() {
+        // Given: the cursor is built from rows as the database returns them, not from the persisted instances
+        entityManager.clear();
+
+        // When
+        List<CommentEntity> first = commentRepository.findPage(document.getId(), PageRequest.of(0, 1));
+        CommentEntity last = first.get(0);
+        List<CommentEntity> next = commentRepository.findPageAfter(
+                document.getId(), last.getCreatedAt(), last.getId(), PageRequest.of(0, 1));
+
+        // Then
+        assertThat(first).extracting(CommentEntity::getId).containsExactly(comment2.getId());
+        assertThat(next).extracting(CommentEntity::getId).containsExactly(comment1.getId());
+    }
+
+    @Test
+    void countActivity_ShouldCountCommentsAndNotesOfVisibleDocuments() {
+        // Given
+        NoteEntity note = new NoteEntity();
+        note.setDocumentId(document.getId());
+        note.setContent("A note");
+        entityManager.persist(note);
+
+        DocumentEntity quiet = new DocumentEntity();
+        quiet.setTitle("No activity");
+        entityManager.persist(quiet);
+
+        DocumentEntity foreign = new DocumentEntity();
+        foreign.setTitle("Someone else's");
+        foreign.setUsername("bob");
+        entityManager.persist(foreign);
+        entityManager.flush();
+
+        // When
+        List<DocumentActivityCount> counts = commentRepository.countActivity(
+                List.of(document.getId(), quiet.getId(), foreign.getId()), "alice");
+
+        // Then
+        assertThat(counts).hasSize(2);
+        DocumentActivityCount busy = counts.stream()
+                .filter(c -> c.getDocumentId().equals(document.getId())).findFirst().orElseThrow();
+        assertThat(busy.getComments()).isEqualTo(2L);
+        assertThat(busy.getNotes()).isEqualTo(1L);
+        DocumentActivityCount none = counts.stream()
+                .filter(c -> c.getDocumentId().equals(quiet.getId())).findFirst().orElseThrow();
+        assertThat(none.getComments()).isZero();
+        assertThat(none.getNotes()).isZero();
+    }
+}
@@ -0,0 +1,96 @@
+package com.fhtw.shreddit.repository;
+
+import com.fhtw.shreddit.model.DocumentEntity;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares row-by-row inserts with batched inserts now that document ids come from a pooled sequence.
+ * Statement counts are asserted (deterministic); wall-clock times are only reported in the description.
+ */
+@DataJpaTest
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"
+})
+public class DocumentInsertBatchingTest {
+
+    private static final int ROWS = 500;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @Test
+    void batchedInsertsNeedFarFewerStatementsThanRowByRow() {
+        // Given: row-by-row, flushing after every document (the old IDENTITY behaviour)
+        long rowByRowStart = System.nanoTime();
+        for (DocumentEntity entity : documents("row")) {
+            documentRepository.save(entity);
+            entityManager.flush();
+        }
+        long rowByRowMillis = (System.nanoTime() - rowByRowStart) / 1_000_000;
+        long rowByRowStatements = statistics.getPrepareStatementCount();
+        entityManager.clear();
+        statistics.clear();
+
+        // When: one saveAll flushed once
+        long batchedStart = System.nanoTime();
+        documentRepository.saveAll(documents("batch"));
+        entityManager.flush();
+        long batchedMillis = (System.nanoTime() - batchedStart) / 1_000_000;
+        long batchedStatements = statistics.getPrepareStatementCount();
+
+        // Then
+        assertThat(documentRepository.count()).isEqualTo(2L * ROWS);
+        assertThat(batchedStatements)
+                .as("row-by-row: %d statements in %d ms, batched: %d statements in %d ms",
+                        rowByRowStatements, rowByRowMillis, batchedStatements, batchedMillis)
+                .isLessThan(rowByRowStatements / 10);
+    }
+
+    @Test
+    void idsAreAllocatedFromTheSequenceBeforeFlush() {
+        // When
+        List<DocumentEntity> saved = documentRepository.saveAll(documents("ids"));
+
+        // Then: ids are assigned on persist, not by the INSERT as with IDENTITY
+        assertThat(saved).allSatisfy(entity -> assertThat(entity.getId()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(ROWS / 10);
+    }
+
+    private List<DocumentEntity> documents(String prefix) {
+        List<DocumentEntity> documents = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            DocumentEntity entity = new DocumentEntity();
+            entity.setTitle(prefix + "-" + i);
+            entity.setUsername("alice");
+            documents.add(entity);
+        }
+        return documents;
+    }
+}
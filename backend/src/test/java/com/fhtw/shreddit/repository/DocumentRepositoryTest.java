@@ -0,0 +1,72 @@
+package com.fhtw.shreddit.repository;
+
+import com.fhtw.shreddit.api.dto.DocumentListItemDto;
+import com.fhtw.shreddit.model.DocumentEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+public class DocumentRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    private DocumentEntity oldest;
+    private DocumentEntity middle;
+    private DocumentEntity newest;
+    private DocumentEntity foreign;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime base = LocalDateTime.now().minusDays(1);
+        oldest = persist("Oldest", "alice", base);
+        middle = persist("Legacy", null, base.plusHours(1));
+        newest = persist("Newest", "alice", base.plusHours(2));
+        foreign = persist("Foreign", "bob", base.plusHours(3));
+        entityManager.flush();
+    }
+
+    @Test
+    void findVisiblePage_ShouldReturnOwnAndLegacyDocumentsNewestFirst() {
+        // When
+        List<DocumentListItemDto> page = documentRepository.findVisiblePage("alice", PageRequest.of(0, 10));
+
+        // Then
+        assertThat(page).extracting(DocumentListItemDto::getId)
+                .containsExactly(newest.getId(), middle.getId(), oldest.getId());
+    }
+
+    @Test
+    void findVisiblePageAfter_ShouldContinueStrictlyAfterCursor() {
+        // When
+        List<DocumentListItemDto> first = documentRepository.findVisiblePage("alice", PageRequest.of(0, 2));
+        DocumentListItemDto last = first.get(first.size() - 1);
+        List<DocumentListItemDto> second = documentRepository.findVisiblePageAfter(
+                "alice", last.getCreatedAt(), last.getId(), PageRequest.of(0, 2));
+
+        // Then
+        assertThat(first).extracting(DocumentListItemDto::getId).containsExactly(newest.getId(), middle.getId());
+        assertThat(second).extracting(DocumentListItemDto::getId).containsExactly(oldest.getId());
+        assertThat(second).noneMatch(d -> d.getId().equals(foreign.getId()));
+    }
+
+    private DocumentEntity persist(String title, String username, LocalDateTime createdAt) {
+        DocumentEntity document = new DocumentEntity();
+        document.setTitle(title);
+        document.setUsername(username);
+        document.setCreatedAt(createdAt);
+        return entityManager.persist(document);
+    }
+}
@@ -0,0 +1,58 @@
+package com.fhtw.shreddit.search;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import com.fhtw.shreddit.exception.DocumentException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ElasticsearchCursorTest {
+
+    @Test
+    void encodeDecodeRoundTripKeepsSortValueTypes() {
+        // Given: score, createdAt millis and the implicit _shard_doc tiebreaker
+        ElasticsearchCursor cursor = ElasticsearchCursor.of("pit-1",
+                List.of(FieldValue.of(1.5), FieldValue.of(1700000000000L), FieldValue.of(42L)),
+                new SearchQuery("invoice", "alice", 25, SearchSort.RELEVANCE, null));
+
+        // When
+        ElasticsearchCursor decoded = ElasticsearchCursor.decode(cursor.encode());
+
+        // Then
+        assertEquals("pit-1", decoded.pit());
+        List<FieldValue> after = decoded.searchAfter();
+        assertTrue(after.get(0).isDouble());
+        assertEquals(1.5, after.get(0).doubleValue());
+        assertTrue(after.get(1).isLong());
+        assertEquals(1700000000000L, after.get(1).longValue());
+        assertEquals(42L, after.get(2).longValue());
+    }
+
+    @Test
+    void cursorOnlyContinuesTheSearchItWasIssuedFor() {
+        // Given
+        SearchQuery search = new SearchQuery("invoice", "alice", 25, SearchSort.NEWEST, null,
+                List.of("tax", "home"), LocalDate.of(2024, 1, 1), null);
+        ElasticsearchCursor cursor = ElasticsearchCursor.decode(
+                ElasticsearchCursor.of("pit-1", List.of(FieldValue.of(1700000000000L)), search).encode());
+
+        // Then: page size and tag order do not change the result set
+        assertDoesNotThrow(() -> cursor.checkBelongsTo(new SearchQuery("invoice", "alice", 50, SearchSort.NEWEST,
+                "next", List.of("home", "tax"), LocalDate.of(2024, 1, 1), null)));
+        assertThrows(DocumentException.class, () -> cursor.checkBelongsTo(new SearchQuery("invoice", "alice", 25,
+                SearchSort.OLDEST, "next", List.of("tax", "home"), LocalDate.of(2024, 1, 1), null)));
+        assertThrows(DocumentException.class, () -> cursor.checkBelongsTo(new SearchQuery("receipt", "alice", 25,
+                SearchSort.NEWEST, "next", List.of("tax", "home"), LocalDate.of(2024, 1, 1), null)));
+        assertThrows(DocumentException.class, () -> cursor.checkBelongsTo(new SearchQuery("invoice", "bob", 25,
+                SearchSort.NEWEST, "next", List.of("tax", "home"), LocalDate.of(2024, 1, 1), null)));
+    }
+
+    @Test
+    void decodeRejectsGarbage() {
+        assertThrows(DocumentException.class, () -> ElasticsearchCursor.decode("not a cursor!"));
+        assertThrows(DocumentException.class, () -> ElasticsearchCursor.decode("e30"));
+    }
+}
@@ -0,0 +1,127 @@
+package com.fhtw.shreddit.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LuceneSearchGatewayTest {
+
+    @TempDir
+    Path indexDir;
+
+    private LuceneIndex index;
+    private LuceneSearchGateway gateway;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        index = new LuceneIndex(indexDir.toString());
+        gateway = new LuceneSearchGateway(index);
+        index.index(document(1L, "Rechnung Strom", "alice", LocalDate.of(2024, 3, 5), List.of("tax")));
+        index.index(document(2L, "Rechnungen Wasser", null, LocalDate.of(2024, 4, 1), List.of("tax", "home")));
+        index.index(document(3L, "Rechnung Miete", "bob", LocalDate.of(2024, 3, 9), List.of("tax")));
+        index.index(document(4L, "Urlaub Fotos", "alice", null, List.of()));
+        index.refresh();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        index.close();
+    }
+
+    @Test
+    void searchFindsOwnAndSharedDocumentsWithHighlights() {
+        // When: the German stemmer matches singular and plural
+        SearchPage page = gateway.search(new SearchQuery("rechnung", "alice", 10, SearchSort.RELEVANCE, null));
+
+        // Then
+        assertEquals(List.of(1L, 2L), page.hits().stream().map(SearchHit::id).sorted().toList());
+        assertEquals(2, page.total());
+        assertTrue(page.totalExact());
+        assertNull(page.nextCursor());
+        SearchHit first = page.hits().get(0);
+        assertTrue(first.highlights().get("title").get(0).contains("<mark>"));
+        assertNull(first.document().getOcrText());
+    }
+
+    @Test
+    void searchPagesWithCursor() {
+        // When
+        SearchPage first = gateway.search(new SearchQuery("rechnung", "bob", 1, SearchSort.OLDEST, null));
+        SearchPage second = gateway.search(new SearchQuery("rechnung", "bob", 1, SearchSort.OLDEST, first.nextCursor()));
+        SearchPage third = gateway.search(new SearchQuery("rechnung", "bob", 1, SearchSort.OLDEST, second.nextCursor()));
+
+        // Then: the last hit of a page is not repeated on the next one
+        assertEquals(List.of(2L), first.hits().stream().map(SearchHit::id).toList());
+        assertEquals(List.of(3L), second.hits().stream().map(SearchHit::id).toList());
+        assertTrue(third.hits().isEmpty());
+        assertNotNull(first.facets());
+        assertNull(second.facets());
+    }
+
+    @Test
+    void searchAppliesFiltersAndCountsFacets() {
+        // When
+        SearchPage page = gateway.search(new SearchQuery("rechnung", "alice", 10, SearchSort.NEWEST, null,
+                List.of("tax"), LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31)));
+
+        // Then
+        assertEquals(List.of(1L), page.hits().stream().map(SearchHit::id).toList());
+        assertEquals(List.of(new SearchFacets.Bucket("tax", 1)), page.facets().tags());
+        assertEquals(List.of(new SearchFacets.Bucket("2024-03", 1)), page.facets().documentMonths());
+    }
+
+    @Test
+    void suggestMatchesTitlePrefixes() {
+        // When
+        List<SearchHit> hits = gateway.suggest("Rechnung St", "alice", 5);
+
+        // Then
+        assertEquals(1, hits.size());
+        assertEquals(1L, hits.get(0).id());
+        assertEquals("Rechnung Strom", hits.get(0).document().getTitle());
+    }
+
+    @Test
+    void similarFindsVisibleDocumentsWithSharedTerms() {
+        // When
+        List<SearchHit> hits = gateway.similar(1L, "alice", "alice", 5);
+
+        // Then: document 3 shares the most terms but belongs to bob
+        List<Long> ids = hits.stream().map(SearchHit::id).toList();
+        assertEquals(2L, ids.get(0));
+        assertFalse(ids.contains(1L));
+        assertFalse(ids.contains(3L));
+        assertNotNull(gateway.indexVersion(1L, "alice"));
+        assertNull(gateway.indexVersion(99L, null));
+    }
+
+    @Test
+    void deleteRemovesDocumentsImmediately() {
+        // When
+        gateway.delete(List.of(1L, 2L));
+
+        // Then
+        assertTrue(gateway.search(new SearchQuery("rechnung", "alice", 10, SearchSort.RELEVANCE, null)).hits().isEmpty());
+    }
+
+    private static IndexedDocument document(Long id, String title, String username, LocalDate documentDate,
+                                            List<String> tags) {
+        IndexedDocument document = new IndexedDocument();
+        document.setId(id);
+        document.setTitle(title);
+        document.setOcrText("Scanned text of " + title);
+        document.setUsername(username);
+        document.setCreatedAt(LocalDateTime.of(2024, 1, 1, 12, 0).plusDays(id));
+        document.setDocumentDate(documentDate);
+        document.setTags(tags);
+        return document;
+    }
+}
@@ -0,0 +1,177 @@
+package com.fhtw.shreddit.search;
+
+import com.fhtw.shreddit.exception.DocumentException;
+import com.fhtw.shreddit.exception.SearchUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SearchCircuitBreakerTest {
+
+    private static final SearchQuery QUERY = new SearchQuery("invoice", "alice", 10, SearchSort.RELEVANCE, null);
+
+    @Mock
+    private SearchGateway searchGateway;
+
+    private MutableClock clock;
+    private SearchCircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-01-01T10:00:00Z"));
+        breaker = new SearchCircuitBreaker(searchGateway, Duration.ofMillis(200), Duration.ofMillis(50), 2,
+                Duration.ofSeconds(30), clock);
+    }
+
+    @Test
+    void searchCountsHitsAndMisses() {
+        // Given
+        when(searchGateway.search(QUERY))
+                .thenReturn(new SearchPage(List.of(new SearchHit(1L, new IndexedDocument(), 1.0)), 1, true, null))
+                .thenReturn(SearchPage.empty());
+
+        // When
+        breaker.search(QUERY);
+        breaker.search(QUERY);
+
+        // Then
+        assertEquals(1L, breaker.stats().get("hit"));
+        assertEquals(1L, breaker.stats().get("miss"));
+        assertEquals(SearchCircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void searchOpensAfterConsecutiveFailuresAndRejectsWithoutCallingIndex() {
+        // Given
+        when(searchGateway.search(QUERY)).thenThrow(new SearchUnavailableException("connection refused"));
+
+        // When
+        assertThrows(SearchUnavailableException.class, () -> breaker.search(QUERY));
+        assertThrows(SearchUnavailableException.class, () -> breaker.search(QUERY));
+        assertThrows(SearchUnavailableException.class, () -> breaker.search(QUERY));
+
+        // Then
+        assertEquals(SearchCircuitBreaker.State.OPEN, breaker.state());
+        verify(searchGateway, times(2)).search(QUERY);
+        assertEquals(2L, breaker.stats().get("error"));
+        assertEquals(1L, breaker.stats().get("rejected"));
+    }
+
+    @Test
+    void searchGivesUpAfterTimeBudget() {
+        // Given
+        when(searchGateway.search(QUERY)).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return SearchPage.empty();
+        });
+
+        // When
+        long start = System.nanoTime();
+        assertThrows(SearchUnavailableException.class, () -> breaker.search(QUERY));
+
+        // Then
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 2_000);
+        assertEquals(1L, breaker.stats().get("timeout"));
+    }
+
+    @Test
+    void suggestGivesUpAfterItsShorterBudget() {
+        // Given
+        when(searchGateway.suggest("inv", "alice", 5)).thenAnswer(invocation -> {
+            Thread.sleep(150);
+            return List.of();
+        });
+
+        // When / Then: well within the search budget, but over the one for suggestions
+        assertThrows(SearchUnavailableException.class, () -> breaker.suggest("inv", "alice", 5));
+        assertEquals(1L, breaker.stats().get("timeout"));
+    }
+
+    @Test
+    void openBreakerRejectsSimilarQueriesWithoutCallingIndex() {
+        // Given
+        when(searchGateway.search(QUERY)).thenThrow(new SearchUnavailableException("connection refused"));
+        assertThrows(SearchUnavailableException.class, () -> breaker.search(QUERY));
+        assertThrows(SearchUnavailableException.class, () -> breaker.search(QUERY));
+
+        // When / Then
+        assertThrows(SearchUnavailableException.class, () -> breaker.indexVersion(1L, "alice"));
+        assertThrows(SearchUnavailableException.class, () -> breaker.similar(1L, "alice", "alice", 5));
+        verify(searchGateway, never()).indexVersion(any(), any());
+        verify(searchGateway, never()).similar(any(), any(), any(), anyInt());
+        assertEquals(2L, breaker.stats().get("rejected"));
+    }
+
+    @Test
+    void trialSearchClosesBreakerAfterOpenPeriod() {
+        // Given
+        when(searchGateway.search(QUERY))
+                .thenThrow(new SearchUnavailableException("connection refused"))
+                .thenThrow(new SearchUnavailableException("connection refused"))
+                .thenReturn(SearchPage.empty());
+        assertThrows(SearchUnavailableException.class, () -> breaker.search(QUERY));
+        assertThrows(SearchUnavailableException.class, () -> breaker.search(QUERY));
+
+        // When
+        clock.advance(Duration.ofSeconds(31));
+        assertEquals(SearchCircuitBreaker.State.HALF_OPEN, breaker.state());
+        breaker.search(QUERY);
+
+        // Then
+        assertEquals(SearchCircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void invalidCursorIsNotCountedAsFailure() {
+        // Given
+        when(searchGateway.search(QUERY)).thenThrow(new DocumentException("Search cursor expired, please search again"));
+
+        // When/Then
+        assertThrows(DocumentException.class, () -> breaker.search(QUERY));
+        assertThrows(DocumentException.class, () -> breaker.search(QUERY));
+        assertEquals(SearchCircuitBreaker.State.CLOSED, breaker.state());
+        assertEquals(0, breaker.stats().get("consecutiveFailures"));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.fhtw.shreddit.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class SharedRouteTest {
+
+    // The worker is a separate build; its constant is read from the source next to this module
+    private static final Path WORKER_SCHEMA = Path.of("..", "indexing-worker", "src", "main", "java",
+            "com", "fhtw", "indexingworker", "service", "DocumentIndexSchema.java");
+
+    @Test
+    void sharedRouteMatchesTheIndexingWorker() throws Exception {
+        // Given: only when built from the full repository
+        assumeTrue(Files.exists(WORKER_SCHEMA), "indexing-worker sources not available");
+        String source = Files.readString(WORKER_SCHEMA);
+
+        // When
+        Matcher matcher = Pattern.compile("String SHARED_ROUTE\\s*=\\s*\"([^\"]*)\"").matcher(source);
+
+        // Then: otherwise searches ask the wrong shard for documents without owner
+        assertTrue(matcher.find(), "SHARED_ROUTE not found in " + WORKER_SCHEMA);
+        assertEquals(matcher.group(1), ElasticsearchSearchGateway.SHARED_ROUTE);
+    }
+}
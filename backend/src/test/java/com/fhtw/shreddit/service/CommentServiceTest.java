@@ -1,26 +1,28 @@
 package com.fhtw.shreddit.service;
 
 import com.fhtw.shreddit.api.dto.CommentDto;
+import com.fhtw.shreddit.api.dto.CursorPage;
+import com.fhtw.shreddit.api.dto.DocumentCountsDto;
 import com.fhtw.shreddit.exception.DocumentException;
 import com.fhtw.shreddit.model.CommentEntity;
-import com.fhtw.shreddit.model.DocumentEntity;
 import com.fhtw.shreddit.repository.CommentRepository;
-import com.fhtw.shreddit.repository.DocumentRepository;
+import com.fhtw.shreddit.repository.DocumentActivityCount;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,19 +32,17 @@ public class CommentServiceTest {
     private CommentRepository commentRepository;
 
     @Mock
-    private DocumentRepository documentRepository;
+    private DocumentAccessCache documentAccessCache;
 
     @InjectMocks
     private CommentService commentService;
 
-    private DocumentEntity document;
+    private DocumentAccess document;
     private CommentEntity comment;
 
     @BeforeEach
     void setUp() {
-        document = new DocumentEntity();
-        document.setId(1L);
-        document.setTitle("Test Document");
+        document = new DocumentAccess(true, null);
 
         comment = new CommentEntity();
         comment.setId(1L);
@@ -52,35 +52,100 @@ public class CommentServiceTest {
     }
 
     @Test
-    void listComments_ShouldReturnComments() {
+    void listComments_ShouldReturnFirstPage() {
         // Given
-        when(documentRepository.findById(1L)).thenReturn(Optional.of(document));
-        when(commentRepository.findByDocumentIdOrderByCreatedAtDesc(1L)).thenReturn(Arrays.asList(comment));
+        when(documentAccessCache.lookup(1L)).thenReturn(document);
+        when(commentRepository.findPage(eq(1L), any(Pageable.class))).thenReturn(Arrays.asList(comment));
 
         // When
-        List<CommentDto> comments = commentService.listComments(1L);
+        CursorPage<CommentDto> page = commentService.listComments(1L, null, null);
 
         // Then
-        assertThat(comments).hasSize(1);
-        assertThat(comments.get(0).getId()).isEqualTo(1L);
-        assertThat(comments.get(0).getText()).isEqualTo("Test comment");
-        verify(commentRepository).findByDocumentIdOrderByCreatedAtDesc(1L);
+        assertThat(page.items()).hasSize(1);
+        assertThat(page.items().get(0).getId()).isEqualTo(1L);
+        assertThat(page.items().get(0).getText()).isEqualTo("Test comment");
+        assertThat(page.nextCursor()).isNull();
+        verify(commentRepository).findPage(eq(1L), any(Pageable.class));
+    }
+
+    @Test
+    void listComments_ShouldReturnCursorWhenMoreCommentsFollow() {
+        // Given
+        CommentEntity older = new CommentEntity();
+        older.setId(2L);
+        older.setDocumentId(1L);
+        older.setText("Older comment");
+        older.setCreatedAt(comment.getCreatedAt().minusMinutes(1));
+        when(documentAccessCache.lookup(1L)).thenReturn(document);
+        when(commentRepository.findPage(eq(1L), any(Pageable.class))).thenReturn(Arrays.asList(comment, older));
+
+        // When
+        CursorPage<CommentDto> page = commentService.listComments(1L, 1, null);
+
+        // Then
+        assertThat(page.items()).hasSize(1);
+        KeysetCursor cursor = KeysetCursor.decode(page.nextCursor());
+        assertThat(cursor.id()).isEqualTo(1L);
+        assertThat(cursor.createdAt()).isEqualTo(comment.getCreatedAt());
+    }
+
+    @Test
+    void listComments_ShouldContinueAfterCursor() {
+        // Given
+        LocalDateTime position = LocalDateTime.now();
+        String cursor = new KeysetCursor(position, 7L).encode();
+        when(documentAccessCache.lookup(1L)).thenReturn(document);
+        when(commentRepository.findPageAfter(eq(1L), eq(position), eq(7L), any(Pageable.class))).thenReturn(List.of());
+
+        // When
+        CursorPage<CommentDto> page = commentService.listComments(1L, null, cursor);
+
+        // Then
+        assertThat(page.items()).isEmpty();
+        verify(commentRepository, never()).findPage(any(), any());
     }
 
     @Test
     void listComments_ShouldThrowExceptionWhenDocumentNotFound() {
         // Given
-        when(documentRepository.findById(999L)).thenReturn(Optional.empty());
+        when(documentAccessCache.lookup(999L)).thenReturn(new DocumentAccess(false, null));
+
+        // When/Then
+        assertThrows(DocumentException.class, () -> commentService.listComments(999L, null, null));
+        verify(commentRepository, never()).findPage(any(), any());
+    }
+
+    @Test
+    void countByDocuments_ShouldMapGroupedCounts() {
+        // Given
+        DocumentActivityCount counts = mock(DocumentActivityCount.class);
+        when(counts.getDocumentId()).thenReturn(1L);
+        when(counts.getComments()).thenReturn(3L);
+        when(counts.getNotes()).thenReturn(1L);
+        when(commentRepository.countActivity(any(), eq("alice"))).thenReturn(List.of(counts));
+
+        // When
+        List<DocumentCountsDto> result = commentService.countByDocuments(List.of(1L, 2L), "alice");
+
+        // Then
+        assertThat(result).containsExactly(new DocumentCountsDto(1L, 3, 1));
+        verify(commentRepository, times(1)).countActivity(any(), eq("alice"));
+    }
+
+    @Test
+    void countByDocuments_ShouldRejectTooManyIds() {
+        // Given
+        List<Long> ids = java.util.stream.LongStream.rangeClosed(1, CommentService.MAX_COUNT_IDS + 1).boxed().toList();
 
         // When/Then
-        assertThrows(DocumentException.class, () -> commentService.listComments(999L));
-        verify(commentRepository, never()).findByDocumentIdOrderByCreatedAtDesc(any());
+        assertThrows(DocumentException.class, () -> commentService.countByDocuments(ids, "alice"));
+        verifyNoInteractions(commentRepository);
     }
 
     @Test
     void addComment_ShouldCreateComment() {
         // Given
-        when(documentRepository.findById(1L)).thenReturn(Optional.of(document));
+        when(documentAccessCache.lookup(1L)).thenReturn(document);
         when(commentRepository.save(any(CommentEntity.class))).thenReturn(comment);
 
         // When
@@ -103,7 +168,7 @@ public class CommentServiceTest {
     @Test
     void addComment_ShouldThrowExceptionWhenDocumentNotFound() {
         // Given
-        when(documentRepository.findById(999L)).thenReturn(Optional.empty());
+        when(documentAccessCache.lookup(999L)).thenReturn(new DocumentAccess(false, null));
 
         // When/Then
         assertThrows(DocumentException.class, () -> commentService.addComment(999L, "Test comment"));
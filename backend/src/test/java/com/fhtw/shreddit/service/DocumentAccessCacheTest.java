@@ -0,0 +1,122 @@
+package com.fhtw.shreddit.service;
+
+import com.fhtw.shreddit.repository.DocumentOwnerView;
+import com.fhtw.shreddit.repository.DocumentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentAccessCacheTest {
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    private MutableClock clock;
+    private DocumentAccessCache cache;
+
+    @BeforeEach
+    void setup() {
+        clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+        cache = new DocumentAccessCache(documentRepository, 2, Duration.ofMinutes(5), Duration.ofSeconds(5), clock);
+    }
+
+    @Test
+    void lookupHitsCacheAfterFirstLoad() {
+        when(documentRepository.findOwnerById(1L)).thenReturn(Optional.of(owner(1L, "alice")));
+
+        DocumentAccess first = cache.lookup(1L);
+        DocumentAccess second = cache.lookup(1L);
+
+        assertTrue(first.exists());
+        assertEquals("alice", second.owner());
+        verify(documentRepository, times(1)).findOwnerById(1L);
+        assertEquals(1L, cache.stats().get("hits"));
+        assertEquals(1L, cache.stats().get("misses"));
+    }
+
+    @Test
+    void lookupCachesMissingDocumentsUntilInvalidated() {
+        when(documentRepository.findOwnerById(7L))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(owner(7L, null)));
+
+        assertFalse(cache.lookup(7L).exists());
+        assertFalse(cache.lookup(7L).exists());
+
+        cache.invalidate(7L);
+
+        DocumentAccess access = cache.lookup(7L);
+        assertTrue(access.exists());
+        assertTrue(access.isAccessibleBy("anyone"));
+        verify(documentRepository, times(2)).findOwnerById(7L);
+    }
+
+    @Test
+    void missingDocumentsAreOnlyCachedBriefly() {
+        // A row inserted by the xml-import worker never invalidates the cache
+        when(documentRepository.findOwnerById(8L))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(owner(8L, "alice")));
+
+        assertFalse(cache.lookup(8L).exists());
+        clock.advance(Duration.ofSeconds(4));
+        assertFalse(cache.lookup(8L).exists());
+        clock.advance(Duration.ofSeconds(2));
+
+        assertTrue(cache.lookup(8L).isAccessibleBy("alice"));
+        verify(documentRepository, times(2)).findOwnerById(8L);
+    }
+
+    @Test
+    void entriesExpireAfterTtl() {
+        when(documentRepository.findOwnerById(1L)).thenReturn(Optional.of(owner(1L, "alice")));
+
+        cache.lookup(1L);
+        clock.advance(Duration.ofMinutes(6));
+        cache.lookup(1L);
+
+        verify(documentRepository, times(2)).findOwnerById(1L);
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvictedAtMaxSize() {
+        when(documentRepository.findOwnerById(anyLong())).thenAnswer(inv -> Optional.of(owner(inv.getArgument(0), "alice")));
+
+        cache.lookup(1L);
+        cache.lookup(2L);
+        cache.lookup(1L); // 2 is now least recently used
+        cache.lookup(3L);
+        cache.lookup(1L);
+        cache.lookup(2L);
+
+        verify(documentRepository, times(1)).findOwnerById(1L);
+        verify(documentRepository, times(2)).findOwnerById(2L);
+        assertEquals(2, cache.stats().get("size"));
+    }
+
+    private DocumentOwnerView owner(Long id, String username) {
+        return new DocumentOwnerView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getUsername() {
+                return username;
+            }
+        };
+    }
+}
@@ -0,0 +1,162 @@
+package com.fhtw.shreddit.service;
+
+import com.fhtw.shreddit.api.dto.DocumentBatchItemResult;
+import com.fhtw.shreddit.api.dto.DocumentDto;
+import com.fhtw.shreddit.api.dto.OcrRequestDto;
+import com.fhtw.shreddit.exception.DocumentException;
+import com.fhtw.shreddit.exception.MessagePublishException;
+import com.fhtw.shreddit.model.DocumentEntity;
+import com.fhtw.shreddit.repository.DocumentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentBatchServiceTest {
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private RabbitMQService rabbitMQService;
+
+    @Mock
+    private DocumentAccessCache documentAccessCache;
+
+    private DocumentBatchService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new DocumentBatchService(documentRepository, rabbitMQService, documentAccessCache, 3);
+    }
+
+    @Test
+    void createBatchInsertsValidItemsAndPublishesOnce() {
+        // Given
+        DocumentDto first = new DocumentDto(null, "First", "a", null, null);
+        DocumentDto invalid = new DocumentDto(null, " ", "b", null, null);
+        DocumentDto second = new DocumentDto(null, "Second", "c", null, "bob");
+        when(documentRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> {
+            List<DocumentEntity> entities = invocation.getArgument(0);
+            for (int i = 0; i < entities.size(); i++) {
+                entities.get(i).setId(10L + i);
+            }
+            return entities;
+        });
+
+        // When
+        List<DocumentBatchItemResult> results = service.createBatch(List.of(first, invalid, second), "alice");
+
+        // Then
+        assertEquals(3, results.size());
+        assertEquals(DocumentBatchItemResult.created(0, 10L), results.get(0));
+        assertEquals(DocumentBatchItemResult.REJECTED, results.get(1).status());
+        assertEquals(1, results.get(1).index());
+        assertEquals(DocumentBatchItemResult.created(2, 11L), results.get(2));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<OcrRequestDto>> published = ArgumentCaptor.forClass(List.class);
+        verify(rabbitMQService, times(1)).sendOcrRequests(published.capture());
+        assertEquals(List.of(10L, 11L), published.getValue().stream().map(OcrRequestDto::getDocumentId).toList());
+        verify(documentAccessCache).invalidate(10L);
+        verify(documentAccessCache).invalidate(11L);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<DocumentEntity>> saved = ArgumentCaptor.forClass(List.class);
+        verify(documentRepository, times(1)).saveAllAndFlush(saved.capture());
+        assertEquals("alice", saved.getValue().get(0).getUsername());
+        // The owner always is the caller; a username in the item must not create documents for someone else
+        assertEquals("alice", saved.getValue().get(1).getUsername());
+        assertEquals("PENDING", saved.getValue().get(0).getSummaryStatus());
+    }
+
+    @Test
+    void createBatchWithOnlyInvalidItemsDoesNotTouchDatabaseOrQueue() {
+        // When
+        List<DocumentBatchItemResult> results = service.createBatch(List.of(new DocumentDto()), "alice");
+
+        // Then
+        assertEquals(DocumentBatchItemResult.REJECTED, results.get(0).status());
+        verifyNoInteractions(documentRepository, rabbitMQService);
+    }
+
+    @Test
+    void createBatchRejectsEmptyAndOversizedBatches() {
+        List<DocumentDto> oversized = new ArrayList<>(Collections.nCopies(4, new DocumentDto(null, "t", "c", null, null)));
+
+        assertThrows(DocumentException.class, () -> service.createBatch(List.of(), "alice"));
+        assertThrows(DocumentException.class, () -> service.createBatch(oversized, "alice"));
+        verifyNoInteractions(documentRepository, rabbitMQService);
+    }
+
+    @Test
+    void createBatchPublishesOnlyAfterCommit() {
+        // Given
+        when(documentRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> {
+            List<DocumentEntity> entities = invocation.getArgument(0);
+            entities.get(0).setId(10L);
+            return entities;
+        });
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            service.createBatch(List.of(new DocumentDto(null, "First", "a", null, null)), "alice");
+
+            // Then: nothing leaves before the commit, and a rollback sends nothing at all
+            verifyNoInteractions(rabbitMQService);
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            verifyNoInteractions(rabbitMQService);
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+            verify(rabbitMQService).sendOcrRequests(anyList());
+            verify(documentAccessCache).invalidate(10L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void createBatchReportsCommittedDocumentsWhenOcrPublishFails() {
+        // Given
+        when(documentRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> {
+            List<DocumentEntity> entities = invocation.getArgument(0);
+            for (int i = 0; i < entities.size(); i++) {
+                entities.get(i).setId(10L + i);
+            }
+            return entities;
+        });
+        doThrow(new MessagePublishException("Failed to send OCR requests"))
+                .when(rabbitMQService).sendOcrRequests(anyList());
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            List<DocumentBatchItemResult> results = service.createBatch(List.of(
+                    new DocumentDto(null, "First", "a", null, null),
+                    new DocumentDto(null, " ", "b", null, null)), "alice");
+
+            // When: the rows have committed and the publish fails
+            assertDoesNotThrow(() -> TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(TransactionSynchronization::afterCommit));
+
+            // Then: the client still gets the id, so a retry does not create the document again
+            assertEquals(new DocumentBatchItemResult(0, 10L, DocumentBatchItemResult.CREATED, null, false), results.get(0));
+            assertEquals(DocumentBatchItemResult.REJECTED, results.get(1).status());
+            assertNull(results.get(1).ocrQueued());
+            verify(documentAccessCache).invalidate(10L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.fhtw.shreddit.service;
+
+import com.fhtw.shreddit.repository.CommentRepository;
+import com.fhtw.shreddit.repository.DocumentAccessDailyRepository;
+import com.fhtw.shreddit.repository.DocumentRepository;
+import com.fhtw.shreddit.repository.NoteRepository;
+import com.fhtw.shreddit.repository.PendingDeletionView;
+import com.fhtw.shreddit.search.SearchGateway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentCleanupServiceTest {
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private CommentRepository commentRepository;
+
+    @Mock
+    private NoteRepository noteRepository;
+
+    @Mock
+    private DocumentAccessDailyRepository accessDailyRepository;
+
+    @Mock
+    private StorageService storageService;
+
+    @Mock
+    private SearchGateway searchGateway;
+
+    private DocumentCleanupService cleanupService;
+
+    @BeforeEach
+    void setUp() {
+        cleanupService = new DocumentCleanupService(documentRepository, commentRepository, noteRepository,
+                accessDailyRepository, storageService, searchGateway, 2, 300);
+    }
+
+    @Test
+    void cleanupBatchRemovesObjectsIndexEntriesAndRowsInOrder() {
+        // Given
+        when(documentRepository.findPendingDeletion(any(LocalDateTime.class), eq(2)))
+                .thenReturn(List.of(pending(1L, "a.pdf"), pending(2L, "shared.pdf")));
+        when(storageService.listObjects("documents/1/")).thenReturn(List.of("documents/1/ocr.txt", "documents/1/summary.txt"));
+        when(storageService.listObjects("documents/2/")).thenReturn(List.of());
+        when(documentRepository.existsByFilenameAndIdNot("a.pdf", 1L)).thenReturn(false);
+        when(documentRepository.existsByFilenameAndIdNot("shared.pdf", 2L)).thenReturn(true);
+        when(documentRepository.purgeDeleted(List.of(1L, 2L))).thenReturn(2);
+
+        // When
+        int purged = cleanupService.cleanupBatch();
+
+        // Then
+        assertEquals(2, purged);
+        InOrder order = inOrder(storageService, searchGateway, commentRepository, documentRepository);
+        // An upload another live document still points at is kept
+        order.verify(storageService).deleteObjects(Set.of("documents/1/ocr.txt", "documents/1/summary.txt", "a.pdf"));
+        order.verify(searchGateway).delete(List.of(1L, 2L));
+        order.verify(commentRepository).deleteByDocumentIds(List.of(1L, 2L));
+        order.verify(documentRepository).purgeDeleted(List.of(1L, 2L));
+        verify(noteRepository).deleteByDocumentIds(List.of(1L, 2L));
+        verify(accessDailyRepository).deleteByDocumentIds(List.of(1L, 2L));
+    }
+
+    @Test
+    void cleanupBatchKeepsRowsWhenStorageFails() {
+        // Given
+        when(documentRepository.findPendingDeletion(any(LocalDateTime.class), eq(2)))
+                .thenReturn(List.of(pending(1L, null)));
+        when(storageService.listObjects("documents/1/")).thenReturn(List.of("documents/1/ocr.txt"));
+        doThrow(new RuntimeException("minio down")).when(storageService).deleteObjects(anyCollection());
+
+        // When
+        cleanupService.run();
+
+        // Then
+        verifyNoInteractions(searchGateway, commentRepository, noteRepository, accessDailyRepository);
+        verify(documentRepository, never()).purgeDeleted(any());
+    }
+
+    @Test
+    void runDoesNothingWithoutPendingDocuments() {
+        // Given
+        when(documentRepository.findPendingDeletion(any(LocalDateTime.class), eq(2))).thenReturn(List.of());
+
+        // When
+        cleanupService.run();
+
+        // Then
+        verifyNoInteractions(storageService, searchGateway);
+        verify(documentRepository, never()).purgeDeleted(any());
+    }
+
+    private static PendingDeletionView pending(Long id, String filename) {
+        return new PendingDeletionView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getFilename() {
+                return filename;
+            }
+        };
+    }
+}
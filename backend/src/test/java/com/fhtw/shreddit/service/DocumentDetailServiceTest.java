@@ -0,0 +1,185 @@
+package com.fhtw.shreddit.service;
+
+import com.fhtw.shreddit.api.dto.CommentDto;
+import com.fhtw.shreddit.api.dto.CursorPage;
+import com.fhtw.shreddit.api.dto.DocumentDetailDto;
+import com.fhtw.shreddit.api.dto.DocumentDto;
+import com.fhtw.shreddit.api.dto.NoteDto;
+import com.fhtw.shreddit.exception.DocumentException;
+import com.fhtw.shreddit.model.DocumentAccessDaily;
+import com.fhtw.shreddit.repository.DocumentAccessDailyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentDetailServiceTest {
+
+    @Mock
+    private DocumentAccessCache documentAccessCache;
+
+    @Mock
+    private DocumentService documentService;
+
+    @Mock
+    private NoteService noteService;
+
+    @Mock
+    private CommentService commentService;
+
+    @Mock
+    private DocumentAccessDailyRepository accessDailyRepository;
+
+    private DocumentDetailService detailService;
+
+    @BeforeEach
+    void setUp() {
+        detailService = new DocumentDetailService(documentAccessCache, documentService, noteService,
+                commentService, accessDailyRepository, 20, 30, 4, 10);
+    }
+
+    @Test
+    void getDetailLoadsAllSections() {
+        // Given
+        DocumentDto document = new DocumentDto(1L, "Doc", "Content", LocalDateTime.now(), "alice");
+        NoteDto note = new NoteDto();
+        note.setId(3L);
+        CommentDto comment = new CommentDto();
+        comment.setId(4L);
+        DocumentAccessDaily day = new DocumentAccessDaily();
+        day.setAccessDate(LocalDate.now());
+        day.setAccessCount(7);
+        when(documentAccessCache.lookup(1L)).thenReturn(new DocumentAccess(true, "alice"));
+        when(documentService.getById(1L)).thenReturn(Optional.of(document));
+        when(noteService.findNotes(1L)).thenReturn(List.of(note));
+        when(commentService.findComments(1L, 20, null)).thenReturn(new CursorPage<>(List.of(comment), "next"));
+        when(accessDailyRepository.findByDocumentIdAndAccessDateGreaterThanEqualOrderByAccessDateDesc(
+                eq(1L), eq(LocalDate.now().minusDays(29)))).thenReturn(List.of(day));
+
+        // When
+        Optional<DocumentDetailDto> detail = detailService.getDetail(1L, "alice", EnumSet.allOf(DocumentDetailService.Section.class));
+
+        // Then
+        assertTrue(detail.isPresent());
+        assertSame(document, detail.get().document());
+        assertEquals(List.of(note), detail.get().notes());
+        assertEquals(List.of(comment), detail.get().comments());
+        assertEquals("next", detail.get().commentsNextCursor());
+        assertEquals(7, detail.get().accessStats().get(0).count());
+        verify(documentAccessCache, times(1)).lookup(1L);
+    }
+
+    @Test
+    void getDetailRunsSectionQueriesConcurrently() throws Exception {
+        // Given: each query waits until the other one has started
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        when(documentAccessCache.lookup(1L)).thenReturn(new DocumentAccess(true, null));
+        when(noteService.findNotes(1L)).thenAnswer(invocation -> {
+            bothStarted.countDown();
+            assertTrue(bothStarted.await(5, TimeUnit.SECONDS));
+            return List.of();
+        });
+        when(commentService.findComments(1L, 20, null)).thenAnswer(invocation -> {
+            bothStarted.countDown();
+            assertTrue(bothStarted.await(5, TimeUnit.SECONDS));
+            return new CursorPage<>(List.of(), null);
+        });
+
+        // When
+        Optional<DocumentDetailDto> detail = detailService.getDetail(1L, "alice",
+                EnumSet.of(DocumentDetailService.Section.NOTES, DocumentDetailService.Section.COMMENTS));
+
+        // Then
+        assertTrue(detail.isPresent());
+        assertNull(detail.get().document());
+        assertNull(detail.get().accessStats());
+        verifyNoInteractions(documentService, accessDailyRepository);
+    }
+
+    @Test
+    void getDetailRunsNoMoreQueriesAtOnceThanPermits() {
+        // Given: one permit, as if the pool had a single connection
+        detailService = new DocumentDetailService(documentAccessCache, documentService, noteService,
+                commentService, accessDailyRepository, 20, 30, new Semaphore(1));
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(documentAccessCache.lookup(1L)).thenReturn(new DocumentAccess(true, null));
+        when(documentService.getById(1L)).thenAnswer(invocation -> query(running, maxRunning, Optional.empty()));
+        when(noteService.findNotes(1L)).thenAnswer(invocation -> query(running, maxRunning, List.of()));
+        when(commentService.findComments(1L, 20, null))
+                .thenAnswer(invocation -> query(running, maxRunning, new CursorPage<>(List.of(), null)));
+        when(accessDailyRepository.findByDocumentIdAndAccessDateGreaterThanEqualOrderByAccessDateDesc(eq(1L), any()))
+                .thenAnswer(invocation -> query(running, maxRunning, List.of()));
+
+        // When
+        detailService.getDetail(1L, "alice", EnumSet.allOf(DocumentDetailService.Section.class));
+
+        // Then
+        assertEquals(1, maxRunning.get());
+    }
+
+    @Test
+    void queryPermitsDefaultToHalfThePool() {
+        // When / Then: the other half stays free for every other endpoint
+        assertEquals(5, DocumentDetailService.queryPermits(0, 10));
+        assertEquals(1, DocumentDetailService.queryPermits(0, 1));
+        assertEquals(8, DocumentDetailService.queryPermits(8, 10));
+    }
+
+    @Test
+    void getDetailReturnsEmptyForForeignDocument() {
+        // Given
+        when(documentAccessCache.lookup(1L)).thenReturn(new DocumentAccess(true, "bob"));
+
+        // When
+        Optional<DocumentDetailDto> detail = detailService.getDetail(1L, "alice", EnumSet.allOf(DocumentDetailService.Section.class));
+
+        // Then
+        assertTrue(detail.isEmpty());
+        verifyNoInteractions(documentService, noteService, commentService, accessDailyRepository);
+    }
+
+    @Test
+    void getDetailPropagatesQueryFailure() {
+        // Given
+        when(documentAccessCache.lookup(1L)).thenReturn(new DocumentAccess(true, "alice"));
+        when(noteService.findNotes(1L)).thenThrow(new IllegalStateException("db down"));
+
+        // When/Then
+        assertThrows(IllegalStateException.class,
+                () -> detailService.getDetail(1L, "alice", EnumSet.of(DocumentDetailService.Section.NOTES)));
+    }
+
+    @Test
+    void parseSections() {
+        assertEquals(EnumSet.allOf(DocumentDetailService.Section.class), DocumentDetailService.Section.parse(null));
+        assertEquals(Set.of(DocumentDetailService.Section.DOCUMENT, DocumentDetailService.Section.COMMENTS),
+                DocumentDetailService.Section.parse(List.of("document,Comments")));
+        assertThrows(DocumentException.class, () -> DocumentDetailService.Section.parse(List.of("files")));
+    }
+
+    private static <T> T query(AtomicInteger running, AtomicInteger maxRunning, T result) throws InterruptedException {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        Thread.sleep(20);
+        running.decrementAndGet();
+        return result;
+    }
+}
@@ -0,0 +1,109 @@
+package com.fhtw.shreddit.service;
+
+import com.fhtw.shreddit.api.dto.DocumentStatusEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentEventServiceTest {
+
+    @Mock
+    private DocumentAccessCache documentAccessCache;
+
+    private final Map<SseEmitter, List<SseEmitter.SseEventBuilder>> sent = new HashMap<>();
+    private DocumentEventService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new DocumentEventService(documentAccessCache, 60_000) {
+            @Override
+            SseEmitter createEmitter() {
+                return new RecordingEmitter();
+            }
+        };
+    }
+
+    @Test
+    void deliversEventsOnlyToUsersWhoCanAccessTheDocument() {
+        // Given
+        SseEmitter alice = service.subscribe("alice");
+        SseEmitter bob = service.subscribe("bob");
+        sent.clear();
+        when(documentAccessCache.lookup(7L)).thenReturn(new DocumentAccess(true, "alice"));
+
+        // When
+        service.onStatusEvent(new DocumentStatusEvent(7L, "SUMMARY", "OK", 1L));
+
+        // Then
+        assertEquals(1, sent.getOrDefault(alice, List.of()).size());
+        assertFalse(sent.containsKey(bob));
+    }
+
+    @Test
+    void deliversLegacyDocumentEventsToEveryone() {
+        // Given
+        SseEmitter alice = service.subscribe("alice");
+        SseEmitter bob = service.subscribe("bob");
+        sent.clear();
+        when(documentAccessCache.lookup(8L)).thenReturn(new DocumentAccess(true, null));
+
+        // When
+        service.onStatusEvent(new DocumentStatusEvent(8L, "OCR", "DONE", 1L));
+
+        // Then
+        assertTrue(sent.containsKey(alice));
+        assertTrue(sent.containsKey(bob));
+    }
+
+    @Test
+    void skipsLookupWhenNobodyIsSubscribed() {
+        // When
+        service.onStatusEvent(new DocumentStatusEvent(9L, "INDEXING", "INDEXED", 1L));
+
+        // Then
+        verify(documentAccessCache, never()).lookup(anyLong());
+    }
+
+    @Test
+    void dropsSubscribersWhoseConnectionFailed() {
+        // Given
+        service = new DocumentEventService(documentAccessCache, 60_000) {
+            @Override
+            SseEmitter createEmitter() {
+                return new SseEmitter() {
+                    @Override
+                    public void send(SseEventBuilder builder) throws IOException {
+                        throw new IOException("Broken pipe");
+                    }
+                };
+            }
+        };
+
+        // When
+        service.subscribe("alice");
+
+        // Then
+        assertEquals(0, service.subscriberCount());
+    }
+
+    private class RecordingEmitter extends SseEmitter {
+        @Override
+        public void send(SseEventBuilder builder) {
+            sent.computeIfAbsent(this, e -> new ArrayList<>()).add(builder);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.fhtw.shreddit.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fhtw.shreddit.model.DocumentEntity;
+import com.fhtw.shreddit.repository.DocumentRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentExportServiceTest {
+
+    @Mock
+    private DocumentRepository documentRepository;
+    @Mock
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private DocumentExportService exportService;
+
+    @BeforeEach
+    void setup() {
+        exportService = new DocumentExportService(documentRepository, entityManager, objectMapper);
+    }
+
+    @Test
+    void exportWritesOneJsonObjectPerLineWithoutTextByDefault() throws Exception {
+        when(documentRepository.streamVisibleTo("alice")).thenReturn(Stream.of(document(1L), document(2L)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = exportService.exportNdjson("alice", false, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, count);
+        assertEquals(2, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(1L, first.get("id").asLong());
+        assertFalse(first.has("ocrText"));
+        assertFalse(first.has("summary"));
+        verify(entityManager, times(2)).detach(any(DocumentEntity.class));
+    }
+
+    @Test
+    void exportIncludesTextWhenRequested() throws Exception {
+        when(documentRepository.streamVisibleTo("alice")).thenReturn(Stream.of(document(1L)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.exportNdjson("alice", true, out);
+
+        JsonNode node = objectMapper.readTree(out.toString(StandardCharsets.UTF_8).trim());
+        assertTrue(node.has("ocrText"));
+        assertEquals("summary 1", node.get("summary").asText());
+    }
+
+    private DocumentEntity document(Long id) {
+        DocumentEntity entity = new DocumentEntity();
+        entity.setId(id);
+        entity.setTitle("Doc " + id);
+        entity.setUsername("alice");
+        entity.setCreatedAt(LocalDateTime.now());
+        entity.setSummary("summary " + id);
+        entity.setOcrText("ocr " + id);
+        return entity;
+    }
+}
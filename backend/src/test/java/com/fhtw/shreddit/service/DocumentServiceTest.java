@@ -1,16 +1,22 @@
 package com.fhtw.shreddit.service;
 
+import com.fhtw.shreddit.api.dto.CursorPage;
+import com.fhtw.shreddit.api.dto.DocumentDeleteResult;
 import com.fhtw.shreddit.api.dto.DocumentDto;
+import com.fhtw.shreddit.api.dto.DocumentListItemDto;
 import com.fhtw.shreddit.api.dto.OcrRequestDto;
 import com.fhtw.shreddit.exception.DocumentCreationException;
+import com.fhtw.shreddit.exception.DocumentException;
 import com.fhtw.shreddit.model.DocumentEntity;
 import com.fhtw.shreddit.repository.DocumentRepository;
+import com.fhtw.shreddit.search.SearchGateway;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 
@@ -21,6 +27,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,6 +39,15 @@ class DocumentServiceTest {
     @Mock
     private RabbitMQService rabbitMQService;
 
+    @Mock
+    private DocumentAccessCache documentAccessCache;
+
+    @Mock
+    private SearchGateway searchGateway;
+
+    @Mock
+    private SimilarDocumentsService similarDocumentsService;
+
     @InjectMocks
     private DocumentService documentService;
 
@@ -39,6 +55,8 @@ class DocumentServiceTest {
     private DocumentEntity testEntity2;
     private DocumentDto testDto1;
     private DocumentDto testDto2;
+    private DocumentListItemDto testItem1;
+    private DocumentListItemDto testItem2;
     private LocalDateTime now;
 
     @BeforeEach
@@ -64,6 +82,10 @@ class DocumentServiceTest {
         // Create test DTOs
         testDto1 = new DocumentDto(1L, "Test Document 1", "Content 1", now, "testuser");
         testDto2 = new DocumentDto(2L, "Test Document 2", "Content 2", now, "testuser");
+
+        // Create slim list projections
+        testItem1 = new DocumentListItemDto(1L, "Test Document 1", now, null, "OK", null, null);
+        testItem2 = new DocumentListItemDto(2L, "Test Document 2", now, null, "PENDING", null, null);
     }
 
     @org.junit.jupiter.api.AfterEach
@@ -72,20 +94,42 @@ class DocumentServiceTest {
     }
 
     @Test
-    void getAllReturnsAllDocuments() {
+    void getPageReturnsNextCursorWhenMoreRowsExist() {
+        // Arrange: limit 1, repository returns limit + 1 rows
+        when(documentRepository.findVisiblePage(eq("testuser"), any(Pageable.class)))
+                .thenReturn(Arrays.asList(testItem2, testItem1));
+
+        // Act
+        CursorPage<DocumentListItemDto> page = documentService.getPage(1, null);
+
+        // Assert
+        assertEquals(1, page.items().size());
+        assertEquals(2L, page.items().get(0).getId());
+        assertNotNull(page.nextCursor());
+        KeysetCursor cursor = KeysetCursor.decode(page.nextCursor());
+        assertEquals(2L, cursor.id());
+        assertEquals(now, cursor.createdAt());
+    }
+
+    @Test
+    void getPageContinuesAfterCursor() {
         // Arrange
-        when(documentRepository.findAll()).thenReturn(Arrays.asList(testEntity1, testEntity2));
+        String cursor = new KeysetCursor(now, 2L).encode();
+        when(documentRepository.findVisiblePageAfter(eq("testuser"), eq(now), eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(testItem1));
 
         // Act
-        List<DocumentDto> result = documentService.getAll();
+        CursorPage<DocumentListItemDto> page = documentService.getPage(10, cursor);
 
         // Assert
-        assertEquals(2, result.size());
-        assertEquals(testDto1.getId(), result.get(0).getId());
-        assertEquals(testDto1.getTitle(), result.get(0).getTitle());
-        assertEquals(testDto2.getId(), result.get(1).getId());
-        assertEquals(testDto2.getTitle(), result.get(1).getTitle());
-        verify(documentRepository, times(1)).findAll();
+        assertEquals(1, page.items().size());
+        assertEquals(1L, page.items().get(0).getId());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void getPageRejectsMalformedCursor() {
+        assertThrows(DocumentException.class, () -> documentService.getPage(10, "not-a-cursor"));
     }
 
     @Test
@@ -140,6 +184,7 @@ class DocumentServiceTest {
 
         verify(documentRepository, times(1)).save(any(DocumentEntity.class));
         verify(rabbitMQService, times(1)).sendOcrRequest(any(OcrRequestDto.class));
+        verify(documentAccessCache).invalidate(3L);
     }
 
     @Test
@@ -155,14 +200,80 @@ class DocumentServiceTest {
     }
 
     @Test
-    void deleteCallsRepositoryDeleteById() {
+    void deleteMarksAccessibleDocumentsAndReportsTheRest() {
+        // Arrange
+        when(documentAccessCache.lookup(1L)).thenReturn(new DocumentAccess(true, "testuser"));
+        when(documentAccessCache.lookup(2L)).thenReturn(new DocumentAccess(true, null));
+        when(documentAccessCache.lookup(3L)).thenReturn(new DocumentAccess(true, "other"));
+        when(documentAccessCache.lookup(4L)).thenReturn(DocumentAccess.MISSING);
+        when(documentRepository.markDeleted(eq(List.of(1L, 2L)), any(LocalDateTime.class))).thenReturn(2);
+
+        // Act
+        DocumentDeleteResult result = documentService.delete(List.of(1L, 2L, 3L, 4L, 1L), "testuser");
+
+        // Assert
+        assertEquals(List.of(1L, 2L), result.deleted());
+        assertEquals(List.of(4L), result.notFound());
+        assertEquals(List.of(3L), result.forbidden());
+        verify(documentRepository, never()).deleteById(any());
+        verify(documentAccessCache).invalidate(1L);
+        verify(documentAccessCache).invalidate(2L);
+        verify(documentAccessCache, never()).invalidate(3L);
+        // Searches answered from the index must not find them until the cleanup runs
+        verify(searchGateway).delete(List.of(1L, 2L));
+        verify(similarDocumentsService).evict(List.of(1L, 2L));
+    }
+
+    @Test
+    void deleteSucceedsWhenTheIndexIsUnavailable() {
+        // Arrange
+        when(documentAccessCache.lookup(1L)).thenReturn(new DocumentAccess(true, "testuser"));
+        when(documentRepository.markDeleted(eq(List.of(1L)), any(LocalDateTime.class))).thenReturn(1);
+        doThrow(new RuntimeException("connection refused")).when(searchGateway).delete(List.of(1L));
+
+        // Act
+        DocumentDeleteResult result = documentService.delete(List.of(1L), "testuser");
+
+        // Assert: the cleanup removes the index entry later
+        assertEquals(List.of(1L), result.deleted());
+        verify(documentAccessCache).invalidate(1L);
+    }
+
+    @Test
+    void deleteDoesNotWriteWhenNothingIsDeletable() {
+        // Arrange
+        when(documentAccessCache.lookup(3L)).thenReturn(new DocumentAccess(true, "other"));
+
+        // Act
+        DocumentDeleteResult result = documentService.delete(List.of(3L), "testuser");
+
+        // Assert
+        assertTrue(result.deleted().isEmpty());
+        verify(documentRepository, never()).markDeleted(any(), any());
+        verifyNoInteractions(searchGateway);
+    }
+
+    @Test
+    void deleteRejectsTooManyIds() {
+        // Arrange
+        List<Long> ids = java.util.stream.LongStream.rangeClosed(1, DocumentService.MAX_DELETE_SIZE + 1).boxed().toList();
+
+        // Act & Assert
+        assertThrows(DocumentException.class, () -> documentService.delete(ids, "testuser"));
+        verifyNoInteractions(documentAccessCache);
+    }
+
+    @Test
+    void updateFilenameIssuesTargetedUpdateWithoutLoadingEntity() {
         // Arrange
-        doNothing().when(documentRepository).deleteById(1L);
+        when(documentRepository.updateFilename(eq(5L), eq("alice/file.pdf"), any(LocalDateTime.class))).thenReturn(1);
 
         // Act
-        documentService.delete(1L);
+        documentService.updateFilename(5L, "alice/file.pdf");
 
         // Assert
-        verify(documentRepository, times(1)).deleteById(1L);
+        verify(documentRepository, times(1)).updateFilename(eq(5L), eq("alice/file.pdf"), any(LocalDateTime.class));
+        verify(documentRepository, never()).findById(anyLong());
+        verify(documentRepository, never()).save(any(DocumentEntity.class));
     }
 }
@@ -2,9 +2,7 @@ package com.fhtw.shreddit.service;
 
 import com.fhtw.shreddit.api.dto.NoteDto;
 import com.fhtw.shreddit.exception.DocumentException;
-import com.fhtw.shreddit.model.DocumentEntity;
 import com.fhtw.shreddit.model.NoteEntity;
-import com.fhtw.shreddit.repository.DocumentRepository;
 import com.fhtw.shreddit.repository.NoteRepository;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,7 +15,6 @@ import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -30,13 +27,13 @@ class NoteServiceTest {
     @Mock
     private NoteRepository noteRepository;
     @Mock
-    private DocumentRepository documentRepository;
+    private DocumentAccessCache documentAccessCache;
 
     private NoteService noteService;
 
     @BeforeEach
     void setup() {
-        noteService = new NoteService(noteRepository, documentRepository);
+        noteService = new NoteService(noteRepository, documentAccessCache);
         SecurityContextHolder.clearContext();
         SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("alice", "pw"));
     }
@@ -48,10 +45,7 @@ class NoteServiceTest {
 
     @Test
     void listNotesReturnsNotesForOwner() {
-        DocumentEntity doc = new DocumentEntity();
-        doc.setId(1L);
-        doc.setUsername("alice");
-        when(documentRepository.findById(1L)).thenReturn(Optional.of(doc));
+        when(documentAccessCache.lookup(1L)).thenReturn(new DocumentAccess(true, "alice"));
 
         NoteEntity entity = new NoteEntity();
         entity.setId(5L);
@@ -70,10 +64,7 @@ class NoteServiceTest {
 
     @Test
     void addNoteThrowsWhenNotOwner() {
-        DocumentEntity doc = new DocumentEntity();
-        doc.setId(2L);
-        doc.setUsername("bob");
-        when(documentRepository.findById(anyLong())).thenReturn(Optional.of(doc));
+        when(documentAccessCache.lookup(anyLong())).thenReturn(new DocumentAccess(true, "bob"));
 
         assertThrows(DocumentException.class, () -> noteService.addNote(2L, "test"));
     }
@@ -9,8 +9,11 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
@@ -88,4 +91,45 @@ class RabbitMQServiceTest {
         // Verify rabbitTemplate was never called
         verify(rabbitTemplate, never()).convertAndSend(eq(queueName), any(OcrRequestDto.class));
     }
+
+    @Test
+    void sendOcrRequestsPublishesAllRequestsInOneOperation() {
+        // Arrange
+        OcrRequestDto second = new OcrRequestDto(2L, "second.pdf");
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation -> {
+            RabbitOperations.OperationsCallback<?> callback = invocation.getArgument(0);
+            return callback.doInRabbit(rabbitTemplate);
+        });
+
+        // Act
+        rabbitMQService.sendOcrRequests(List.of(ocrRequest, second));
+
+        // Assert
+        verify(rabbitTemplate, times(1)).invoke(any());
+        verify(rabbitTemplate).convertAndSend(queueName, ocrRequest);
+        verify(rabbitTemplate).convertAndSend(queueName, second);
+    }
+
+    @Test
+    void sendOcrRequestsWrapsAmqpException() {
+        // Arrange
+        AmqpException amqpException = new AmqpException("Test exception");
+        when(rabbitTemplate.invoke(any())).thenThrow(amqpException);
+
+        // Act & Assert
+        MessagePublishException exception = assertThrows(
+            MessagePublishException.class,
+            () -> rabbitMQService.sendOcrRequests(List.of(ocrRequest))
+        );
+        assertSame(amqpException, exception.getCause());
+    }
+
+    @Test
+    void sendOcrRequestsIgnoresEmptyList() {
+        // Act
+        rabbitMQService.sendOcrRequests(List.of());
+
+        // Assert
+        verifyNoInteractions(rabbitTemplate);
+    }
 }
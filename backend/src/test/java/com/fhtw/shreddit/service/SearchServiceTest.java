@@ -1,26 +1,48 @@
 package com.fhtw.shreddit.service;
 
 import com.fhtw.shreddit.api.dto.DocumentDto;
+import com.fhtw.shreddit.api.dto.FacetBucketDto;
+import com.fhtw.shreddit.api.dto.SearchResultDto;
+import com.fhtw.shreddit.api.dto.SearchSuggestionDto;
+import com.fhtw.shreddit.exception.DocumentException;
+import com.fhtw.shreddit.exception.SearchUnavailableException;
 import com.fhtw.shreddit.model.DocumentEntity;
 import com.fhtw.shreddit.repository.DocumentRepository;
 import com.fhtw.shreddit.search.IndexedDocument;
+import com.fhtw.shreddit.search.SearchCircuitBreaker;
+import com.fhtw.shreddit.search.SearchFacets;
 import com.fhtw.shreddit.search.SearchGateway;
 import com.fhtw.shreddit.search.SearchHit;
+import com.fhtw.shreddit.search.SearchPage;
+import com.fhtw.shreddit.search.SearchQuery;
+import com.fhtw.shreddit.search.SearchSort;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.InvalidDataAccessResourceUsageException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,7 +57,7 @@ class SearchServiceTest {
 
     @BeforeEach
     void setup() {
-        searchService = new SearchService(searchGateway, documentRepository);
+        searchService = new SearchService(circuitBreaker(), documentRepository, 50, false);
         SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("alice", "pw"));
     }
 
@@ -44,12 +66,45 @@ class SearchServiceTest {
         SecurityContextHolder.clearContext();
     }
 
+    @Test
+    void searchAnswersFromIndexSourceWithoutDatabase() {
+        IndexedDocument indexed = new IndexedDocument();
+        indexed.setTitle("Hello World");
+        indexed.setSummary("Greeting");
+        indexed.setSummaryStatus("OK");
+        indexed.setUsername("alice");
+        SearchHit hit = new SearchHit(1L, indexed, 1.0, Map.of("summary", List.of("<mark>Hello</mark> there")));
+        when(searchGateway.search(any(SearchQuery.class))).thenReturn(page(hit));
+
+        List<DocumentDto> results = searchService.search("hello", null, null, null, null, null, null).items();
+
+        assertEquals(1, results.size());
+        assertEquals(1L, results.get(0).getId());
+        assertEquals("Hello World", results.get(0).getTitle());
+        assertEquals("OK", results.get(0).getSummaryStatus());
+        assertEquals(List.of("<mark>Hello</mark> there"), results.get(0).getHighlights().get("summary"));
+        verifyNoInteractions(documentRepository);
+    }
+
+    @Test
+    void searchFromIndexSourceSkipsForeignDocuments() {
+        IndexedDocument indexed = new IndexedDocument();
+        indexed.setUsername("bob");
+        when(searchGateway.search(any(SearchQuery.class))).thenReturn(page(new SearchHit(2L, indexed, 1.0)));
+
+        List<DocumentDto> results = searchService.search("secret", null, null, null, null, null, null).items();
+
+        assertTrue(results.isEmpty());
+        verifyNoInteractions(documentRepository);
+    }
+
     @Test
     void searchReturnsMappedResultsForUser() {
+        searchService = new SearchService(circuitBreaker(), documentRepository, 50, true);
         IndexedDocument indexed = new IndexedDocument();
         indexed.setTitle("Hello World");
         SearchHit hit = new SearchHit(1L, indexed, 1.0);
-        when(searchGateway.search("hello")).thenReturn(List.of(hit));
+        when(searchGateway.search(any(SearchQuery.class))).thenReturn(page(hit));
 
         DocumentEntity entity = new DocumentEntity();
         entity.setId(1L);
@@ -59,7 +114,7 @@ class SearchServiceTest {
         entity.setCreatedAt(LocalDateTime.now());
         when(documentRepository.findAllById(anyCollection())).thenReturn(List.of(entity));
 
-        List<DocumentDto> results = searchService.search("hello");
+        List<DocumentDto> results = searchService.search("hello", null, null, null, null, null, null).items();
 
         assertEquals(1, results.size());
         assertEquals(entity.getId(), results.get(0).getId());
@@ -68,9 +123,10 @@ class SearchServiceTest {
 
     @Test
     void searchFiltersOutForeignDocuments() {
+        searchService = new SearchService(circuitBreaker(), documentRepository, 50, true);
         IndexedDocument indexed = new IndexedDocument();
         SearchHit hit = new SearchHit(2L, indexed, 1.0);
-        when(searchGateway.search("secret")).thenReturn(List.of(hit));
+        when(searchGateway.search(any(SearchQuery.class))).thenReturn(page(hit));
 
         DocumentEntity entity = new DocumentEntity();
         entity.setId(2L);
@@ -79,14 +135,14 @@ class SearchServiceTest {
         entity.setCreatedAt(LocalDateTime.now());
         when(documentRepository.findAllById(anyCollection())).thenReturn(List.of(entity));
 
-        List<DocumentDto> results = searchService.search("secret");
+        List<DocumentDto> results = searchService.search("secret", null, null, null, null, null, null).items();
 
         assertTrue(results.isEmpty());
     }
 
     @Test
-    void searchFallsBackToDatabaseWhenEsEmpty() {
-        when(searchGateway.search("offline")).thenReturn(List.of());
+    void searchFallsBackToDatabaseWhenIndexUnavailable() {
+        when(searchGateway.search(any(SearchQuery.class))).thenThrow(new SearchUnavailableException("connection refused"));
 
         DocumentEntity entity = new DocumentEntity();
         entity.setId(10L);
@@ -94,11 +150,165 @@ class SearchServiceTest {
         entity.setContent("Some content");
         entity.setUsername("alice");
         entity.setCreatedAt(LocalDateTime.now());
-        when(documentRepository.findAll()).thenReturn(List.of(entity));
+        when(documentRepository.searchFullText("offline", "%offline%", "alice", 25)).thenReturn(List.of(entity));
 
-        List<DocumentDto> results = searchService.search("offline");
+        SearchResultDto result = searchService.search("offline", null, null, null, null, null, null);
 
-        assertEquals(1, results.size());
-        assertEquals(entity.getId(), results.get(0).getId());
+        assertEquals(1, result.items().size());
+        assertEquals(entity.getId(), result.items().get(0).getId());
+        assertEquals(SearchResultDto.SERVED_BY_DATABASE, result.servedBy());
+        verify(documentRepository, never()).findAll();
+    }
+
+    @Test
+    void searchDoesNotFallBackWhenIndexHasNoMatches() {
+        when(searchGateway.search(any(SearchQuery.class))).thenReturn(page());
+
+        SearchResultDto result = searchService.search("nothing", null, null, null, null, null, null);
+
+        assertTrue(result.items().isEmpty());
+        assertEquals(SearchResultDto.SERVED_BY_INDEX, result.servedBy());
+        verifyNoInteractions(documentRepository);
+    }
+
+    @Test
+    void searchFailsWhenIndexAndDatabaseFallbackFail() {
+        when(searchGateway.search(any(SearchQuery.class))).thenThrow(new SearchUnavailableException("connection refused"));
+        when(documentRepository.searchFullText(anyString(), anyString(), anyString(), anyInt()))
+                .thenThrow(new InvalidDataAccessResourceUsageException("column search_vector does not exist"));
+
+        assertThrows(SearchUnavailableException.class,
+                () -> searchService.search("offline", null, null, null, null, null, null));
+    }
+
+    @Test
+    void searchDoesNotFallBackOnLaterPagesWhenIndexUnavailable() {
+        when(searchGateway.search(any(SearchQuery.class))).thenThrow(new SearchUnavailableException("connection refused"));
+
+        assertThrows(SearchUnavailableException.class,
+                () -> searchService.search("invoice", null, null, "prev", null, null, null));
+        verifyNoInteractions(documentRepository);
+    }
+
+    @Test
+    void searchPassesPagingToGatewayAndReturnsCursor() {
+        IndexedDocument indexed = new IndexedDocument();
+        indexed.setUsername("alice");
+        when(searchGateway.search(any(SearchQuery.class)))
+                .thenReturn(new SearchPage(List.of(new SearchHit(7L, indexed, 1.0)), 120, true, "next"));
+
+        SearchResultDto result = searchService.search("invoice", 500, "newest", "prev", null, null, null);
+
+        ArgumentCaptor<SearchQuery> captor = ArgumentCaptor.forClass(SearchQuery.class);
+        verify(searchGateway).search(captor.capture());
+        assertEquals(new SearchQuery("invoice", "alice", SearchService.MAX_PAGE_SIZE, SearchSort.NEWEST, "prev"),
+                captor.getValue());
+        assertEquals(1, result.items().size());
+        assertEquals(120, result.total());
+        assertEquals("next", result.nextCursor());
+    }
+
+    @Test
+    void searchDoesNotFallBackOnLaterPages() {
+        when(searchGateway.search(any(SearchQuery.class))).thenReturn(SearchPage.empty());
+
+        SearchResultDto result = searchService.search("invoice", null, null, "prev", null, null, null);
+
+        assertTrue(result.items().isEmpty());
+        assertNull(result.nextCursor());
+        verifyNoInteractions(documentRepository);
+    }
+
+    @Test
+    void searchPassesFiltersAndReturnsFacets() {
+        IndexedDocument indexed = new IndexedDocument();
+        indexed.setUsername("alice");
+        SearchFacets facets = new SearchFacets(List.of(new SearchFacets.Bucket("tax", 4)),
+                List.of(new SearchFacets.Bucket("2024-03", 2)));
+        when(searchGateway.search(any(SearchQuery.class)))
+                .thenReturn(new SearchPage(List.of(new SearchHit(7L, indexed, 1.0)), 4, true, null, facets));
+
+        SearchResultDto result = searchService.search("invoice", null, null, null,
+                List.of("tax, 2024", "tax"), "2024-01-01", "2024-12-31");
+
+        ArgumentCaptor<SearchQuery> captor = ArgumentCaptor.forClass(SearchQuery.class);
+        verify(searchGateway).search(captor.capture());
+        assertEquals(List.of("tax", "2024"), captor.getValue().tags());
+        assertEquals(LocalDate.of(2024, 1, 1), captor.getValue().dateFrom());
+        assertEquals(LocalDate.of(2024, 12, 31), captor.getValue().dateTo());
+        assertEquals(List.of(new FacetBucketDto("tax", 4)), result.facets().tags());
+        assertEquals(List.of(new FacetBucketDto("2024-03", 2)), result.facets().documentMonths());
+    }
+
+    @Test
+    void searchWithFiltersDoesNotFallBackToDatabase() {
+        when(searchGateway.search(any(SearchQuery.class))).thenReturn(SearchPage.empty());
+
+        SearchResultDto result = searchService.search("invoice", null, null, null, List.of("tax"), null, null);
+
+        assertTrue(result.items().isEmpty());
+        verifyNoInteractions(documentRepository);
+    }
+
+    @Test
+    void searchRejectsInvalidDateRange() {
+        assertThrows(DocumentException.class,
+                () -> searchService.search("invoice", null, null, null, null, "2024-02-01", "2024-01-01"));
+        assertThrows(DocumentException.class,
+                () -> searchService.search("invoice", null, null, null, null, "01.02.2024", null));
+        verifyNoInteractions(searchGateway);
+    }
+
+    @Test
+    void searchRejectsUnknownSort() {
+        assertThrows(DocumentException.class,
+                () -> searchService.search("invoice", null, "popular", null, null, null, null));
+        verifyNoInteractions(searchGateway);
+    }
+
+    @Test
+    void suggestReturnsIdsAndTitlesFromIndex() {
+        IndexedDocument indexed = new IndexedDocument();
+        indexed.setTitle("Invoice March");
+        when(searchGateway.suggest("inv", "alice", SearchService.DEFAULT_SUGGEST_SIZE))
+                .thenReturn(List.of(new SearchHit(3L, indexed, 2.0)));
+
+        List<SearchSuggestionDto> suggestions = searchService.suggest(" inv ", null);
+
+        assertEquals(List.of(new SearchSuggestionDto(3L, "Invoice March")), suggestions);
+        verifyNoInteractions(documentRepository);
+    }
+
+    @Test
+    void suggestReturnsNothingWhileIndexIsUnavailable() {
+        // Given
+        when(searchGateway.suggest("inv", "alice", SearchService.DEFAULT_SUGGEST_SIZE))
+                .thenThrow(new SearchUnavailableException("connection refused"));
+
+        // When
+        List<SearchSuggestionDto> suggestions = searchService.suggest("inv", null);
+
+        // Then: no error on a keystroke, and never a database query
+        assertTrue(suggestions.isEmpty());
+        verifyNoInteractions(documentRepository);
+    }
+
+    @Test
+    void suggestIgnoresBlankPrefix() {
+        assertTrue(searchService.suggest("  ", 5).isEmpty());
+        verifyNoInteractions(searchGateway);
+    }
+
+    @Test
+    void titlePatternEscapesLikeWildcards() {
+        assertEquals("%100\\%\\_done\\\\x%", SearchService.titlePattern(" 100%_done\\x "));
+    }
+
+    private SearchCircuitBreaker circuitBreaker() {
+        return new SearchCircuitBreaker(searchGateway, 5000, 100, 5, 30000);
+    }
+
+    private static SearchPage page(SearchHit... hits) {
+        return new SearchPage(List.of(hits), hits.length, true, null);
     }
 }
@@ -0,0 +1,173 @@
+package com.fhtw.shreddit.service;
+
+import com.fhtw.shreddit.api.dto.SimilarDocumentDto;
+import com.fhtw.shreddit.repository.DocumentOwnerView;
+import com.fhtw.shreddit.repository.DocumentRepository;
+import com.fhtw.shreddit.search.IndexedDocument;
+import com.fhtw.shreddit.search.SearchCircuitBreaker;
+import com.fhtw.shreddit.search.SearchGateway;
+import com.fhtw.shreddit.search.SearchHit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SimilarDocumentsServiceTest {
+
+    @Mock
+    private SearchGateway searchGateway;
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    private MutableClock clock;
+    private SimilarDocumentsService service;
+
+    @BeforeEach
+    void setup() {
+        clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+        DocumentAccessCache accessCache = new DocumentAccessCache(documentRepository, 100, 300, 5);
+        service = new SimilarDocumentsService(new SearchCircuitBreaker(searchGateway, 5000, 100, 5, 30000), accessCache, 10, Duration.ofMinutes(10), clock);
+    }
+
+    @Test
+    void findSimilarCachesUntilIndexVersionChanges() {
+        // Given
+        owner(1L, "alice");
+        when(searchGateway.indexVersion(1L, "alice")).thenReturn("documents_v1:3", "documents_v1:3", "documents_v1:4");
+        when(searchGateway.similar(1L, "alice", "alice", SimilarDocumentsService.MAX_SIZE)).thenReturn(List.of(hit(2L)));
+
+        // When
+        List<SimilarDocumentDto> first = service.findSimilar(1L, "alice", null).orElseThrow();
+        List<SimilarDocumentDto> cached = service.findSimilar(1L, "alice", null).orElseThrow();
+        service.findSimilar(1L, "alice", null);
+
+        // Then: the third call sees a new version and queries again
+        assertEquals(List.of(2L), first.stream().map(SimilarDocumentDto::id).toList());
+        assertEquals(first, cached);
+        verify(searchGateway, times(2)).similar(1L, "alice", "alice", SimilarDocumentsService.MAX_SIZE);
+        assertEquals(1L, service.stats().get("hits"));
+        assertEquals(2L, service.stats().get("misses"));
+    }
+
+    @Test
+    void findSimilarAnswersEveryLimitFromOneEntry() {
+        // Given
+        owner(1L, "alice");
+        when(searchGateway.indexVersion(1L, "alice")).thenReturn("documents_v1:1");
+        when(searchGateway.similar(1L, "alice", "alice", SimilarDocumentsService.MAX_SIZE))
+                .thenReturn(LongStream.rangeClosed(2, 9).mapToObj(SimilarDocumentsServiceTest::hit).toList());
+
+        // When
+        List<SimilarDocumentDto> three = service.findSimilar(1L, "alice", 3).orElseThrow();
+        List<SimilarDocumentDto> all = service.findSimilar(1L, "alice", 50).orElseThrow();
+
+        // Then
+        assertEquals(3, three.size());
+        assertEquals(8, all.size());
+        verify(searchGateway, times(1)).similar(anyLong(), anyString(), anyString(), anyInt());
+    }
+
+    @Test
+    void evictDropsEntriesListingADeletedDocument() {
+        // Given: the index version of document 1 does not change when its neighbour 2 is deleted
+        owner(1L, "alice");
+        owner(5L, "alice");
+        when(searchGateway.indexVersion(anyLong(), eq("alice"))).thenReturn("documents_v1:1");
+        when(searchGateway.similar(1L, "alice", "alice", SimilarDocumentsService.MAX_SIZE))
+                .thenReturn(List.of(hit(2L), hit(3L)), List.of(hit(3L)));
+        when(searchGateway.similar(5L, "alice", "alice", SimilarDocumentsService.MAX_SIZE)).thenReturn(List.of(hit(3L)));
+        service.findSimilar(1L, "alice", null);
+        service.findSimilar(5L, "alice", null);
+
+        // When
+        service.evict(List.of(2L));
+
+        // Then: only the entry naming document 2 is queried again
+        List<SimilarDocumentDto> after = service.findSimilar(1L, "alice", null).orElseThrow();
+        service.findSimilar(5L, "alice", null);
+        assertEquals(List.of(3L), after.stream().map(SimilarDocumentDto::id).toList());
+        verify(searchGateway, times(2)).similar(1L, "alice", "alice", SimilarDocumentsService.MAX_SIZE);
+        verify(searchGateway, times(1)).similar(5L, "alice", "alice", SimilarDocumentsService.MAX_SIZE);
+    }
+
+    @Test
+    void entriesExpireAfterTtl() {
+        // Given
+        owner(1L, "alice");
+        when(searchGateway.indexVersion(1L, "alice")).thenReturn("documents_v1:1");
+        when(searchGateway.similar(1L, "alice", "alice", SimilarDocumentsService.MAX_SIZE)).thenReturn(List.of(hit(2L)));
+
+        // When
+        service.findSimilar(1L, "alice", null);
+        clock.advance(Duration.ofMinutes(11));
+        service.findSimilar(1L, "alice", null);
+
+        // Then
+        verify(searchGateway, times(2)).similar(1L, "alice", "alice", SimilarDocumentsService.MAX_SIZE);
+    }
+
+    @Test
+    void findSimilarIsEmptyForForeignDocuments() {
+        // Given
+        owner(1L, "bob");
+
+        // When
+        Optional<List<SimilarDocumentDto>> result = service.findSimilar(1L, "alice", null);
+
+        // Then
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(searchGateway);
+    }
+
+    @Test
+    void findSimilarReturnsNothingWhileDocumentIsNotIndexed() {
+        // Given
+        owner(1L, null);
+        when(searchGateway.indexVersion(1L, null)).thenReturn(null);
+
+        // When
+        List<SimilarDocumentDto> result = service.findSimilar(1L, "alice", null).orElseThrow();
+
+        // Then
+        assertTrue(result.isEmpty());
+        verify(searchGateway, never()).similar(anyLong(), any(), anyString(), anyInt());
+    }
+
+    private void owner(Long id, String username) {
+        when(documentRepository.findOwnerById(id)).thenReturn(Optional.of(new DocumentOwnerView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getUsername() {
+                return username;
+            }
+        }));
+    }
+
+    private static SearchHit hit(long id) {
+        IndexedDocument document = new IndexedDocument();
+        document.setId(id);
+        document.setTitle("Document " + id);
+        return new SearchHit(id, document, 1.0);
+    }
+}
@@ -4,6 +4,8 @@ import io.minio.GetObjectArgs;
 import io.minio.MinioClient;
 import io.minio.PutObjectArgs;
 import io.minio.RemoveObjectArgs;
+import io.minio.RemoveObjectsArgs;
+import io.minio.Result;
 import io.minio.StatObjectArgs;
 import io.minio.StatObjectResponse;
 import org.junit.jupiter.api.BeforeEach;
@@ -19,6 +21,7 @@ import org.springframework.mock.web.MockMultipartFile;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -147,4 +150,30 @@ class StorageServiceTest {
         doThrow(new RuntimeException("boom")).when(minioClient).removeObject(any(RemoveObjectArgs.class));
         assertFalse(storageService.deleteObject("x.txt"));
     }
+
+    @Test
+    void deleteObjectsSendsOneMultiObjectDelete() {
+        when(minioClient.removeObjects(any(RemoveObjectsArgs.class))).thenReturn(List.of());
+
+        assertDoesNotThrow(() -> storageService.deleteObjects(List.of("a.pdf", "documents/1/ocr.txt")));
+
+        verify(minioClient, times(1)).removeObjects(any(RemoveObjectsArgs.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deleteObjectsThrowsWhenMinioFails() throws Exception {
+        Result<io.minio.messages.DeleteError> failed = mock(Result.class);
+        when(failed.get()).thenThrow(new RuntimeException("connection refused"));
+        when(minioClient.removeObjects(any(RemoveObjectsArgs.class))).thenReturn(List.of(failed));
+
+        assertThrows(RuntimeException.class, () -> storageService.deleteObjects(List.of("a.pdf")));
+    }
+
+    @Test
+    void deleteObjectsIgnoresEmptyList() {
+        storageService.deleteObjects(List.of());
+
+        verifyNoInteractions(minioClient);
+    }
 }
@@ -1,5 +1,6 @@
 package com.fhtw.genaiworker.config;
 
+import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.rabbit.annotation.EnableRabbit;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
@@ -20,6 +21,9 @@ public class RabbitConfig {
     @Value("${rabbitmq.queue.indexing}")
     private String indexingQueue;
 
+    @Value("${rabbitmq.exchange.status:document-status}")
+    private String statusExchange;
+
     @Bean
     public Queue genaiQueue() {
         return new Queue(genaiQueue, true);
@@ -30,6 +34,11 @@ public class RabbitConfig {
         return new Queue(indexingQueue, true);
     }
 
+    @Bean
+    public FanoutExchange documentStatusExchange() {
+        return new FanoutExchange(statusExchange, true, false);
+    }
+
     @Bean
     public MessageConverter jsonMessageConverter() {
         return new Jackson2JsonMessageConverter();
@@ -2,9 +2,9 @@ package com.fhtw.genaiworker.listener;
 
 import com.fhtw.genaiworker.dto.GenAiRequestDto;
 import com.fhtw.genaiworker.dto.IndexingRequestDto;
-import com.fhtw.genaiworker.model.DocumentEntity;
 import com.fhtw.genaiworker.repo.DocumentRepository;
 import com.fhtw.genaiworker.service.GeminiClient;
+import com.fhtw.genaiworker.service.StatusEventPublisher;
 import io.minio.GetObjectArgs;
 import io.minio.MinioClient;
 import io.minio.PutObjectArgs;
@@ -18,6 +18,7 @@ import org.springframework.stereotype.Component;
 
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 
 @Component
 public class GenAiListener {
@@ -27,6 +28,7 @@ public class GenAiListener {
     private final GeminiClient geminiClient;
     private final DocumentRepository documentRepository;
     private final RabbitTemplate rabbitTemplate;
+    private final StatusEventPublisher statusEventPublisher;
 
     @Value("${MINIO_BUCKET:documents}")
     private String bucket;
@@ -34,11 +36,13 @@ public class GenAiListener {
     @Value("${rabbitmq.queue.indexing}")
     private String indexingQueue;
 
-    public GenAiListener(MinioClient minioClient, GeminiClient geminiClient, DocumentRepository documentRepository, RabbitTemplate rabbitTemplate) {
+    public GenAiListener(MinioClient minioClient, GeminiClient geminiClient, DocumentRepository documentRepository,
+                         RabbitTemplate rabbitTemplate, StatusEventPublisher statusEventPublisher) {
         this.minioClient = minioClient;
         this.geminiClient = geminiClient;
         this.documentRepository = documentRepository;
         this.rabbitTemplate = rabbitTemplate;
+        this.statusEventPublisher = statusEventPublisher;
     }
 
     @RabbitListener(queues = "${rabbitmq.queue.genai}")
@@ -92,12 +96,10 @@ public class GenAiListener {
             );
             log.info("GENAI: summary stored in MinIO object='{}' for docId={}", summaryObject, docId);
 
-            DocumentEntity entity = documentRepository.findById(docId)
-                    .orElseThrow(() -> new IllegalStateException("Document not found: " + docId));
-            entity.setOcrText(ocrText);
-            entity.setSummary(summary);
-            entity.setSummaryStatus("OK");
-            documentRepository.save(entity);
+            if (documentRepository.updateResult(docId, ocrText, summary, "OK", LocalDateTime.now()) == 0) {
+                throw new IllegalStateException("Document not found: " + docId);
+            }
+            statusEventPublisher.publish(docId, "SUMMARY", "OK");
 
             // Also update Elasticsearch so search has the summary
             try {
@@ -119,12 +121,10 @@ public class GenAiListener {
     }
 
     private void markFailed(Long docId, String status, String summaryMessage) {
+        String effectiveStatus = status != null ? status : "FAILED";
         try {
-            documentRepository.findById(docId).ifPresent(entity -> {
-                entity.setSummary(summaryMessage);
-                entity.setSummaryStatus(status != null ? status : "FAILED");
-                documentRepository.save(entity);
-            });
+            documentRepository.updateSummaryStatus(docId, summaryMessage, effectiveStatus, LocalDateTime.now());
+            statusEventPublisher.publish(docId, "SUMMARY", effectiveStatus);
         } catch (Exception dbEx) {
             log.error("GENAI: failed to mark summary_status={} for docId={}", status, docId, dbEx);
         }
@@ -2,11 +2,15 @@ package com.fhtw.genaiworker.model;
 
 import jakarta.persistence.*;
 
+import java.time.LocalDateTime;
+
 @Entity
 @Table(name = "document_entity", schema = "public")
 public class DocumentEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Same sequence and allocation size as the backend mapping, which creates it; this worker never inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "document_entity_seq")
+    @SequenceGenerator(name = "document_entity_seq", sequenceName = "document_entity_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "summary", columnDefinition = "TEXT")
@@ -18,6 +22,17 @@ public class DocumentEntity {
     @Column(name = "ocr_text", columnDefinition = "TEXT")
     private String ocrText;
 
+    // Shared row version; bumping it invalidates the backend's ETags for this document
+    @Version
+    @Column(name = "version")
+    private Long version;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PreUpdate
+    void onUpdate() { updatedAt = LocalDateTime.now(); }
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
     public String getSummary() { return summary; }
@@ -26,4 +41,8 @@ public class DocumentEntity {
     public void setSummaryStatus(String summaryStatus) { this.summaryStatus = summaryStatus; }
     public String getOcrText() { return ocrText; }
     public void setOcrText(String ocrText) { this.ocrText = ocrText; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
 }
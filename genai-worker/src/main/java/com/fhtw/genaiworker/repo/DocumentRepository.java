@@ -2,6 +2,44 @@ package com.fhtw.genaiworker.repo;
 
 import com.fhtw.genaiworker.model.DocumentEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
 
 public interface DocumentRepository extends JpaRepository<DocumentEntity, Long> {
+
+    /**
+     * Stores the result of a finished GenAI job in one UPDATE, without reading the row first.
+     * Bumps the shared row version so the backend's ETags change.
+     *
+     * @return number of updated rows (0 if the document does not exist)
+     */
+    @Modifying
+    @Transactional
+    @Query("update DocumentEntity d set d.ocrText = :ocrText, d.summary = :summary, d.summaryStatus = :status, " +
+            "d.version = coalesce(d.version, 0) + 1, d.updatedAt = :updatedAt " +
+            "where d.id = :id")
+    int updateResult(@Param("id") Long id,
+                     @Param("ocrText") String ocrText,
+                     @Param("summary") String summary,
+                     @Param("status") String status,
+                     @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Sets summary and summary_status only; ocr_text and all other columns are left untouched.
+     *
+     * @return number of updated rows (0 if the document does not exist)
+     */
+    @Modifying
+    @Transactional
+    @Query("update DocumentEntity d set d.summary = :summary, d.summaryStatus = :status, " +
+            "d.version = coalesce(d.version, 0) + 1, d.updatedAt = :updatedAt " +
+            "where d.id = :id")
+    int updateSummaryStatus(@Param("id") Long id,
+                            @Param("summary") String summary,
+                            @Param("status") String status,
+                            @Param("updatedAt") LocalDateTime updatedAt);
 }
@@ -0,0 +1,39 @@
+package com.fhtw.genaiworker.service;
+
+import com.fhtw.genaiworker.dto.DocumentStatusEventDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes document status changes to the fanout exchange the backend relays to clients over SSE.
+ * Best effort: a lost event only means the client picks up the change on its next refresh.
+ */
+@Component
+public class StatusEventPublisher {
+    private static final Logger log = LoggerFactory.getLogger(StatusEventPublisher.class);
+
+    private final RabbitTemplate rabbitTemplate;
+    private final String exchange;
+
+    public StatusEventPublisher(RabbitTemplate rabbitTemplate,
+                                @Value("${rabbitmq.exchange.status:document-status}") String exchange) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.exchange = exchange;
+    }
+
+    public void publish(Long documentId, String stage, String status) {
+        if (documentId == null) {
+            return;
+        }
+        DocumentStatusEventDto event = new DocumentStatusEventDto(documentId, stage, status, System.currentTimeMillis());
+        try {
+            rabbitTemplate.convertAndSend(exchange, "", event);
+            log.debug("Published status event {}", event);
+        } catch (Exception e) {
+            log.warn("Failed to publish status event {}: {}", event, e.getMessage());
+        }
+    }
+}
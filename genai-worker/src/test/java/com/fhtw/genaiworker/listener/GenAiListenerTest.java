@@ -4,9 +4,11 @@ import com.fhtw.genaiworker.dto.GenAiRequestDto;
 import com.fhtw.genaiworker.model.DocumentEntity;
 import com.fhtw.genaiworker.repo.DocumentRepository;
 import com.fhtw.genaiworker.service.GeminiClient;
+import com.fhtw.genaiworker.service.StatusEventPublisher;
 import io.minio.GetObjectArgs;
 import io.minio.GetObjectResponse;
 import io.minio.MinioClient;
+import okhttp3.Headers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -20,10 +22,10 @@ import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
-import java.util.Optional;
+import java.time.LocalDateTime;
 
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -38,12 +40,14 @@ class GenAiListenerTest {
     private DocumentRepository documentRepository;
     @Mock
     private RabbitTemplate rabbitTemplate;
+    @Mock
+    private StatusEventPublisher statusEventPublisher;
 
     private GenAiListener listener;
 
     @BeforeEach
     void setup() {
-        listener = new GenAiListener(minioClient, geminiClient, documentRepository, rabbitTemplate);
+        listener = new GenAiListener(minioClient, geminiClient, documentRepository, rabbitTemplate, statusEventPublisher);
         ReflectionTestUtils.setField(listener, "bucket", "documents");
         ReflectionTestUtils.setField(listener, "indexingQueue", "indexing-queue");
     }
@@ -52,50 +56,57 @@ class GenAiListenerTest {
     void handleGenaiRequestPublishesIndexingJob() throws Exception {
         GenAiRequestDto request = new GenAiRequestDto(1L, "documents/1/ocr.txt");
 
-        ByteArrayInputStream ocrStream = new ByteArrayInputStream("sample ocr".getBytes(StandardCharsets.UTF_8));
-        GetObjectResponse response = mock(GetObjectResponse.class);
-        when(response.read()).thenAnswer(invocation -> ocrStream.read());
-        when(response.read(any(byte[].class))).thenAnswer(invocation -> ocrStream.read(invocation.getArgument(0)));
-        when(response.read(any(byte[].class), anyInt(), anyInt()))
-                .thenAnswer(invocation -> ocrStream.read(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2)));
-        when(minioClient.getObject(any(GetObjectArgs.class))).thenReturn(response);
+        when(minioClient.getObject(any(GetObjectArgs.class))).thenReturn(ocrObject("sample ocr"));
 
         when(geminiClient.summarizeGerman("sample ocr")).thenReturn("summary text");
 
-        DocumentEntity entity = new DocumentEntity();
-        entity.setId(1L);
-        when(documentRepository.findById(1L)).thenReturn(Optional.of(entity));
+        when(documentRepository.updateResult(eq(1L), eq("sample ocr"), eq("summary text"), eq("OK"), any(LocalDateTime.class)))
+                .thenReturn(1);
 
         listener.handleGenaiRequest(request);
 
-        verify(documentRepository).save(any(DocumentEntity.class));
+        verify(documentRepository).updateResult(eq(1L), eq("sample ocr"), eq("summary text"), eq("OK"), any(LocalDateTime.class));
+        verify(documentRepository, never()).findById(anyLong());
+        verify(documentRepository, never()).save(any(DocumentEntity.class));
         verify(rabbitTemplate).convertAndSend(eq("indexing-queue"), any(Object.class));
+        verify(statusEventPublisher).publish(1L, "SUMMARY", "OK");
     }
 
     @Test
     void handleQuotaFailureMarksFailedQuota() throws Exception {
         GenAiRequestDto request = new GenAiRequestDto(2L, "documents/2/ocr.txt");
 
-        ByteArrayInputStream ocrStream = new ByteArrayInputStream("sample ocr".getBytes(StandardCharsets.UTF_8));
-        GetObjectResponse response = mock(GetObjectResponse.class);
-        when(response.read()).thenAnswer(invocation -> ocrStream.read());
-        when(response.read(any(byte[].class))).thenAnswer(invocation -> ocrStream.read(invocation.getArgument(0)));
-        when(response.read(any(byte[].class), anyInt(), anyInt()))
-                .thenAnswer(invocation -> ocrStream.read(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2)));
-        when(minioClient.getObject(any(GetObjectArgs.class))).thenReturn(response);
+        when(minioClient.getObject(any(GetObjectArgs.class))).thenReturn(ocrObject("sample ocr"));
 
         when(geminiClient.summarizeGerman("sample ocr"))
                 .thenThrow(HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", HttpHeaders.EMPTY, null, null));
 
-        DocumentEntity entity = new DocumentEntity();
-        entity.setId(2L);
-        when(documentRepository.findById(2L)).thenReturn(Optional.of(entity));
+        listener.handleGenaiRequest(request);
+
+        verify(documentRepository).updateSummaryStatus(eq(2L), eq("Gemini quota exceeded; try again later"),
+                eq("FAILED_QUOTA"), any(LocalDateTime.class));
+        verify(statusEventPublisher).publish(2L, "SUMMARY", "FAILED_QUOTA");
+        verify(documentRepository, never()).findById(anyLong());
+        verify(documentRepository, never()).save(any(DocumentEntity.class));
+    }
+
+    @Test
+    void missingDocumentMarksFailedWithoutPublishingIndexJob() throws Exception {
+        GenAiRequestDto request = new GenAiRequestDto(3L, "documents/3/ocr.txt");
+
+        when(minioClient.getObject(any(GetObjectArgs.class))).thenReturn(ocrObject("sample ocr"));
+        when(geminiClient.summarizeGerman("sample ocr")).thenReturn("summary text");
+        when(documentRepository.updateResult(eq(3L), any(), any(), any(), any(LocalDateTime.class))).thenReturn(0);
 
         listener.handleGenaiRequest(request);
 
-        verify(documentRepository, atLeastOnce()).save(argThat(saved ->
-                "FAILED_QUOTA".equals(saved.getSummaryStatus())
-                        && "Gemini quota exceeded; try again later".equals(saved.getSummary())
-        ));
+        verify(documentRepository).updateSummaryStatus(eq(3L), isNull(), eq("FAILED"), any(LocalDateTime.class));
+        verify(rabbitTemplate, never()).convertAndSend(eq("indexing-queue"), any(Object.class));
+    }
+
+    // A real response over a byte stream: a mocked one has no working readAllBytes
+    private static GetObjectResponse ocrObject(String text) {
+        return new GetObjectResponse(Headers.of(), "documents", null, "documents/ocr.txt",
+                new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
     }
 }
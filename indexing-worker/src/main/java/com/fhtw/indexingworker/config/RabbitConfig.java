@@ -1,5 +1,6 @@
 package com.fhtw.indexingworker.config;
 
+import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.rabbit.annotation.EnableRabbit;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
@@ -17,11 +18,19 @@ public class RabbitConfig {
     @Value("${rabbitmq.queue.indexing}")
     private String indexingQueue;
 
+    @Value("${rabbitmq.exchange.status:document-status}")
+    private String statusExchange;
+
     @Bean
     public Queue indexingQueue() {
         return new Queue(indexingQueue, true);
     }
 
+    @Bean
+    public FanoutExchange documentStatusExchange() {
+        return new FanoutExchange(statusExchange, true, false);
+    }
+
     @Bean
     public MessageConverter messageConverter() {
         return new Jackson2JsonMessageConverter();
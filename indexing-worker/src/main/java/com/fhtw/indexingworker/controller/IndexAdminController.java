@@ -0,0 +1,72 @@
+package com.fhtw.indexingworker.controller;
+
+import com.fhtw.indexingworker.dto.RebuildStatusDto;
+import com.fhtw.indexingworker.dto.ReindexStatusDto;
+import com.fhtw.indexingworker.service.IndexMigrationService;
+import com.fhtw.indexingworker.service.IndexRebuildService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Index maintenance. The port is only published on the host, not through the frontend proxy.
+ */
+@RestController
+@RequestMapping("/admin/index")
+public class IndexAdminController {
+    private static final Logger log = LoggerFactory.getLogger(IndexAdminController.class);
+
+    private final IndexMigrationService migrationService;
+    private final IndexRebuildService rebuildService;
+
+    public IndexAdminController(IndexMigrationService migrationService, IndexRebuildService rebuildService) {
+        this.migrationService = migrationService;
+        this.rebuildService = rebuildService;
+    }
+
+    @PostMapping("/reindex")
+    public ResponseEntity<?> reindex() {
+        log.info("POST /admin/index/reindex");
+        try {
+            return ResponseEntity.accepted().body(migrationService.startReindex());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Failed to start reindex", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/reindex")
+    public ReindexStatusDto status() {
+        return migrationService.status();
+    }
+
+    /**
+     * Re-sends every document from the database to the index; progress via {@code GET /admin/index/rebuild}.
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<?> rebuild() {
+        log.info("POST /admin/index/rebuild");
+        try {
+            return ResponseEntity.accepted().body(rebuildService.startRebuild());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Failed to start rebuild", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/rebuild")
+    public RebuildStatusDto rebuildStatus() {
+        return rebuildService.status();
+    }
+}
@@ -0,0 +1,18 @@
+package com.fhtw.indexingworker.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+/**
+ * Progress of the most recent full index rebuild from the database.
+ *
+ * @param total         documents in the database when the rebuild started
+ * @param indexed       documents acknowledged by Elasticsearch so far
+ * @param failed        documents Elasticsearch rejected
+ * @param docsPerSecond indexing throughput since the start
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record RebuildStatusDto(ReindexStatusDto.State state, long total, long indexed, long failed,
+                               double docsPerSecond, Instant startedAt, Instant finishedAt, String error) {
+}
@@ -0,0 +1,36 @@
+package com.fhtw.indexingworker.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+/**
+ * State of the most recent index migration.
+ *
+ * @param total   documents to copy, as reported by Elasticsearch; 0 until known
+ * @param created documents copied so far
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ReindexStatusDto(State state, String sourceIndex, String targetIndex, long total, long created,
+                               Instant startedAt, Instant finishedAt, String error) {
+
+    public enum State {
+        IDLE, RUNNING, DONE, FAILED
+    }
+
+    public static ReindexStatusDto idle() {
+        return new ReindexStatusDto(State.IDLE, null, null, 0, 0, null, null, null);
+    }
+
+    public ReindexStatusDto progress(long total, long created) {
+        return new ReindexStatusDto(state, sourceIndex, targetIndex, total, created, startedAt, finishedAt, error);
+    }
+
+    public ReindexStatusDto done() {
+        return new ReindexStatusDto(State.DONE, sourceIndex, targetIndex, total, created, startedAt, Instant.now(), null);
+    }
+
+    public ReindexStatusDto failed(String error) {
+        return new ReindexStatusDto(State.FAILED, sourceIndex, targetIndex, total, created, startedAt, Instant.now(), error);
+    }
+}
@@ -2,6 +2,7 @@ package com.fhtw.indexingworker.listener;
 
 import com.fhtw.indexingworker.dto.IndexingRequestDto;
 import com.fhtw.indexingworker.service.IndexingService;
+import com.fhtw.indexingworker.service.StatusEventPublisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
@@ -13,9 +14,11 @@ public class IndexingListener {
     private static final Logger log = LoggerFactory.getLogger(IndexingListener.class);
 
     private final IndexingService indexingService;
+    private final StatusEventPublisher statusEventPublisher;
 
-    public IndexingListener(IndexingService indexingService) {
+    public IndexingListener(IndexingService indexingService, StatusEventPublisher statusEventPublisher) {
         this.indexingService = indexingService;
+        this.statusEventPublisher = statusEventPublisher;
     }
 
     @RabbitListener(queues = "${rabbitmq.queue.indexing}")
@@ -25,9 +28,12 @@ public class IndexingListener {
             return;
         }
         try {
-            indexingService.indexDocument(requestDto);
+            if (indexingService.indexDocument(requestDto)) {
+                statusEventPublisher.publish(requestDto.getDocumentId(), "INDEXING", "INDEXED");
+            }
         } catch (Exception e) {
             log.error("INDEX: failed to handle indexing request {}", requestDto, e);
+            statusEventPublisher.publish(requestDto.getDocumentId(), "INDEXING", "FAILED");
         }
     }
 }
@@ -5,15 +5,22 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.SQLRestriction;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "document_entity", schema = "public")
+// Documents deleted in the backend must not be (re-)indexed while they wait for cleanup
+@SQLRestriction("deleted_at is null")
 public class DocumentEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Same sequence and allocation size as the backend mapping, which creates it; this worker never inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "document_entity_seq")
+    @SequenceGenerator(name = "document_entity_seq", sequenceName = "document_entity_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "title")
@@ -37,6 +44,13 @@ public class DocumentEntity {
     @Column(name = "ocr_text", columnDefinition = "TEXT")
     private String ocrText;
 
+    @Column(name = "document_date")
+    private LocalDate documentDate;
+
+    // Comma-separated, as written by the backend
+    @Column(name = "tags", columnDefinition = "TEXT")
+    private String tags;
+
     public Long getId() {
         return id;
     }
@@ -100,4 +114,20 @@ public class DocumentEntity {
     public void setOcrText(String ocrText) {
         this.ocrText = ocrText;
     }
+
+    public LocalDate getDocumentDate() {
+        return documentDate;
+    }
+
+    public void setDocumentDate(LocalDate documentDate) {
+        this.documentDate = documentDate;
+    }
+
+    public String getTags() {
+        return tags;
+    }
+
+    public void setTags(String tags) {
+        this.tags = tags;
+    }
 }
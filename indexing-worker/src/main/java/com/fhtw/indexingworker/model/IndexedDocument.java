@@ -1,15 +1,22 @@
 package com.fhtw.indexingworker.model;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 
 public class IndexedDocument {
     private Long id;
     private String title;
     private String content;
     private String summary;
+    private String summaryStatus;
     private String ocrText;
     private String username;
     private LocalDateTime createdAt;
+    private LocalDate documentDate;
+    private List<String> tags;
+    // Accesses within the popularity window (see DocumentPopularityService)
+    private Long recentAccessCount;
 
     public IndexedDocument() {
     }
@@ -56,6 +63,14 @@ public class IndexedDocument {
         this.summary = summary;
     }
 
+    public String getSummaryStatus() {
+        return summaryStatus;
+    }
+
+    public void setSummaryStatus(String summaryStatus) {
+        this.summaryStatus = summaryStatus;
+    }
+
     public String getOcrText() {
         return ocrText;
     }
@@ -79,4 +94,28 @@ public class IndexedDocument {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    public LocalDate getDocumentDate() {
+        return documentDate;
+    }
+
+    public void setDocumentDate(LocalDate documentDate) {
+        this.documentDate = documentDate;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<String> tags) {
+        this.tags = tags;
+    }
+
+    public Long getRecentAccessCount() {
+        return recentAccessCount;
+    }
+
+    public void setRecentAccessCount(Long recentAccessCount) {
+        this.recentAccessCount = recentAccessCount;
+    }
 }
@@ -0,0 +1,15 @@
+package com.fhtw.indexingworker.repo;
+
+/**
+ * Number of accesses of one document within a date window, summed from {@code document_access_daily}.
+ */
+public interface DocumentAccessCount {
+    Long getDocumentId();
+
+    Long getAccessCount();
+
+    /**
+     * Owner of the document, null for legacy documents without one.
+     */
+    String getUsername();
+}
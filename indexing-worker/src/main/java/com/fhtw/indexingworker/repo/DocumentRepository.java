@@ -1,7 +1,57 @@
 package com.fhtw.indexingworker.repo;
 
 import com.fhtw.indexingworker.model.DocumentEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface DocumentRepository extends JpaRepository<DocumentEntity, Long> {
+
+    /**
+     * Streams all documents in id order. Rows are pulled from the JDBC cursor in chunks of the fetch size;
+     * must be consumed inside a read-only transaction and closed afterwards.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select d from DocumentEntity d order by d.id")
+    Stream<DocumentEntity> streamAllOrderById();
+
+    /**
+     * Accesses since {@code from} (inclusive) of every live document that was accessed at all in that window.
+     * One grouped scan over the (document_id, access_date) index; written by the access-log worker.
+     */
+    @Query(value = "select a.document_id as documentId, cast(sum(a.access_count) as bigint) as accessCount, " +
+            "d.username as username " +
+            "from public.document_access_daily a join public.document_entity d on d.id = a.document_id " +
+            "where a.access_date >= :from and d.deleted_at is null " +
+            "group by a.document_id, d.username",
+            nativeQuery = true)
+    List<DocumentAccessCount> sumAccessCountsSince(@Param("from") LocalDate from);
+
+    /**
+     * Accesses since {@code from} (inclusive) of the given documents; documents without accesses are left out.
+     */
+    @Query(value = "select a.document_id as documentId, cast(sum(a.access_count) as bigint) as accessCount, " +
+            "d.username as username " +
+            "from public.document_access_daily a join public.document_entity d on d.id = a.document_id " +
+            "where a.document_id in (:ids) and a.access_date >= :from " +
+            "group by a.document_id, d.username",
+            nativeQuery = true)
+    List<DocumentAccessCount> sumAccessCountsSince(@Param("ids") Collection<Long> ids, @Param("from") LocalDate from);
+
+    /**
+     * Rows the access-log worker has written for one day so far (one per accessed document).
+     */
+    @Query(value = "select count(*) from public.document_access_daily where access_date = :day", nativeQuery = true)
+    long countAccessDays(@Param("day") LocalDate day);
 }
@@ -0,0 +1,312 @@
+package com.fhtw.indexingworker.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.mapping.DynamicMapping;
+import co.elastic.clients.elasticsearch._types.mapping.TermVectorOption;
+import co.elastic.clients.elasticsearch._types.mapping.TypeMapping;
+import co.elastic.clients.elasticsearch.indices.IndexSettings;
+import co.elastic.clients.elasticsearch.indices.get_mapping.IndexMappingRecord;
+import co.elastic.clients.json.JsonData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Layout of the documents index. Searches and writes go through an alias ({@code elasticsearch.index});
+ * the data lives in a physical index {@code <alias>_v<N>} created from an index template that holds the
+ * mapping and analysis settings. Mapping changes are rolled out by reindexing into the next version and
+ * swapping the alias (see {@link IndexMigrationService}), so searches never see a missing index.
+ * <p>
+ * Documents are routed by owner ({@link #routing}), so all documents of a user live on one shard and a search
+ * only has to ask that shard and the one holding the shared legacy documents. Changing the shard count takes a
+ * reindex as well; it only applies to indices created from the template afterwards.
+ */
+@Component
+public class DocumentIndexSchema {
+    private static final Logger log = LoggerFactory.getLogger(DocumentIndexSchema.class);
+
+    /**
+     * Bump whenever {@link #mappings} or {@link #settings} change. Stored in the mapping {@code _meta},
+     * so an index created from an older template is recognized and can be reindexed.
+     */
+    public static final int SCHEMA_VERSION = 4;
+
+    /**
+     * Routing key of legacy documents without owner, which every user can see. Has to match the backend's
+     * search routing (checked by its SharedRouteTest); the backend refuses it as a username.
+     */
+    public static final String SHARED_ROUTE = "_shared";
+
+    static final String TEXT_ANALYZER = "text_de";
+
+    private final ElasticsearchClient client;
+    private final String alias;
+    private final String replicas;
+    private final int shards;
+    private final boolean ocrTermVectors;
+    private final long targetCheckNanos;
+
+    private volatile boolean ready;
+    // Last answer of writeIndices(); the migration target is looked up in the cluster at most once per interval
+    private volatile List<String> writeIndices;
+    private volatile long writeIndicesCheckedAt;
+
+    public DocumentIndexSchema(ElasticsearchClient client,
+                               @Value("${elasticsearch.index:documents}") String alias,
+                               @Value("${elasticsearch.index.replicas:1}") String replicas,
+                               @Value("${elasticsearch.index.shards:1}") int shards,
+                               @Value("${elasticsearch.index.ocr-term-vectors:true}") boolean ocrTermVectors,
+                               @Value("${elasticsearch.reindex.target-check-ms:5000}") long targetCheckMs) {
+        this.client = client;
+        this.alias = alias;
+        this.replicas = replicas;
+        this.shards = shards;
+        this.ocrTermVectors = ocrTermVectors;
+        this.targetCheckNanos = TimeUnit.MILLISECONDS.toNanos(targetCheckMs);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        try {
+            ensureIndex();
+        } catch (Exception e) {
+            // Elasticsearch may still be starting; the first indexing request retries
+            log.warn("INDEX: could not prepare index {} on startup: {}", alias, e.getMessage());
+        }
+    }
+
+    /**
+     * Installs the index template and makes sure the alias points at an index, creating the first
+     * version if nothing exists yet. Cheap after the first successful call.
+     */
+    public void ensureIndex() throws IOException {
+        if (ready) {
+            return;
+        }
+        synchronized (this) {
+            if (ready) {
+                return;
+            }
+            putTemplate();
+            Optional<String> current = currentIndex();
+            if (current.isEmpty()) {
+                createFirstVersion();
+            } else if (current.get().equals(alias)) {
+                log.warn("INDEX: {} is a plain index from before versioned indices; "
+                        + "run a reindex to move it behind an alias", alias);
+            } else if (schemaVersionOf(current.get()) < SCHEMA_VERSION) {
+                log.warn("INDEX: {} was created with schema version {} (current {}); run a reindex to apply the mapping",
+                        current.get(), schemaVersionOf(current.get()), SCHEMA_VERSION);
+            }
+            ready = true;
+        }
+    }
+
+    public String alias() {
+        return alias;
+    }
+
+    String replicas() {
+        return replicas;
+    }
+
+    /**
+     * Routing key of a document: its owner, or {@link #SHARED_ROUTE} for documents without one.
+     */
+    public static String routing(String username) {
+        return username != null && !username.isBlank() ? username : SHARED_ROUTE;
+    }
+
+    /**
+     * Indices every document write has to go to: the alias and, during a reindex, the new index. The target is
+     * read from the cluster, so every worker instance dual-writes, not only the one running the migration; the
+     * answer may be up to {@link #targetCheckMillis()} old.
+     */
+    public List<String> writeIndices() {
+        List<String> cached = writeIndices;
+        long now = System.nanoTime();
+        if (cached != null && now - writeIndicesCheckedAt < targetCheckNanos) {
+            return cached;
+        }
+        try {
+            List<String> current = migrationTarget().map(target -> List.of(alias, target)).orElse(List.of(alias));
+            writeIndicesCheckedAt = now;
+            writeIndices = current;
+            return current;
+        } catch (Exception e) {
+            log.warn("INDEX: could not look up a running reindex: {}", e.getMessage());
+            return cached != null ? cached : List.of(alias);
+        }
+    }
+
+    /**
+     * Forgets the cached {@link #writeIndices()}, e.g. after this instance started or finished a migration.
+     */
+    void refreshWriteIndices() {
+        writeIndices = null;
+    }
+
+    long targetCheckMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(targetCheckNanos);
+    }
+
+    /**
+     * Alias marking the index a running migration copies into. It is set when the target is created and removed
+     * at the swap (or when the migration fails), so it names the target exactly while writes have to reach it.
+     */
+    String migrationAlias() {
+        return alias + "-reindex-target";
+    }
+
+    /**
+     * The index a migration currently copies into, if any.
+     */
+    Optional<String> migrationTarget() throws IOException {
+        String marker = migrationAlias();
+        if (!client.indices().existsAlias(e -> e.name(marker)).value()) {
+            return Optional.empty();
+        }
+        return client.indices().getAlias(g -> g.name(marker)).result().keySet().stream().findFirst();
+    }
+
+    /**
+     * Alias marking the index a rebuild ({@link IndexRebuildService}) is writing into. A migration refuses to
+     * start while it exists: its copy would miss whatever the rebuild writes after the snapshot.
+     */
+    String rebuildAlias() {
+        return alias + "-rebuild";
+    }
+
+    boolean rebuildRunning() throws IOException {
+        String marker = rebuildAlias();
+        return client.indices().existsAlias(e -> e.name(marker)).value();
+    }
+
+    String physicalIndex(int version) {
+        return alias + "_v" + version;
+    }
+
+    /**
+     * Version number of a physical index name, 0 for the unversioned legacy index.
+     */
+    int versionOf(String index) {
+        String prefix = alias + "_v";
+        if (index.startsWith(prefix)) {
+            try {
+                return Integer.parseInt(index.substring(prefix.length()));
+            } catch (NumberFormatException ignored) {
+                // not one of ours
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * The physical index behind the alias, the alias name itself for a legacy unversioned index,
+     * or empty if there is neither.
+     */
+    Optional<String> currentIndex() throws IOException {
+        if (client.indices().existsAlias(e -> e.name(alias)).value()) {
+            return client.indices().getAlias(g -> g.name(alias)).result().keySet().stream().findFirst();
+        }
+        if (client.indices().exists(e -> e.index(alias)).value()) {
+            return Optional.of(alias);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Whether writes and gets on the index need a routing; false for indices from before owner routing.
+     */
+    boolean routingRequired(String index) throws IOException {
+        IndexMappingRecord record = client.indices().getMapping(g -> g.index(index)).get(index);
+        return record != null && record.mappings() != null && record.mappings().routing() != null
+                && record.mappings().routing().required();
+    }
+
+    int schemaVersionOf(String index) throws IOException {
+        IndexMappingRecord record = client.indices().getMapping(g -> g.index(index)).get(index);
+        if (record == null || record.mappings() == null) {
+            return 0;
+        }
+        JsonData version = record.mappings().meta().get("schemaVersion");
+        return version != null ? version.to(Integer.class) : 0;
+    }
+
+    private void putTemplate() throws IOException {
+        client.indices().putIndexTemplate(t -> t
+                .name(alias + "-template")
+                .indexPatterns(alias + "_v*")
+                .priority(100L)
+                .template(tm -> tm
+                        .settings(s -> settings(s))
+                        .mappings(m -> mappings(m))));
+    }
+
+    private void createFirstVersion() throws IOException {
+        String index = physicalIndex(1);
+        try {
+            client.indices().create(c -> c
+                    .index(index)
+                    .aliases(alias, a -> a.isWriteIndex(true)));
+            log.info("INDEX: created {} behind alias {}", index, alias);
+        } catch (ElasticsearchException e) {
+            // Another worker instance created it in the meantime
+            if (!"resource_already_exists_exception".equals(e.error().type())) {
+                throw e;
+            }
+        }
+    }
+
+    IndexSettings.Builder settings(IndexSettings.Builder s) {
+        return s
+                .numberOfShards(String.valueOf(shards))
+                .numberOfReplicas(replicas)
+                // Stored fields (mostly the OCR text in _source) dominate the index size
+                .codec("best_compression")
+                .analysis(a -> a
+                        .filter("german_light_stemmer", f -> f.definition(d -> d.stemmer(st -> st.language("light_german"))))
+                        // Umlaut folding and light stemming; no stop words, titles are often short
+                        .analyzer(TEXT_ANALYZER, an -> an.custom(c -> c
+                                .tokenizer("standard")
+                                .filter("lowercase", "german_normalization", "german_light_stemmer"))));
+    }
+
+    TypeMapping.Builder mappings(TypeMapping.Builder m) {
+        return m
+                .meta("schemaVersion", JsonData.of(SCHEMA_VERSION))
+                // Every write must name its owner route; an unrouted one would land on a shard searches never ask
+                .routing(r -> r.required(true))
+                // Unknown fields stay in _source without being indexed, so nothing gets a text+keyword pair by accident
+                .dynamic(DynamicMapping.False)
+                .properties("id", p -> p.long_(l -> l))
+                // Prefix suggestions: search_as_you_type adds edge n-gram and shingle subfields
+                .properties("title", p -> p.text(t -> t
+                        .analyzer(TEXT_ANALYZER)
+                        .fields("suggest", f -> f.searchAsYouType(a -> a))))
+                .properties("content", p -> p.text(t -> t.analyzer(TEXT_ANALYZER)))
+                .properties("summary", p -> p.text(t -> t.analyzer(TEXT_ANALYZER)))
+                .properties("summaryStatus", p -> p.keyword(k -> k))
+                // Full text only: no keyword copy of the (long) OCR text. Stored term vectors let more_like_this
+                // read the terms of a long document instead of re-analyzing its _source on every query
+                .properties("ocrText", p -> p.text(t -> t
+                        .analyzer(TEXT_ANALYZER)
+                        .termVector(ocrTermVectors ? TermVectorOption.Yes : TermVectorOption.No)))
+                // Exact, cacheable owner filter; documents without owner simply have no value
+                .properties("username", p -> p.keyword(k -> k))
+                .properties("createdAt", p -> p.date(d -> d))
+                .properties("documentDate", p -> p.date(d -> d))
+                .properties("tags", p -> p.keyword(k -> k.fields("suggest", f -> f.searchAsYouType(a -> a))))
+                // Read through doc values by the popularity boost; updated in place by DocumentPopularityService
+                .properties(DocumentPopularityService.FIELD, p -> p.long_(l -> l));
+    }
+}
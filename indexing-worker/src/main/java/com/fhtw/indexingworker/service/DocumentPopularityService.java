@@ -0,0 +1,262 @@
+package com.fhtw.indexingworker.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import com.fhtw.indexingworker.model.IndexedDocument;
+import com.fhtw.indexingworker.repo.DocumentAccessCount;
+import com.fhtw.indexingworker.repo.DocumentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the number of accesses of every document within the last {@code windowDays} days in the index
+ * ({@value #FIELD}), where the backend uses it to rank popular documents higher. The counts come from
+ * {@code document_access_daily}, which the access-log worker fills once a night; the sync only writes documents
+ * whose count changed, as partial updates. Newly indexed documents get their count when they are written, so a
+ * re-OCR or rebuild does not reset it.
+ * <p>
+ * The access-log worker sends no signal when it is done, so the sync does not rely on its schedule: it waits until
+ * the previous day's rows exist and stopped changing between two checks. If none have appeared {@code maxWait}
+ * after midnight (no accesses that day, or the aggregation is broken), it syncs anyway, so older accesses still
+ * fall out of the window.
+ */
+@Service
+public class DocumentPopularityService {
+    private static final Logger log = LoggerFactory.getLogger(DocumentPopularityService.class);
+
+    static final String FIELD = "recentAccessCount";
+    private static final int PAGE_SIZE = 1000;
+
+    private final ElasticsearchClient client;
+    private final DocumentRepository documentRepository;
+    private final DocumentIndexSchema indexSchema;
+    private final int windowDays;
+    private final int batchSize;
+    private final Duration maxWait;
+    private final Clock clock;
+
+    // Day whose accesses the last daily sync waited for, and the row count of that day at the previous check;
+    // only touched by the scheduler thread
+    private LocalDate syncedDay;
+    private LocalDate checkedDay;
+    private long checkedRows;
+
+    @Autowired
+    public DocumentPopularityService(ElasticsearchClient client,
+                                     DocumentRepository documentRepository,
+                                     DocumentIndexSchema indexSchema,
+                                     @Value("${indexing.popularity.window-days:30}") int windowDays,
+                                     @Value("${indexing.popularity.batch-size:500}") int batchSize,
+                                     @Value("${indexing.popularity.max-wait-hours:12}") long maxWaitHours) {
+        this(client, documentRepository, indexSchema, windowDays, batchSize, Duration.ofHours(maxWaitHours),
+                Clock.systemDefaultZone());
+    }
+
+    DocumentPopularityService(ElasticsearchClient client, DocumentRepository documentRepository,
+                              DocumentIndexSchema indexSchema, int windowDays, int batchSize, Duration maxWait,
+                              Clock clock) {
+        this.client = client;
+        this.documentRepository = documentRepository;
+        this.indexSchema = indexSchema;
+        this.windowDays = windowDays;
+        this.batchSize = batchSize;
+        this.maxWait = maxWait;
+        this.clock = clock;
+    }
+
+    /**
+     * Runs the daily sync once the access-log worker has finished aggregating the previous day. Also catches up
+     * after the worker was down, since the first check after startup finds that day not synced yet.
+     */
+    @Scheduled(fixedDelayString = "${indexing.popularity.check-ms:600000}",
+            initialDelayString = "${indexing.popularity.check-ms:600000}")
+    public void scheduledSync() {
+        try {
+            syncWhenAggregated();
+        } catch (Exception e) {
+            log.warn("INDEX: popularity sync failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * One check of the daily sync.
+     *
+     * @return whether the sync ran
+     */
+    boolean syncWhenAggregated() throws IOException {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDate day = now.toLocalDate().minusDays(1);
+        if (day.equals(syncedDay)) {
+            return false;
+        }
+        long rows = documentRepository.countAccessDays(day);
+        // Rows are written one by one; unchanged since the last check means the aggregation has finished
+        boolean aggregated = rows > 0 && day.equals(checkedDay) && rows == checkedRows;
+        checkedDay = day;
+        checkedRows = rows;
+        boolean overdue = !now.isBefore(now.toLocalDate().atStartOfDay().plus(maxWait));
+        if (!aggregated && !overdue) {
+            log.debug("INDEX: waiting for the access counts of {} ({} rows so far)", day, rows);
+            return false;
+        }
+        if (!aggregated) {
+            log.warn("INDEX: access counts of {} incomplete or missing after {} h; syncing what there is",
+                    day, maxWait.toHours());
+        }
+        sync();
+        syncedDay = day;
+        return true;
+    }
+
+    /**
+     * Writes the current access counts into the index, touching only documents whose count changed
+     * (including those whose accesses fell out of the window).
+     *
+     * @return number of documents updated
+     */
+    public synchronized int sync() throws IOException {
+        indexSchema.ensureIndex();
+        List<DocumentAccessCount> accessed = documentRepository.sumAccessCountsSince(windowStart());
+        Map<Long, Long> current = toMap(accessed);
+        // Partial updates have to reach the document's shard, so each one carries the owner route
+        Map<Long, String> routes = new HashMap<>();
+        Map<Long, Long> indexed = indexedCounts(routes);
+        for (DocumentAccessCount count : accessed) {
+            routes.put(count.getDocumentId(), DocumentIndexSchema.routing(count.getUsername()));
+        }
+
+        Map<Long, Long> changed = new LinkedHashMap<>();
+        current.forEach((id, count) -> {
+            if (!count.equals(indexed.get(id))) {
+                changed.put(id, count);
+            }
+        });
+        for (Long id : indexed.keySet()) {
+            if (!current.containsKey(id)) {
+                changed.put(id, 0L);
+            }
+        }
+
+        List<String> indices = indexSchema.writeIndices();
+        List<Map.Entry<Long, Long>> updates = new ArrayList<>(changed.entrySet());
+        int updated = 0;
+        for (int from = 0; from < updates.size(); from += batchSize) {
+            updated += sendUpdates(updates.subList(from, Math.min(from + batchSize, updates.size())), routes, indices);
+        }
+        log.info("INDEX: popularity sync updated {} of {} changed documents ({} accessed in the last {} days)",
+                updated, changed.size(), current.size(), windowDays);
+        return updated;
+    }
+
+    /**
+     * Current access count of a document, for writing it together with the rest of the document.
+     */
+    long accessCount(Long documentId) {
+        return accessCounts(List.of(documentId)).getOrDefault(documentId, 0L);
+    }
+
+    /**
+     * Current access counts of the given documents; documents without accesses are missing from the map.
+     */
+    Map<Long, Long> accessCounts(Collection<Long> documentIds) {
+        if (documentIds.isEmpty()) {
+            return Map.of();
+        }
+        return toMap(documentRepository.sumAccessCountsSince(documentIds, windowStart()));
+    }
+
+    private LocalDate windowStart() {
+        return LocalDate.now(clock).minusDays(windowDays - 1L);
+    }
+
+    // Only documents with a non-zero count are read back; everything else counts as 0 already
+    private Map<Long, Long> indexedCounts(Map<Long, String> routes) throws IOException {
+        Map<Long, Long> counts = new HashMap<>();
+        List<FieldValue> after = null;
+        while (true) {
+            List<FieldValue> searchAfter = after;
+            SearchResponse<IndexedDocument> response = client.search(SearchRequest.of(s -> {
+                s.index(indexSchema.alias())
+                        .query(q -> q.range(r -> r.number(n -> n.field(FIELD).gt(0.0))))
+                        .source(src -> src.filter(f -> f.includes(FIELD)))
+                        .sort(o -> o.field(f -> f.field("id").order(SortOrder.Asc)))
+                        .trackTotalHits(t -> t.enabled(false))
+                        .size(PAGE_SIZE);
+                if (searchAfter != null) {
+                    s.searchAfter(searchAfter);
+                }
+                return s;
+            }), IndexedDocument.class);
+            List<Hit<IndexedDocument>> hits = response.hits().hits();
+            for (Hit<IndexedDocument> hit : hits) {
+                if (hit.source() != null && hit.source().getRecentAccessCount() != null) {
+                    counts.put(Long.valueOf(hit.id()), hit.source().getRecentAccessCount());
+                    routes.put(Long.valueOf(hit.id()), hit.routing());
+                }
+            }
+            if (hits.size() < PAGE_SIZE) {
+                return counts;
+            }
+            after = hits.get(hits.size() - 1).sort();
+        }
+    }
+
+    private int sendUpdates(List<Map.Entry<Long, Long>> counts, Map<Long, String> routes,
+                            List<String> indices) throws IOException {
+        List<BulkOperation> operations = new ArrayList<>(counts.size() * indices.size());
+        for (Map.Entry<Long, Long> count : counts) {
+            Map<String, Long> partial = Map.of(FIELD, count.getValue());
+            String route = routes.get(count.getKey());
+            for (String index : indices) {
+                operations.add(BulkOperation.of(op -> op.update(u -> u
+                        .index(index)
+                        .id(String.valueOf(count.getKey()))
+                        .routing(route)
+                        .action(a -> a.doc(partial)))));
+            }
+        }
+        BulkResponse response = client.bulk(BulkRequest.of(b -> b.operations(operations)));
+        Set<String> rejected = new HashSet<>();
+        if (response.errors()) {
+            for (BulkResponseItem item : response.items()) {
+                // Accessed documents that are not indexed (yet) are expected; they get the count when indexed
+                if (item.error() != null && rejected.add(item.id()) && item.status() != 404) {
+                    log.warn("INDEX: could not update access count of docId={}: {}", item.id(), item.error().reason());
+                }
+            }
+        }
+        return counts.size() - rejected.size();
+    }
+
+    private static Map<Long, Long> toMap(List<DocumentAccessCount> counts) {
+        return counts.stream().collect(Collectors.toMap(DocumentAccessCount::getDocumentId,
+                DocumentAccessCount::getAccessCount, Long::sum));
+    }
+}
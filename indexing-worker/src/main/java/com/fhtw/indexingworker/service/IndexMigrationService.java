@@ -0,0 +1,289 @@
+package com.fhtw.indexingworker.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.Conflicts;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.OpType;
+import co.elastic.clients.elasticsearch._types.Refresh;
+import co.elastic.clients.elasticsearch._types.SlicesCalculation;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.MgetRequest;
+import co.elastic.clients.elasticsearch.core.MgetResponse;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.mget.MultiGetOperation;
+import co.elastic.clients.elasticsearch.core.mget.MultiGetResponseItem;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.elasticsearch.tasks.GetTasksResponse;
+import co.elastic.clients.json.JsonData;
+import com.fhtw.indexingworker.dto.ReindexStatusDto;
+import com.fhtw.indexingworker.model.IndexedDocument;
+import jakarta.json.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Moves the documents alias to a freshly created index version without search downtime:
+ * the new index is created from the current template, filled with a server-side {@code _reindex}
+ * while new writes go to both indices, and then swapped in with one atomic alias update.
+ * The old index is dropped afterwards, which also reclaims the space of deleted documents.
+ * <p>
+ * The target carries a marker alias ({@link DocumentIndexSchema#migrationAlias()}) for as long as it needs the
+ * writes, which is how the other worker instances find it; creating it is also what keeps two migrations from
+ * running at once.
+ */
+@Service
+public class IndexMigrationService {
+    private static final Logger log = LoggerFactory.getLogger(IndexMigrationService.class);
+
+    private static final String ROUTING_SCRIPT =
+            "String owner = ctx._source.username; "
+                    + "ctx._routing = owner == null || owner.trim().isEmpty() ? '" + DocumentIndexSchema.SHARED_ROUTE + "' : owner;";
+
+    private final ElasticsearchClient client;
+    private final DocumentIndexSchema indexSchema;
+    private final long pollIntervalMs;
+    private final boolean deleteSource;
+
+    private static final int PAGE_SIZE = 1000;
+
+    private final AtomicReference<ReindexStatusDto> status = new AtomicReference<>(ReindexStatusDto.idle());
+
+    public IndexMigrationService(ElasticsearchClient client,
+                                 DocumentIndexSchema indexSchema,
+                                 @Value("${elasticsearch.reindex.poll-interval-ms:2000}") long pollIntervalMs,
+                                 @Value("${elasticsearch.reindex.delete-source:true}") boolean deleteSource) {
+        this.client = client;
+        this.indexSchema = indexSchema;
+        this.pollIntervalMs = pollIntervalMs;
+        this.deleteSource = deleteSource;
+    }
+
+    public ReindexStatusDto status() {
+        return status.get();
+    }
+
+    /**
+     * Starts copying the current index into the next version in the background.
+     *
+     * @return the status of the started migration
+     * @throws IllegalStateException if a migration or a rebuild is already running (on any instance) or there
+     *                               is no index to migrate
+     */
+    public synchronized ReindexStatusDto startReindex() throws IOException {
+        if (status.get().state() == ReindexStatusDto.State.RUNNING) {
+            throw new IllegalStateException("A reindex is already running");
+        }
+        indexSchema.ensureIndex();
+        Optional<String> running = indexSchema.migrationTarget();
+        if (running.isPresent()) {
+            throw new IllegalStateException("A reindex into " + running.get() + " is already running or was interrupted; "
+                    + "delete that index to start over");
+        }
+        String source = indexSchema.currentIndex()
+                .orElseThrow(() -> new IllegalStateException("Index " + indexSchema.alias() + " does not exist"));
+        if (indexSchema.rebuildRunning()) {
+            throw new IllegalStateException("A rebuild is running; start the reindex once it has finished");
+        }
+        String target = indexSchema.physicalIndex(indexSchema.versionOf(source) + 1);
+        createTarget(target);
+        // A rebuild checks for the target after setting its marker, so of two starting at once one sees the other
+        if (indexSchema.rebuildRunning()) {
+            Thread.ofVirtual().name("reindex-abandon-" + target).start(() -> abandon(target));
+            throw new IllegalStateException("A rebuild started at the same time; start the reindex once it has finished");
+        }
+        indexSchema.refreshWriteIndices();
+
+        ReindexStatusDto started = new ReindexStatusDto(ReindexStatusDto.State.RUNNING, source, target, 0, 0,
+                Instant.now(), null, null);
+        status.set(started);
+        Thread.ofVirtual().name("reindex-" + target).start(() -> run(source, target));
+        return started;
+    }
+
+    // Replicas and refreshes only slow down the bulk copy; both are restored before the swap
+    private void createTarget(String target) throws IOException {
+        try {
+            client.indices().create(c -> c
+                    .index(target)
+                    .aliases(indexSchema.migrationAlias(), a -> a)
+                    .settings(s -> s.numberOfReplicas("0").refreshInterval(t -> t.time("-1"))));
+        } catch (ElasticsearchException e) {
+            if ("resource_already_exists_exception".equals(e.error().type())) {
+                throw new IllegalStateException("Index " + target + " already exists; another reindex is running "
+                        + "or was interrupted");
+            }
+            throw e;
+        }
+    }
+
+    void run(String source, String target) {
+        try {
+            // Other instances notice the target within one check interval; once they all dual-write, nothing
+            // written from here on can be missing from the copy
+            Thread.sleep(2 * indexSchema.targetCheckMillis());
+
+            // op_type=create keeps documents the dual write already put into the new index
+            String task = client.reindex(r -> r
+                    .source(s -> s.index(source).size(1000))
+                    .dest(d -> d.index(target).opType(OpType.Create))
+                    // Documents from indices before owner routing carry no _routing; derive it like new writes do
+                    .script(sc -> sc.lang("painless").source(ROUTING_SCRIPT))
+                    .conflicts(Conflicts.Proceed)
+                    .slices(s -> s.computed(SlicesCalculation.Auto))
+                    .waitForCompletion(false)).task();
+            awaitTask(task);
+
+            client.indices().putSettings(p -> p
+                    .index(target)
+                    .settings(s -> s.numberOfReplicas(indexSchema.replicas()).refreshInterval(t -> t.time("1s"))));
+            client.indices().refresh(r -> r.index(target));
+            int removed = removeDeletedDuringCopy(source, target);
+            swapAlias(source, target);
+            status.updateAndGet(ReindexStatusDto::done);
+            log.info("INDEX: reindexed {} into {} and moved alias {} ({} documents deleted during the copy removed)",
+                    source, target, indexSchema.alias(), removed);
+        } catch (Exception e) {
+            log.error("INDEX: reindex of {} into {} failed", source, target, e);
+            status.updateAndGet(s -> s.failed(e.getMessage()));
+            abandon(target);
+        } finally {
+            indexSchema.refreshWriteIndices();
+        }
+    }
+
+    /**
+     * Removes documents from the target that the source no longer has. A document deleted while the copy ran is
+     * deleted from both indices, but the copy still creates it again from its snapshot of the source; since every
+     * write reaches the source first, anything only the target has is such a leftover. Existence is checked with
+     * realtime gets, so writes the source has not refreshed yet still count.
+     *
+     * @return number of documents removed
+     */
+    int removeDeletedDuringCopy(String source, String target) throws IOException {
+        boolean sourceRouted = indexSchema.routingRequired(source);
+        int removed = 0;
+        List<FieldValue> after = null;
+        while (true) {
+            List<FieldValue> searchAfter = after;
+            SearchResponse<IndexedDocument> response = client.search(SearchRequest.of(s -> {
+                s.index(target)
+                        .source(src -> src.fetch(false))
+                        .sort(o -> o.field(f -> f.field("id").order(SortOrder.Asc)))
+                        .trackTotalHits(t -> t.enabled(false))
+                        .size(PAGE_SIZE);
+                if (searchAfter != null) {
+                    s.searchAfter(searchAfter);
+                }
+                return s;
+            }), IndexedDocument.class);
+            List<Hit<IndexedDocument>> hits = response.hits().hits();
+            if (hits.isEmpty()) {
+                return removed;
+            }
+            List<MultiGetOperation> gets = hits.stream()
+                    .map(hit -> MultiGetOperation.of(g -> g.id(hit.id()).routing(sourceRouted ? hit.routing() : null)))
+                    .toList();
+            MgetResponse<IndexedDocument> existing = client.mget(MgetRequest.of(m -> m
+                    .index(source)
+                    .source(src -> src.fetch(false))
+                    .docs(gets)), IndexedDocument.class);
+            List<BulkOperation> deletes = new ArrayList<>();
+            for (int i = 0; i < hits.size(); i++) {
+                MultiGetResponseItem<IndexedDocument> item = existing.docs().get(i);
+                if (item.isResult() && !item.result().found()) {
+                    Hit<IndexedDocument> hit = hits.get(i);
+                    deletes.add(BulkOperation.of(op -> op.delete(d -> d.index(target).id(hit.id()).routing(hit.routing()))));
+                }
+            }
+            if (!deletes.isEmpty()) {
+                client.bulk(BulkRequest.of(b -> b.operations(deletes).refresh(Refresh.True)));
+                removed += deletes.size();
+            }
+            if (hits.size() < PAGE_SIZE) {
+                return removed;
+            }
+            after = hits.get(hits.size() - 1).sort();
+        }
+    }
+
+    private void awaitTask(String task) throws IOException, InterruptedException {
+        while (true) {
+            GetTasksResponse response = client.tasks().get(g -> g.taskId(task));
+            JsonData taskStatus = response.task().status();
+            if (taskStatus != null) {
+                JsonObject counts = taskStatus.toJson().asJsonObject();
+                status.updateAndGet(s -> s.progress(
+                        counts.getJsonNumber("total").longValue(), counts.getJsonNumber("created").longValue()));
+            }
+            if (response.completed()) {
+                if (response.error() != null) {
+                    throw new IllegalStateException("Reindex task failed: " + response.error().reason());
+                }
+                JsonObject result = response.response() != null ? response.response().toJson().asJsonObject() : null;
+                if (result != null && !result.getJsonArray("failures").isEmpty()) {
+                    throw new IllegalStateException("Reindex finished with failures: " + result.getJsonArray("failures"));
+                }
+                return;
+            }
+            Thread.sleep(pollIntervalMs);
+        }
+    }
+
+    // Readers switch from one index to the other in a single cluster state update, which also ends the dual writes
+    private void swapAlias(String source, String target) throws IOException {
+        String alias = indexSchema.alias();
+        boolean legacy = source.equals(alias);
+        client.indices().updateAliases(u -> {
+            u.actions(a -> a.add(add -> add.index(target).alias(alias).isWriteIndex(true)));
+            u.actions(a -> a.remove(r -> r.index(target).alias(indexSchema.migrationAlias())));
+            if (legacy) {
+                // The unversioned index occupies the alias name; it has to go in the same request
+                u.actions(a -> a.removeIndex(r -> r.index(source)));
+            } else {
+                u.actions(a -> a.remove(r -> r.index(source).alias(alias)));
+            }
+            return u;
+        });
+        if (!legacy && deleteSource) {
+            dropQuietly(source);
+        }
+    }
+
+    /**
+     * Stops the dual writes first and drops the target only once every instance has stopped writing to it;
+     * a write to an index that no longer exists would create it again.
+     */
+    private void abandon(String target) {
+        try {
+            client.indices().deleteAlias(d -> d.index(target).name(indexSchema.migrationAlias()));
+            indexSchema.refreshWriteIndices();
+            Thread.sleep(2 * indexSchema.targetCheckMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("INDEX: could not remove the reindex marker from {}: {}", target, e.getMessage());
+        }
+        dropQuietly(target);
+    }
+
+    private void dropQuietly(String index) {
+        try {
+            client.indices().delete(d -> d.index(index).ignoreUnavailable(true));
+        } catch (Exception e) {
+            log.warn("INDEX: could not delete index {}: {}", index, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.fhtw.indexingworker.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.Time;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.indices.IndexSettings;
+import co.elastic.clients.elasticsearch.indices.IndexState;
+import com.fhtw.indexingworker.dto.RebuildStatusDto;
+import com.fhtw.indexingworker.dto.ReindexStatusDto;
+import com.fhtw.indexingworker.model.DocumentEntity;
+import com.fhtw.indexingworker.model.IndexedDocument;
+import com.fhtw.indexingworker.repo.DocumentRepository;
+import io.minio.GetObjectArgs;
+import io.minio.MinioClient;
+import io.minio.errors.ErrorResponseException;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Rebuilds the search index from the database alone, e.g. after the index was lost. Rows are streamed in id
+ * order and sent as {@code _bulk} requests, several of them in flight at a time; the OCR text comes from the
+ * row, and only rows without it (OCR'd before the column existed) cost a MinIO read. Refreshes are switched off
+ * for the duration of the run.
+ * <p>
+ * A rebuild and a migration ({@link IndexMigrationService}) exclude each other across instances: the rebuild
+ * marks the index with {@link DocumentIndexSchema#rebuildAlias()} and refuses while a migration target exists.
+ */
+@Service
+public class IndexRebuildService {
+    private static final Logger log = LoggerFactory.getLogger(IndexRebuildService.class);
+    private static final String DEFAULT_REFRESH_INTERVAL = "1s";
+
+    private final ElasticsearchClient client;
+    private final MinioClient minioClient;
+    private final DocumentRepository documentRepository;
+    private final DocumentIndexSchema indexSchema;
+    private final DocumentPopularityService popularityService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int batchSize;
+    private final int maxInFlight;
+    private final String bucket;
+
+    private volatile ReindexStatusDto.State state = ReindexStatusDto.State.IDLE;
+    private volatile long total;
+    private final AtomicLong indexed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    public IndexRebuildService(ElasticsearchClient client,
+                               MinioClient minioClient,
+                               DocumentRepository documentRepository,
+                               DocumentIndexSchema indexSchema,
+                               DocumentPopularityService popularityService,
+                               EntityManager entityManager,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${elasticsearch.rebuild.batch-size:500}") int batchSize,
+                               @Value("${elasticsearch.rebuild.max-in-flight:4}") int maxInFlight,
+                               @Value("${MINIO_BUCKET:documents}") String bucket) {
+        this.client = client;
+        this.minioClient = minioClient;
+        this.documentRepository = documentRepository;
+        this.indexSchema = indexSchema;
+        this.popularityService = popularityService;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.batchSize = batchSize;
+        this.maxInFlight = maxInFlight;
+        this.bucket = bucket;
+    }
+
+    public RebuildStatusDto status() {
+        Instant start = startedAt;
+        double docsPerSecond = 0;
+        if (start != null) {
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            long millis = Math.max(1, Duration.between(start, end).toMillis());
+            docsPerSecond = Math.round(indexed.get() * 10_000.0 / millis) / 10.0;
+        }
+        return new RebuildStatusDto(state, total, indexed.get(), failed.get(), docsPerSecond, start, finishedAt, error);
+    }
+
+    /**
+     * Starts a rebuild in the background.
+     *
+     * @throws IllegalStateException if a rebuild or a migration is already running (on any instance)
+     */
+    public synchronized RebuildStatusDto startRebuild() throws IOException {
+        if (state == ReindexStatusDto.State.RUNNING) {
+            throw new IllegalStateException("A rebuild is already running");
+        }
+        indexSchema.ensureIndex();
+        if (indexSchema.migrationTarget().isPresent()) {
+            throw new IllegalStateException("A reindex is running; start the rebuild once it has finished");
+        }
+        if (indexSchema.rebuildRunning()) {
+            throw new IllegalStateException("A rebuild is already running on another instance");
+        }
+        String index = indexSchema.currentIndex()
+                .orElseThrow(() -> new IllegalStateException("Index " + indexSchema.alias() + " does not exist"));
+        client.indices().updateAliases(u -> u.actions(a -> a.add(add -> add.index(index).alias(indexSchema.rebuildAlias()))));
+        // A migration checks for the marker after creating its target, so of two starting at once one sees the other
+        if (indexSchema.migrationTarget().isPresent()) {
+            releaseMarker();
+            throw new IllegalStateException("A reindex started at the same time; start the rebuild once it has finished");
+        }
+        state = ReindexStatusDto.State.RUNNING;
+        Thread.ofVirtual().name("index-rebuild").start(this::rebuild);
+        return status();
+    }
+
+    void rebuild() {
+        state = ReindexStatusDto.State.RUNNING;
+        indexed.set(0);
+        failed.set(0);
+        error = null;
+        finishedAt = null;
+        startedAt = Instant.now();
+        List<String> indices = null;
+        Map<String, String> refreshIntervals = Map.of();
+        try {
+            indexSchema.ensureIndex();
+            indices = indexSchema.writeIndices();
+            total = documentRepository.count();
+            refreshIntervals = refreshIntervals(indices);
+            setRefreshInterval(indices, "-1");
+            copyAll(indices);
+            state = ReindexStatusDto.State.DONE;
+            log.info("INDEX: rebuilt {} documents ({} failed) into {}", indexed.get(), failed.get(), indices);
+        } catch (Exception e) {
+            log.error("INDEX: rebuild failed after {} documents", indexed.get(), e);
+            error = e.getMessage();
+            state = ReindexStatusDto.State.FAILED;
+        } finally {
+            // Empty if the intervals could not be read, in which case they were never switched off either
+            if (indices != null && !refreshIntervals.isEmpty()) {
+                restoreRefresh(indices, refreshIntervals);
+            }
+            releaseMarker();
+            finishedAt = Instant.now();
+        }
+    }
+
+    private void copyAll(List<String> indices) throws Exception {
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        // Closing the executor waits for the bulk requests still in flight
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            readOnlyTransaction.executeWithoutResult(tx -> {
+                try (Stream<DocumentEntity> documents = documentRepository.streamAllOrderById()) {
+                    Iterator<DocumentEntity> it = documents.iterator();
+                    List<IndexedDocument> batch = new ArrayList<>(batchSize);
+                    while (it.hasNext() && failure.get() == null) {
+                        batch.add(IndexedDocumentMapper.toIndexed(it.next(), null));
+                        if (batch.size() == batchSize || !it.hasNext()) {
+                            addAccessCounts(batch);
+                            // Blocks the reader while maxInFlight requests are outstanding
+                            inFlight.acquireUninterruptibly();
+                            List<IndexedDocument> chunk = batch;
+                            executor.submit(() -> {
+                                try {
+                                    sendBulk(withOcrText(chunk), indices);
+                                } catch (Exception e) {
+                                    failure.compareAndSet(null, e);
+                                } finally {
+                                    inFlight.release();
+                                }
+                            });
+                            batch = new ArrayList<>(batchSize);
+                            // Keep the persistence context from accumulating every streamed row
+                            entityManager.clear();
+                        }
+                    }
+                }
+            });
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    // One grouped query per batch instead of one per document
+    private void addAccessCounts(List<IndexedDocument> batch) {
+        Map<Long, Long> counts = popularityService.accessCounts(batch.stream().map(IndexedDocument::getId).toList());
+        for (IndexedDocument document : batch) {
+            document.setRecentAccessCount(counts.getOrDefault(document.getId(), 0L));
+        }
+    }
+
+    /**
+     * Reads the OCR text of rows that do not carry it from MinIO, where the OCR worker stores it. A document that
+     * was never OCR'd has no object and is indexed without text; one whose object cannot be read is skipped and
+     * counted as failed instead of overwriting its indexed text with nothing.
+     */
+    private List<IndexedDocument> withOcrText(List<IndexedDocument> documents) {
+        List<IndexedDocument> readable = new ArrayList<>(documents.size());
+        for (IndexedDocument document : documents) {
+            if (document.getOcrText() == null) {
+                String objectName = "documents/" + document.getId() + "/ocr.txt";
+                try (InputStream stream = minioClient.getObject(
+                        GetObjectArgs.builder().bucket(bucket).object(objectName).build())) {
+                    document.setOcrText(new String(stream.readAllBytes(), StandardCharsets.UTF_8));
+                } catch (ErrorResponseException e) {
+                    if (!"NoSuchKey".equals(e.errorResponse().code())) {
+                        skip(document, objectName, e);
+                        continue;
+                    }
+                } catch (Exception e) {
+                    skip(document, objectName, e);
+                    continue;
+                }
+            }
+            readable.add(document);
+        }
+        return readable;
+    }
+
+    private void skip(IndexedDocument document, String objectName, Exception e) {
+        log.warn("INDEX: rebuild could not read {}/{} for docId={}: {}", bucket, objectName, document.getId(),
+                e.getMessage());
+        failed.incrementAndGet();
+    }
+
+    private void sendBulk(List<IndexedDocument> documents, List<String> indices) throws IOException {
+        List<BulkOperation> operations = new ArrayList<>(documents.size() * indices.size());
+        for (IndexedDocument document : documents) {
+            for (String index : indices) {
+                operations.add(BulkOperation.of(op -> op.index(i -> i
+                        .index(index)
+                        .id(String.valueOf(document.getId()))
+                        .routing(DocumentIndexSchema.routing(document.getUsername()))
+                        .document(document))));
+            }
+        }
+        BulkResponse response = client.bulk(BulkRequest.of(b -> b.operations(operations)));
+        Set<String> rejected = new HashSet<>();
+        if (response.errors()) {
+            for (BulkResponseItem item : response.items()) {
+                if (item.error() != null && rejected.add(item.id()) && rejected.size() <= 3) {
+                    log.warn("INDEX: rebuild could not index docId={}: {}", item.id(), item.error().reason());
+                }
+            }
+        }
+        failed.addAndGet(rejected.size());
+        indexed.addAndGet(documents.size() - rejected.size());
+    }
+
+    private void setRefreshInterval(List<String> indices, String interval) throws IOException {
+        client.indices().putSettings(p -> p
+                .index(indices)
+                .settings(s -> s.refreshInterval(t -> t.time(interval))));
+    }
+
+    /**
+     * Refresh interval of each physical index behind {@code indices}, so the rebuild can put it back. An index
+     * without an explicit interval, or left at -1 by an interrupted run, gets the Elasticsearch default.
+     */
+    private Map<String, String> refreshIntervals(List<String> indices) throws IOException {
+        Map<String, String> intervals = new HashMap<>();
+        for (Map.Entry<String, IndexState> entry : client.indices().getSettings(g -> g.index(indices)).result().entrySet()) {
+            IndexSettings settings = entry.getValue().settings();
+            if (settings != null && settings.index() != null) {
+                settings = settings.index();
+            }
+            Time interval = settings != null ? settings.refreshInterval() : null;
+            boolean usable = interval != null && interval.isTime() && !"-1".equals(interval.time());
+            intervals.put(entry.getKey(), usable ? interval.time() : DEFAULT_REFRESH_INTERVAL);
+        }
+        return intervals;
+    }
+
+    private void restoreRefresh(List<String> indices, Map<String, String> intervals) {
+        try {
+            for (Map.Entry<String, String> entry : intervals.entrySet()) {
+                setRefreshInterval(List.of(entry.getKey()), entry.getValue());
+            }
+            client.indices().refresh(r -> r.index(indices));
+        } catch (Exception e) {
+            log.warn("INDEX: could not restore refresh interval on {}: {}", indices, e.getMessage());
+        }
+    }
+
+    private void releaseMarker() {
+        try {
+            client.indices().deleteAlias(d -> d.index("*").name(indexSchema.rebuildAlias()));
+        } catch (Exception e) {
+            log.warn("INDEX: could not remove the rebuild marker {}: {}", indexSchema.rebuildAlias(), e.getMessage());
+        }
+    }
+}
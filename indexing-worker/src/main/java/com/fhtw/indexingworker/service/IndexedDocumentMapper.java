@@ -0,0 +1,47 @@
+package com.fhtw.indexingworker.service;
+
+import com.fhtw.indexingworker.model.DocumentEntity;
+import com.fhtw.indexingworker.model.IndexedDocument;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds the index representation of a document row. Shared by single-document indexing and the full rebuild,
+ * so both write the same fields.
+ */
+final class IndexedDocumentMapper {
+
+    private IndexedDocumentMapper() {
+    }
+
+    /**
+     * @param ocrText OCR text to index; falls back to the text stored on the row if null or blank
+     */
+    static IndexedDocument toIndexed(DocumentEntity entity, String ocrText) {
+        IndexedDocument indexedDocument = new IndexedDocument(
+                entity.getId(),
+                entity.getTitle(),
+                entity.getContent(),
+                entity.getSummary(),
+                (ocrText != null && !ocrText.isBlank()) ? ocrText : entity.getOcrText(),
+                entity.getUsername(),
+                entity.getCreatedAt()
+        );
+        indexedDocument.setSummaryStatus(entity.getSummaryStatus());
+        indexedDocument.setDocumentDate(entity.getDocumentDate());
+        indexedDocument.setTags(parseTags(entity.getTags()));
+        return indexedDocument;
+    }
+
+    static List<String> parseTags(String tags) {
+        if (tags == null || tags.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(tags.split(","))
+                .map(String::trim)
+                .filter(tag -> !tag.isEmpty())
+                .distinct()
+                .toList();
+    }
+}
@@ -26,7 +26,8 @@ public class IndexingService {
     private final MinioClient minioClient;
     private final ElasticsearchClient elasticsearchClient;
     private final DocumentRepository documentRepository;
-    private final String indexName;
+    private final DocumentIndexSchema indexSchema;
+    private final DocumentPopularityService popularityService;
 
     @Value("${MINIO_BUCKET:documents}")
     private String defaultBucket;
@@ -34,21 +35,26 @@ public class IndexingService {
     public IndexingService(MinioClient minioClient,
                            ElasticsearchClient elasticsearchClient,
                            DocumentRepository documentRepository,
-                           @Value("${elasticsearch.index:documents}") String indexName) {
+                           DocumentIndexSchema indexSchema,
+                           DocumentPopularityService popularityService) {
         this.minioClient = minioClient;
         this.elasticsearchClient = elasticsearchClient;
         this.documentRepository = documentRepository;
-        this.indexName = indexName;
+        this.indexSchema = indexSchema;
+        this.popularityService = popularityService;
     }
 
-    public void indexDocument(IndexingRequestDto request) {
+    /**
+     * @return true if the document was written to the index, false if the request was ignored as malformed
+     */
+    public boolean indexDocument(IndexingRequestDto request) {
         if (request == null) {
             log.warn("INDEX: received null indexing request");
-            return;
+            return false;
         }
         if (request.getDocumentId() == null || request.getObjectName() == null || request.getObjectName().isBlank()) {
             log.warn("INDEX: missing data in request {}", request);
-            return;
+            return false;
         }
         long documentId = request.getDocumentId();
         String bucket = Optional.ofNullable(request.getBucket()).filter(b -> !b.isBlank()).orElse(defaultBucket);
@@ -60,23 +66,23 @@ public class IndexingService {
             DocumentEntity entity = documentRepository.findById(documentId)
                     .orElseThrow(() -> new IllegalStateException("Document not found for id=" + documentId));
 
-            IndexedDocument indexedDocument = new IndexedDocument(
-                    entity.getId(),
-                    entity.getTitle(),
-                    entity.getContent(),
-                    entity.getSummary(),
-                    (ocrText != null && !ocrText.isBlank()) ? ocrText : entity.getOcrText(),
-                    entity.getUsername(),
-                    entity.getCreatedAt()
-            );
+            IndexedDocument indexedDocument = IndexedDocumentMapper.toIndexed(entity, ocrText);
+            // The write replaces the whole document, so it has to carry the access count along
+            indexedDocument.setRecentAccessCount(popularityService.accessCount(documentId));
 
-            IndexRequest<IndexedDocument> indexRequest = IndexRequest.of(i -> i
-                    .index(indexName)
-                    .id(String.valueOf(documentId))
-                    .document(indexedDocument)
-            );
-            IndexResponse response = elasticsearchClient.index(indexRequest);
-            log.info("INDEX: stored docId={} into index={} result={}", documentId, indexName, response.result());
+            indexSchema.ensureIndex();
+            // While a reindex runs, the new index gets every write as well so none is lost at the alias swap
+            for (String index : indexSchema.writeIndices()) {
+                IndexRequest<IndexedDocument> indexRequest = IndexRequest.of(i -> i
+                        .index(index)
+                        .id(String.valueOf(documentId))
+                        .routing(DocumentIndexSchema.routing(entity.getUsername()))
+                        .document(indexedDocument)
+                );
+                IndexResponse response = elasticsearchClient.index(indexRequest);
+                log.info("INDEX: stored docId={} into index={} result={}", documentId, index, response.result());
+            }
+            return true;
         } catch (Exception e) {
             log.error("INDEX: failed indexing docId={} object={} bucket={}", documentId, objectName, bucket, e);
             throw new RuntimeException("Failed to index document " + documentId, e);
@@ -2,6 +2,7 @@ package com.fhtw.indexingworker.listener;
 
 import com.fhtw.indexingworker.dto.IndexingRequestDto;
 import com.fhtw.indexingworker.service.IndexingService;
+import com.fhtw.indexingworker.service.StatusEventPublisher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -16,11 +17,14 @@ class IndexingListenerTest {
     @Mock
     private IndexingService indexingService;
 
+    @Mock
+    private StatusEventPublisher statusEventPublisher;
+
     private IndexingListener listener;
 
     @BeforeEach
     void setup() {
-        listener = new IndexingListener(indexingService);
+        listener = new IndexingListener(indexingService, statusEventPublisher);
     }
 
     @Test
@@ -33,6 +37,26 @@ class IndexingListenerTest {
     @Test
     void onMessageIgnoresNull() {
         listener.onMessage(null);
-        verifyNoInteractions(indexingService);
+        verifyNoInteractions(indexingService, statusEventPublisher);
+    }
+
+    @Test
+    void onMessagePublishesIndexedEventOnSuccess() {
+        IndexingRequestDto dto = new IndexingRequestDto(2L, "documents", "documents/2/ocr.txt");
+        when(indexingService.indexDocument(dto)).thenReturn(true);
+
+        listener.onMessage(dto);
+
+        verify(statusEventPublisher).publish(2L, "INDEXING", "INDEXED");
+    }
+
+    @Test
+    void onMessagePublishesFailedEventWhenIndexingThrows() {
+        IndexingRequestDto dto = new IndexingRequestDto(3L, "documents", "documents/3/ocr.txt");
+        when(indexingService.indexDocument(dto)).thenThrow(new RuntimeException("es down"));
+
+        listener.onMessage(dto);
+
+        verify(statusEventPublisher).publish(3L, "INDEXING", "FAILED");
     }
 }
@@ -0,0 +1,108 @@
+package com.fhtw.indexingworker.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.mapping.TermVectorOption;
+import co.elastic.clients.elasticsearch._types.mapping.TypeMapping;
+import co.elastic.clients.elasticsearch.indices.ElasticsearchIndicesClient;
+import co.elastic.clients.elasticsearch.indices.GetAliasResponse;
+import co.elastic.clients.elasticsearch.indices.IndexSettings;
+import co.elastic.clients.transport.endpoints.BooleanResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentIndexSchemaTest {
+
+    @Mock
+    private ElasticsearchClient client;
+
+    @Mock
+    private ElasticsearchIndicesClient indices;
+
+    private DocumentIndexSchema indexSchema;
+
+    @BeforeEach
+    void setUp() {
+        indexSchema = new DocumentIndexSchema(client, "documents", "1", 3, true, 0);
+    }
+
+    @Test
+    void versionOfParsesPhysicalIndexNames() {
+        assertEquals(3, indexSchema.versionOf("documents_v3"));
+        assertEquals("documents_v4", indexSchema.physicalIndex(4));
+        // The unversioned index and foreign names count as version 0
+        assertEquals(0, indexSchema.versionOf("documents"));
+        assertEquals(0, indexSchema.versionOf("documents_vnext"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void writeIndicesIncludeMigrationTargetWhileReindexing() throws Exception {
+        // Given: a migration started by any instance marks its target with an alias
+        when(client.indices()).thenReturn(indices);
+        when(indices.existsAlias(any(Function.class))).thenReturn(new BooleanResponse(true), new BooleanResponse(false));
+        when(indices.getAlias(any(Function.class))).thenReturn(GetAliasResponse.of(g -> g
+                .result("documents_v2", a -> a.aliases(indexSchema.migrationAlias(), d -> d))));
+
+        // When/Then
+        assertEquals(List.of("documents", "documents_v2"), indexSchema.writeIndices());
+        assertEquals(List.of("documents"), indexSchema.writeIndices());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void writeIndicesAreCachedForTheCheckInterval() throws Exception {
+        // Given
+        DocumentIndexSchema cached = new DocumentIndexSchema(client, "documents", "1", 3, true, 60_000);
+        when(client.indices()).thenReturn(indices);
+        when(indices.existsAlias(any(Function.class))).thenReturn(new BooleanResponse(false));
+
+        // When
+        List<String> first = cached.writeIndices();
+        List<String> second = cached.writeIndices();
+
+        // Then: looked up once within the check interval
+        assertEquals(List.of("documents"), first);
+        assertEquals(first, second);
+        verify(indices, times(1)).existsAlias(any(Function.class));
+    }
+
+    @Test
+    void ocrTermVectorsAreAMappingOption() {
+        // Given
+        DocumentIndexSchema withoutTermVectors = new DocumentIndexSchema(client, "documents", "1", 3, false, 0);
+
+        // When
+        TypeMapping enabled = indexSchema.mappings(new TypeMapping.Builder()).build();
+        TypeMapping disabled = withoutTermVectors.mappings(new TypeMapping.Builder()).build();
+
+        // Then
+        assertEquals(TermVectorOption.Yes, enabled.properties().get("ocrText").text().termVector());
+        assertEquals(TermVectorOption.No, disabled.properties().get("ocrText").text().termVector());
+    }
+
+    @Test
+    void documentsAreRoutedByOwner() {
+        // When
+        TypeMapping mapping = indexSchema.mappings(new TypeMapping.Builder()).build();
+        IndexSettings settings = indexSchema.settings(new IndexSettings.Builder()).build();
+
+        // Then
+        assertTrue(mapping.routing().required());
+        assertEquals("3", settings.numberOfShards());
+        assertEquals("alice", DocumentIndexSchema.routing("alice"));
+        // Legacy documents without owner share one route
+        assertEquals(DocumentIndexSchema.SHARED_ROUTE, DocumentIndexSchema.routing(null));
+        assertEquals(DocumentIndexSchema.SHARED_ROUTE, DocumentIndexSchema.routing(" "));
+    }
+}
@@ -0,0 +1,158 @@
+package com.fhtw.indexingworker.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.elasticsearch.core.search.HitsMetadata;
+import com.fhtw.indexingworker.model.IndexedDocument;
+import com.fhtw.indexingworker.repo.DocumentAccessCount;
+import com.fhtw.indexingworker.repo.DocumentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentPopularityServiceTest {
+
+    @Mock
+    private ElasticsearchClient client;
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private DocumentIndexSchema indexSchema;
+
+    private DocumentPopularityService popularityService;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(Instant.parse("2026-03-31T12:00:00Z"), ZoneOffset.UTC);
+        popularityService = new DocumentPopularityService(client, documentRepository, indexSchema, 30, 500,
+                Duration.ofHours(12), clock);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void syncWritesOnlyChangedCounts() throws Exception {
+        // Given: document 2 is up to date, document 4 fell out of the window
+        when(indexSchema.alias()).thenReturn("documents");
+        when(indexSchema.writeIndices()).thenReturn(List.of("documents"));
+        when(documentRepository.sumAccessCountsSince(LocalDate.of(2026, 3, 2)))
+                .thenReturn(List.of(count(1L, 5L, "alice"), count(2L, 3L, null)));
+        SearchResponse<IndexedDocument> response = mock(SearchResponse.class);
+        when(response.hits()).thenReturn(HitsMetadata.of(m -> m.hits(List.of(indexed(2L, 3L, DocumentIndexSchema.SHARED_ROUTE), indexed(4L, 1L, "bob")))));
+        when(client.search(any(SearchRequest.class), eq(IndexedDocument.class))).thenReturn(response);
+        when(client.bulk(any(BulkRequest.class))).thenReturn(mock(BulkResponse.class));
+
+        // When
+        int updated = popularityService.sync();
+
+        // Then
+        assertEquals(2, updated);
+        ArgumentCaptor<BulkRequest> request = ArgumentCaptor.forClass(BulkRequest.class);
+        verify(client).bulk(request.capture());
+        List<BulkOperation> operations = request.getValue().operations();
+        assertEquals(List.of("1", "4"), operations.stream().map(op -> op.update().id()).toList());
+        // Each update goes to the owner's shard, whether the owner came from the database or the index
+        assertEquals(List.of("alice", "bob"), operations.stream().map(op -> op.update().routing()).toList());
+        assertEquals(Map.of(DocumentPopularityService.FIELD, 5L), operations.get(0).update().action().doc());
+        assertEquals(Map.of(DocumentPopularityService.FIELD, 0L), operations.get(1).update().action().doc());
+    }
+
+    @Test
+    void dailySyncWaitsUntilThePreviousDayStoppedChanging() throws Exception {
+        // Given: 03:00, the access-log worker is still writing the rows of March 30
+        Clock clock = Clock.fixed(Instant.parse("2026-03-31T03:00:00Z"), ZoneOffset.UTC);
+        popularityService = new DocumentPopularityService(client, documentRepository, indexSchema, 30, 500,
+                Duration.ofHours(12), clock);
+        when(documentRepository.countAccessDays(LocalDate.of(2026, 3, 30))).thenReturn(0L, 40L, 40L);
+        givenNothingToUpdate();
+
+        // When
+        boolean first = popularityService.syncWhenAggregated();
+        boolean second = popularityService.syncWhenAggregated();
+        boolean third = popularityService.syncWhenAggregated();
+        boolean fourth = popularityService.syncWhenAggregated();
+
+        // Then: synced once the row count held still, and only once that day
+        assertEquals(List.of(false, false, true, false), List.of(first, second, third, fourth));
+        verify(documentRepository, times(1)).sumAccessCountsSince(any(LocalDate.class));
+    }
+
+    @Test
+    void dailySyncRunsWithoutAccessesOnceOverdue() throws Exception {
+        // Given: noon, still no rows for March 30; the window has to move on anyway
+        when(documentRepository.countAccessDays(LocalDate.of(2026, 3, 30))).thenReturn(0L);
+        givenNothingToUpdate();
+
+        // When/Then
+        assertTrue(popularityService.syncWhenAggregated());
+        verify(documentRepository).sumAccessCountsSince(LocalDate.of(2026, 3, 2));
+    }
+
+    @Test
+    void accessCountIsZeroWithoutAccesses() {
+        // Given
+        when(documentRepository.sumAccessCountsSince(List.of(7L), LocalDate.of(2026, 3, 2))).thenReturn(List.of());
+
+        // When/Then
+        assertEquals(0L, popularityService.accessCount(7L));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenNothingToUpdate() throws Exception {
+        when(indexSchema.alias()).thenReturn("documents");
+        when(indexSchema.writeIndices()).thenReturn(List.of("documents"));
+        when(documentRepository.sumAccessCountsSince(any(LocalDate.class))).thenReturn(List.of());
+        SearchResponse<IndexedDocument> response = mock(SearchResponse.class);
+        when(response.hits()).thenReturn(HitsMetadata.of(m -> m.hits(List.of())));
+        when(client.search(any(SearchRequest.class), eq(IndexedDocument.class))).thenReturn(response);
+    }
+
+    private static Hit<IndexedDocument> indexed(Long id, Long count, String routing) {
+        IndexedDocument source = new IndexedDocument();
+        source.setRecentAccessCount(count);
+        return Hit.of(h -> h.index("documents_v1").id(String.valueOf(id)).routing(routing).source(source));
+    }
+
+    private static DocumentAccessCount count(Long documentId, Long accessCount, String username) {
+        return new DocumentAccessCount() {
+            @Override
+            public Long getDocumentId() {
+                return documentId;
+            }
+
+            @Override
+            public Long getAccessCount() {
+                return accessCount;
+            }
+
+            @Override
+            public String getUsername() {
+                return username;
+            }
+        };
+    }
+}
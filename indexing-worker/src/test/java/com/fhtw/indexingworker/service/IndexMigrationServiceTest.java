@@ -0,0 +1,135 @@
+package com.fhtw.indexingworker.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.MgetRequest;
+import co.elastic.clients.elasticsearch.core.MgetResponse;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.mget.MultiGetResponseItem;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.elasticsearch.core.search.HitsMetadata;
+import co.elastic.clients.elasticsearch.indices.ElasticsearchIndicesClient;
+import com.fhtw.indexingworker.dto.ReindexStatusDto;
+import com.fhtw.indexingworker.model.IndexedDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IndexMigrationServiceTest {
+
+    @Mock
+    private ElasticsearchClient client;
+
+    @Mock
+    private ElasticsearchIndicesClient indices;
+
+    @Mock
+    private DocumentIndexSchema indexSchema;
+
+    private IndexMigrationService migrationService;
+
+    @BeforeEach
+    void setUp() {
+        migrationService = new IndexMigrationService(client, indexSchema, 10, true);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void startReindexRefusesWhileAnotherInstanceMigrates() throws Exception {
+        // Given
+        when(indexSchema.migrationTarget()).thenReturn(Optional.of("documents_v3"));
+
+        // When
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> migrationService.startReindex());
+
+        // Then
+        assertTrue(e.getMessage().contains("documents_v3"));
+        verify(indices, never()).create(any(Function.class));
+        assertEquals(ReindexStatusDto.State.IDLE, migrationService.status().state());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void startReindexRefusesWhileARebuildRuns() throws Exception {
+        // Given
+        when(indexSchema.migrationTarget()).thenReturn(Optional.empty());
+        when(indexSchema.currentIndex()).thenReturn(Optional.of("documents_v2"));
+        when(indexSchema.rebuildRunning()).thenReturn(true);
+
+        // When / Then: the copy would miss what the rebuild writes after the snapshot
+        assertThrows(IllegalStateException.class, () -> migrationService.startReindex());
+        verify(indices, never()).create(any(Function.class));
+        assertEquals(ReindexStatusDto.State.IDLE, migrationService.status().state());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void removeDeletedDuringCopyDeletesDocumentsTheSourceNoLongerHas() throws Exception {
+        // Given: document 2 was deleted while the copy ran and created again from the snapshot
+        when(indexSchema.routingRequired("documents_v1")).thenReturn(true);
+        SearchResponse<IndexedDocument> page = mock(SearchResponse.class);
+        when(page.hits()).thenReturn(HitsMetadata.of(m -> m.hits(List.of(hit("1"), hit("2")))));
+        when(client.search(any(SearchRequest.class), eq(IndexedDocument.class))).thenReturn(page);
+        MgetResponse<IndexedDocument> existing = MgetResponse.of(m -> m.docs(List.of(found("1", true), found("2", false))));
+        when(client.mget(any(MgetRequest.class), eq(IndexedDocument.class))).thenReturn(existing);
+        when(client.bulk(any(BulkRequest.class))).thenReturn(mock(BulkResponse.class));
+
+        // When
+        int removed = migrationService.removeDeletedDuringCopy("documents_v1", "documents_v2");
+
+        // Then
+        assertEquals(1, removed);
+        ArgumentCaptor<MgetRequest> gets = ArgumentCaptor.forClass(MgetRequest.class);
+        verify(client).mget(gets.capture(), eq(IndexedDocument.class));
+        assertEquals("alice", gets.getValue().docs().get(0).routing());
+        ArgumentCaptor<BulkRequest> request = ArgumentCaptor.forClass(BulkRequest.class);
+        verify(client).bulk(request.capture());
+        BulkOperation delete = request.getValue().operations().get(0);
+        assertEquals("documents_v2", delete.delete().index());
+        assertEquals("2", delete.delete().id());
+        assertEquals("alice", delete.delete().routing());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedMigrationStopsDualWritesBeforeDroppingTarget() throws Exception {
+        // Given
+        when(client.indices()).thenReturn(indices);
+        when(client.reindex(any(Function.class))).thenThrow(new IOException("connection refused"));
+
+        // When
+        migrationService.run("documents_v1", "documents_v2");
+
+        // Then
+        assertEquals(ReindexStatusDto.State.FAILED, migrationService.status().state());
+        var order = inOrder(indices, indexSchema);
+        order.verify(indices).deleteAlias(any(Function.class));
+        order.verify(indexSchema).refreshWriteIndices();
+        order.verify(indices).delete(any(Function.class));
+    }
+
+    private static Hit<IndexedDocument> hit(String id) {
+        return Hit.of(h -> h.index("documents_v2").id(id).routing("alice"));
+    }
+
+    private static MultiGetResponseItem<IndexedDocument> found(String id, boolean found) {
+        return MultiGetResponseItem.of(i -> i.result(r -> r.index("documents_v1").id(id).found(found)));
+    }
+}
@@ -0,0 +1,243 @@
+package com.fhtw.indexingworker.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.indices.ElasticsearchIndicesClient;
+import co.elastic.clients.elasticsearch.indices.GetIndicesSettingsResponse;
+import co.elastic.clients.elasticsearch.indices.IndexState;
+import co.elastic.clients.elasticsearch.indices.PutIndicesSettingsRequest;
+import co.elastic.clients.util.ObjectBuilder;
+import com.fhtw.indexingworker.dto.RebuildStatusDto;
+import com.fhtw.indexingworker.dto.ReindexStatusDto;
+import com.fhtw.indexingworker.model.DocumentEntity;
+import com.fhtw.indexingworker.model.IndexedDocument;
+import com.fhtw.indexingworker.repo.DocumentRepository;
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
+import io.minio.MinioClient;
+import io.minio.errors.ErrorResponseException;
+import io.minio.messages.ErrorResponse;
+import jakarta.persistence.EntityManager;
+import okhttp3.Headers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IndexRebuildServiceTest {
+
+    @Mock
+    private ElasticsearchClient client;
+
+    @Mock
+    private ElasticsearchIndicesClient indicesClient;
+
+    @Mock
+    private MinioClient minioClient;
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private DocumentIndexSchema indexSchema;
+
+    @Mock
+    private DocumentPopularityService popularityService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IndexRebuildService rebuildService;
+
+    @BeforeEach
+    void setUp() {
+        rebuildService = new IndexRebuildService(client, minioClient, documentRepository, indexSchema, popularityService,
+                entityManager, transactionManager, 2, 1, "documents");
+    }
+
+    @Test
+    void rebuildSendsRowsInBulkBatches() throws Exception {
+        // Given
+        givenIndexWithRefreshInterval("1s");
+        when(documentRepository.count()).thenReturn(3L);
+        when(documentRepository.streamAllOrderById()).thenReturn(Stream.of(document(1L), document(2L), document(3L)));
+        when(popularityService.accessCounts(any())).thenReturn(Map.of(2L, 7L));
+        BulkResponse response = mock(BulkResponse.class);
+        when(client.bulk(any(BulkRequest.class))).thenReturn(response);
+
+        // When
+        rebuildService.rebuild();
+
+        // Then
+        ArgumentCaptor<BulkRequest> requests = ArgumentCaptor.forClass(BulkRequest.class);
+        verify(client, times(2)).bulk(requests.capture());
+        assertEquals(2, requests.getAllValues().get(0).operations().size());
+        assertEquals(1, requests.getAllValues().get(1).operations().size());
+        IndexedDocument second = (IndexedDocument) requests.getAllValues().get(0).operations().get(1).index().document();
+        assertEquals(7L, second.getRecentAccessCount());
+        RebuildStatusDto status = rebuildService.status();
+        assertEquals(ReindexStatusDto.State.DONE, status.state());
+        assertEquals(3, status.total());
+        assertEquals(3, status.indexed());
+        assertNotNull(status.finishedAt());
+        verify(indexSchema).ensureIndex();
+    }
+
+    @Test
+    void rebuildFailsWhenBulkRequestFails() throws Exception {
+        // Given
+        givenIndexWithRefreshInterval("1s");
+        when(documentRepository.count()).thenReturn(1L);
+        when(documentRepository.streamAllOrderById()).thenReturn(Stream.of(document(1L)));
+        when(client.bulk(any(BulkRequest.class))).thenThrow(new IOException("connection refused"));
+
+        // When
+        rebuildService.rebuild();
+
+        // Then: refreshes are switched back on regardless
+        RebuildStatusDto status = rebuildService.status();
+        assertEquals(ReindexStatusDto.State.FAILED, status.state());
+        assertEquals("connection refused", status.error());
+        assertEquals(0, status.indexed());
+        verify(indicesClient).refresh(any(Function.class));
+    }
+
+    @Test
+    void rebuildReadsMissingOcrTextFromMinio() throws Exception {
+        // Given: document 2 has no OCR text on the row, document 3 was never OCR'd, document 4's object is unreadable
+        givenIndexWithRefreshInterval("1s");
+        DocumentEntity withoutText = document(2L);
+        withoutText.setOcrText(null);
+        DocumentEntity neverOcrd = document(3L);
+        neverOcrd.setOcrText(null);
+        DocumentEntity unreadable = document(4L);
+        unreadable.setOcrText(null);
+        when(documentRepository.count()).thenReturn(4L);
+        when(documentRepository.streamAllOrderById())
+                .thenReturn(Stream.of(document(1L), withoutText, neverOcrd, unreadable));
+        when(popularityService.accessCounts(any())).thenReturn(Map.of());
+        when(minioClient.getObject(any(GetObjectArgs.class))).thenAnswer(invocation -> {
+            String object = invocation.getArgument(0, GetObjectArgs.class).object();
+            return switch (object) {
+                case "documents/2/ocr.txt" -> ocrObject(object, "text from minio");
+                case "documents/3/ocr.txt" -> throw minioError("NoSuchKey", object);
+                default -> throw minioError("AccessDenied", object);
+            };
+        });
+        when(client.bulk(any(BulkRequest.class))).thenReturn(mock(BulkResponse.class));
+
+        // When
+        rebuildService.rebuild();
+
+        // Then: only rows without text cost a read; the unreadable one is skipped instead of losing its text
+        verify(minioClient, times(3)).getObject(any(GetObjectArgs.class));
+        ArgumentCaptor<BulkRequest> requests = ArgumentCaptor.forClass(BulkRequest.class);
+        verify(client, times(2)).bulk(requests.capture());
+        List<IndexedDocument> sent = requests.getAllValues().stream()
+                .flatMap(r -> r.operations().stream())
+                .map(op -> (IndexedDocument) op.index().document())
+                .toList();
+        assertEquals(List.of(1L, 2L, 3L), sent.stream().map(IndexedDocument::getId).toList());
+        assertEquals("Scanned 1", sent.get(0).getOcrText());
+        assertEquals("text from minio", sent.get(1).getOcrText());
+        assertNull(sent.get(2).getOcrText());
+        RebuildStatusDto status = rebuildService.status();
+        assertEquals(3, status.indexed());
+        assertEquals(1, status.failed());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuildRestoresThePreviousRefreshInterval() throws Exception {
+        // Given
+        givenIndexWithRefreshInterval("30s");
+        when(documentRepository.count()).thenReturn(0L);
+        when(documentRepository.streamAllOrderById()).thenReturn(Stream.empty());
+
+        // When
+        rebuildService.rebuild();
+
+        // Then: switched off for the run, then back to what it was
+        ArgumentCaptor<Function<PutIndicesSettingsRequest.Builder, ObjectBuilder<PutIndicesSettingsRequest>>> puts =
+                ArgumentCaptor.forClass(Function.class);
+        verify(indicesClient, times(2)).putSettings(puts.capture());
+        List<String> intervals = puts.getAllValues().stream()
+                .map(f -> f.apply(new PutIndicesSettingsRequest.Builder()).build())
+                .map(r -> r.settings().refreshInterval().time())
+                .toList();
+        assertEquals(List.of("-1", "30s"), intervals);
+    }
+
+    @Test
+    void startRebuildRefusesWhileAMigrationRuns() throws Exception {
+        // Given
+        when(indexSchema.migrationTarget()).thenReturn(Optional.of("documents_v4"));
+
+        // When / Then
+        assertThrows(IllegalStateException.class, () -> rebuildService.startRebuild());
+        verify(indicesClient, never()).updateAliases(any(Function.class));
+        assertEquals(ReindexStatusDto.State.IDLE, rebuildService.status().state());
+    }
+
+    @Test
+    void startRebuildRefusesWhileAnotherInstanceRebuilds() throws Exception {
+        // Given
+        when(indexSchema.migrationTarget()).thenReturn(Optional.empty());
+        when(indexSchema.rebuildRunning()).thenReturn(true);
+
+        // When / Then
+        assertThrows(IllegalStateException.class, () -> rebuildService.startRebuild());
+        verify(indicesClient, never()).updateAliases(any(Function.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenIndexWithRefreshInterval(String interval) throws IOException {
+        when(client.indices()).thenReturn(indicesClient);
+        when(indexSchema.writeIndices()).thenReturn(List.of("documents"));
+        GetIndicesSettingsResponse settings = GetIndicesSettingsResponse.of(r -> r.result(Map.of("documents_v3",
+                IndexState.of(st -> st.settings(s -> s.index(i -> i.refreshInterval(t -> t.time(interval))))))));
+        when(indicesClient.getSettings(any(Function.class))).thenReturn(settings);
+    }
+
+    private static GetObjectResponse ocrObject(String object, String text) {
+        return new GetObjectResponse(Headers.of(), "documents", null, object,
+                new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static ErrorResponseException minioError(String code, String object) {
+        return new ErrorResponseException(
+                new ErrorResponse(code, code, "documents", object, object, "request", "host"), null, null);
+    }
+
+    private static DocumentEntity document(Long id) {
+        DocumentEntity entity = new DocumentEntity();
+        entity.setId(id);
+        entity.setTitle("Doc " + id);
+        entity.setOcrText("Scanned " + id);
+        return entity;
+    }
+}
@@ -0,0 +1,42 @@
+package com.fhtw.indexingworker.service;
+
+import com.fhtw.indexingworker.model.DocumentEntity;
+import com.fhtw.indexingworker.model.IndexedDocument;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IndexedDocumentMapperTest {
+
+    @Test
+    void toIndexedCopiesRowAndPrefersGivenOcrText() {
+        // Given
+        DocumentEntity entity = new DocumentEntity();
+        entity.setId(7L);
+        entity.setTitle("Invoice");
+        entity.setUsername("alice");
+        entity.setOcrText("stored text");
+        entity.setDocumentDate(LocalDate.of(2024, 3, 1));
+        entity.setTags("tax, 2024");
+
+        // When
+        IndexedDocument fromObject = IndexedDocumentMapper.toIndexed(entity, "object text");
+        IndexedDocument fromRow = IndexedDocumentMapper.toIndexed(entity, null);
+
+        // Then
+        assertEquals("object text", fromObject.getOcrText());
+        assertEquals("stored text", fromRow.getOcrText());
+        assertEquals("alice", fromRow.getUsername());
+        assertEquals(LocalDate.of(2024, 3, 1), fromRow.getDocumentDate());
+        assertEquals(List.of("tax", "2024"), fromRow.getTags());
+    }
+
+    @Test
+    void parseTagsSplitsTrimsAndDeduplicates() {
+        assertEquals(List.of("tax", "2024", "invoice"), IndexedDocumentMapper.parseTags(" tax, 2024,,invoice ,tax"));
+        assertEquals(List.of(), IndexedDocumentMapper.parseTags(null));
+    }
+}
@@ -9,19 +9,22 @@ import com.fhtw.indexingworker.repo.DocumentRepository;
 import io.minio.GetObjectArgs;
 import io.minio.GetObjectResponse;
 import io.minio.MinioClient;
+import okhttp3.Headers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -37,14 +40,22 @@ class IndexingServiceTest {
     @Mock
     private DocumentRepository documentRepository;
 
+    @Mock
+    private DocumentIndexSchema indexSchema;
+
+    @Mock
+    private DocumentPopularityService popularityService;
+
     private IndexingService indexingService;
 
     @BeforeEach
     void setup() {
-        indexingService = new IndexingService(minioClient, elasticsearchClient, documentRepository, "documents");
+        indexingService = new IndexingService(minioClient, elasticsearchClient, documentRepository, indexSchema,
+                popularityService);
     }
 
     @Test
+    @SuppressWarnings("unchecked")
     void indexDocumentStoresPayloadInElasticsearch() throws Exception {
         IndexingRequestDto dto = new IndexingRequestDto(1L, "documents", "documents/1/ocr.txt");
 
@@ -56,26 +67,40 @@ class IndexingServiceTest {
         entity.setSummary("summary");
         when(documentRepository.findById(1L)).thenReturn(Optional.of(entity));
 
-        ByteArrayInputStream bais = new ByteArrayInputStream("hello elastic".getBytes(StandardCharsets.UTF_8));
-        GetObjectResponse response = mock(GetObjectResponse.class);
-        when(response.read()).thenAnswer(invocation -> bais.read());
-        when(response.read(any(byte[].class))).thenAnswer(invocation -> bais.read(invocation.getArgument(0)));
-        when(response.read(any(byte[].class), anyInt(), anyInt()))
-                .thenAnswer(invocation -> bais.read(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2)));
-        when(minioClient.getObject(any(GetObjectArgs.class))).thenReturn(response);
+        when(minioClient.getObject(any(GetObjectArgs.class))).thenReturn(ocrObject("hello elastic"));
 
         IndexResponse indexResponse = mock(IndexResponse.class);
         when(elasticsearchClient.index(any(IndexRequest.class))).thenReturn(indexResponse);
+        when(indexSchema.writeIndices()).thenReturn(List.of("documents"));
 
         indexingService.indexDocument(dto);
 
         verify(minioClient).getObject(any(GetObjectArgs.class));
-        verify(elasticsearchClient).index(any(IndexRequest.class));
+        verify(indexSchema).ensureIndex();
+        ArgumentCaptor<IndexRequest<?>> request = ArgumentCaptor.forClass(IndexRequest.class);
+        verify(elasticsearchClient).index(request.capture());
+        assertEquals("tester", request.getValue().routing());
+    }
+
+    @Test
+    void indexDocumentWritesToReindexTargetToo() throws Exception {
+        IndexingRequestDto dto = new IndexingRequestDto(1L, "documents", "documents/1/ocr.txt");
+        DocumentEntity entity = new DocumentEntity();
+        entity.setId(1L);
+        when(documentRepository.findById(1L)).thenReturn(Optional.of(entity));
+        when(minioClient.getObject(any(GetObjectArgs.class))).thenReturn(ocrObject(""));
+        when(elasticsearchClient.index(any(IndexRequest.class))).thenReturn(mock(IndexResponse.class));
+        when(indexSchema.writeIndices()).thenReturn(List.of("documents", "documents_v2"));
+
+        indexingService.indexDocument(dto);
+
+        verify(elasticsearchClient, times(2)).index(any(IndexRequest.class));
     }
 
     @Test
     void indexDocumentSkipsWhenDocumentMissing() throws Exception {
         IndexingRequestDto dto = new IndexingRequestDto(99L, "documents", "documents/99/ocr.txt");
+        when(minioClient.getObject(any(GetObjectArgs.class))).thenReturn(ocrObject("text"));
         when(documentRepository.findById(anyLong())).thenReturn(Optional.empty());
 
         assertThrows(RuntimeException.class, () -> indexingService.indexDocument(dto));
@@ -87,4 +112,10 @@ class IndexingServiceTest {
         indexingService.indexDocument(null);
         verifyNoInteractions(minioClient, elasticsearchClient, documentRepository);
     }
+
+    // A real response over a byte stream: a mocked one has no working readAllBytes
+    private static GetObjectResponse ocrObject(String text) {
+        return new GetObjectResponse(Headers.of(), "documents", null, "documents/1/ocr.txt",
+                new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+    }
 }
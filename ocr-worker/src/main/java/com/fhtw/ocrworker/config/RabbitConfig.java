@@ -1,5 +1,6 @@
 package com.fhtw.ocrworker.config;
 
+import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.rabbit.annotation.EnableRabbit;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
@@ -23,6 +24,9 @@ public class RabbitConfig {
     @Value("${rabbitmq.queue.indexing}")
     private String indexingQueueName;
 
+    @Value("${rabbitmq.exchange.status:document-status}")
+    private String statusExchange;
+
     @Bean
     public Queue ocrQueue() {
         return new Queue(ocrQueueName, true);
@@ -38,6 +42,11 @@ public class RabbitConfig {
         return new Queue(indexingQueueName, true);
     }
 
+    @Bean
+    public FanoutExchange documentStatusExchange() {
+        return new FanoutExchange(statusExchange, true, false);
+    }
+
     @Bean
     public MessageConverter jsonMessageConverter() {
         return new Jackson2JsonMessageConverter();
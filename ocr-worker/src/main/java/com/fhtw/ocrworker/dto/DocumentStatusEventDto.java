@@ -0,0 +1,58 @@
+package com.fhtw.ocrworker.dto;
+
+/**
+ * Processing status change of a document, published to the status fanout exchange.
+ */
+public class DocumentStatusEventDto {
+    private Long documentId;
+    private String stage;
+    private String status;
+    private long timestamp;
+
+    public DocumentStatusEventDto() {
+    }
+
+    public DocumentStatusEventDto(Long documentId, String stage, String status, long timestamp) {
+        this.documentId = documentId;
+        this.stage = stage;
+        this.status = status;
+        this.timestamp = timestamp;
+    }
+
+    public Long getDocumentId() {
+        return documentId;
+    }
+
+    public void setDocumentId(Long documentId) {
+        this.documentId = documentId;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+
+    public void setStage(String stage) {
+        this.stage = stage;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "DocumentStatusEventDto{documentId=" + documentId + ", stage='" + stage + "', status='" + status + "'}";
+    }
+}
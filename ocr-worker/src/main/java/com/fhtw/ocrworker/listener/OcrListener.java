@@ -2,6 +2,7 @@ package com.fhtw.ocrworker.listener;
 
 import com.fhtw.ocrworker.dto.OcrFileRequestDto;
 import com.fhtw.ocrworker.service.OcrProcessorService;
+import com.fhtw.ocrworker.service.StatusEventPublisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
@@ -14,12 +15,14 @@ public class OcrListener {
     private static final Logger log = LoggerFactory.getLogger(OcrListener.class);
 
     private final OcrProcessorService ocrProcessorService;
+    private final StatusEventPublisher statusEventPublisher;
 
     @Value("${rabbitmq.queue.ocr}")
     private String queueName;
 
-    public OcrListener(OcrProcessorService ocrProcessorService) {
+    public OcrListener(OcrProcessorService ocrProcessorService, StatusEventPublisher statusEventPublisher) {
         this.ocrProcessorService = ocrProcessorService;
+        this.statusEventPublisher = statusEventPublisher;
     }
 
     @RabbitListener(queues = "${rabbitmq.queue.ocr}")
@@ -37,8 +40,10 @@ public class OcrListener {
         try {
             ocrProcessorService.processPdf(documentId, bucket, objectName);
             log.info("OCR processing completed: bucket={}, object={}, user={}", bucket, objectName, username);
+            statusEventPublisher.publish(documentId, "OCR", "DONE");
         } catch (Exception e) {
             log.error("Error processing OCR for bucket={}, object={}, user={}", bucket, objectName, username, e);
+            statusEventPublisher.publish(documentId, "OCR", "FAILED");
         }
     }
 }
@@ -2,6 +2,7 @@ package com.fhtw.ocrworker.listener;
 
 import com.fhtw.ocrworker.dto.OcrFileRequestDto;
 import com.fhtw.ocrworker.service.OcrProcessorService;
+import com.fhtw.ocrworker.service.StatusEventPublisher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -16,11 +17,14 @@ class OcrListenerTest {
     @Mock
     private OcrProcessorService ocrProcessorService;
 
+    @Mock
+    private StatusEventPublisher statusEventPublisher;
+
     private OcrListener ocrListener;
 
     @BeforeEach
     void setUp() {
-        ocrListener = new OcrListener(ocrProcessorService);
+        ocrListener = new OcrListener(ocrProcessorService, statusEventPublisher);
     }
 
     @Test
@@ -38,6 +42,7 @@ class OcrListenerTest {
         
         // Verify that the service was called with the correct parameters
         verify(ocrProcessorService).processPdf(1L, "test-bucket", "documents/1/input.pdf");
+        verify(statusEventPublisher).publish(1L, "OCR", "DONE");
     }
 
     @Test
@@ -46,7 +51,7 @@ class OcrListenerTest {
         ocrListener.onMessage(null);
         
         // Verify that the service was not called
-        verifyNoInteractions(ocrProcessorService);
+        verifyNoInteractions(ocrProcessorService, statusEventPublisher);
     }
 
     @Test
@@ -65,7 +70,8 @@ class OcrListenerTest {
         // Call the listener - it should catch the exception and not propagate it
         ocrListener.onMessage(dto);
         
-        // Verify that the service was called
+        // Verify that the service was called and the failure was announced
         verify(ocrProcessorService).processPdf(1L, "test-bucket", "documents/1/input.pdf");
+        verify(statusEventPublisher).publish(1L, "OCR", "FAILED");
     }
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ public class XmlImportProperties {
     private String archiveDir;
     private String filePattern;
     private String cron;
+    private int batchSize = 50;
 
     public String getInputDir() {
         return inputDir;
@@ -40,4 +41,12 @@ public class XmlImportProperties {
     public void setCron(String cron) {
         this.cron = cron;
     }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
 }
@@ -5,7 +5,10 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -14,7 +17,11 @@ import java.time.LocalDateTime;
 @Table(name = "document_entity", schema = "public")
 public class DocumentEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Same sequence and allocation size as the backend mapping. Like the table, the sequence is created by the
+    // backend (IdSequenceMigration), which also moves it past ids from before the sequences; this worker runs with
+    // ddl-auto=none and must not create it itself, or it could hand out ids of existing rows
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "document_entity_seq")
+    @SequenceGenerator(name = "document_entity_seq", sequenceName = "document_entity_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "title")
@@ -47,6 +54,21 @@ public class DocumentEntity {
     @Column(name = "tags", columnDefinition = "TEXT")
     private String tags;
 
+    // Shared row version; Hibernate initialises it on insert so backend ETags start at 0
+    @Version
+    @Column(name = "version", columnDefinition = "bigint default 0")
+    private Long version;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    void onCreate() {
+        if (updatedAt == null) {
+            updatedAt = createdAt != null ? createdAt : LocalDateTime.now();
+        }
+    }
+
     public Long getId() {
         return id;
     }
@@ -134,4 +156,20 @@ public class DocumentEntity {
     public void setTags(String tags) {
         this.tags = tags;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
 }
@@ -4,8 +4,11 @@ import com.fhtw.xmlimportworker.model.DocumentEntity;
 import com.fhtw.xmlimportworker.model.ImportedDocument;
 import com.fhtw.xmlimportworker.repo.DocumentRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.StringJoiner;
 
 @Service
@@ -17,6 +20,23 @@ public class XmlDocumentImporter {
     }
 
     public DocumentEntity importDocument(ImportedDocument importedDocument) {
+        return documentRepository.save(toEntity(importedDocument));
+    }
+
+    /**
+     * Import several documents in one transaction. With sequence ids and hibernate.jdbc.batch_size
+     * the inserts are sent as JDBC batches instead of one statement per row.
+     */
+    @Transactional
+    public List<DocumentEntity> importAll(List<ImportedDocument> importedDocuments) {
+        List<DocumentEntity> entities = new ArrayList<>(importedDocuments.size());
+        for (ImportedDocument importedDocument : importedDocuments) {
+            entities.add(toEntity(importedDocument));
+        }
+        return documentRepository.saveAll(entities);
+    }
+
+    private DocumentEntity toEntity(ImportedDocument importedDocument) {
         DocumentEntity entity = new DocumentEntity();
         entity.setTitle(importedDocument.title());
         entity.setFilename(importedDocument.filename());
@@ -41,6 +61,6 @@ public class XmlDocumentImporter {
             entity.setTags(tagValue.isBlank() ? null : tagValue);
         }
 
-        return documentRepository.save(entity);
+        return entity;
     }
 }
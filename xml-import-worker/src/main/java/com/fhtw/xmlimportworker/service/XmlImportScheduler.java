@@ -13,6 +13,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
 
 @Component
 public class XmlImportScheduler {
@@ -56,21 +58,55 @@ public class XmlImportScheduler {
             }
         }
 
+        int batchSize = Math.max(1, properties.getBatchSize());
+        List<Path> batchFiles = new ArrayList<>(batchSize);
+        List<ImportedDocument> batchDocs = new ArrayList<>(batchSize);
         try (DirectoryStream<Path> stream = Files.newDirectoryStream(inputDir, pattern)) {
             for (Path file : stream) {
                 if (Files.isDirectory(file)) {
                     continue;
                 }
-                handleFile(file, archiveDir, deleteProcessed);
+                try {
+                    batchDocs.add(parser.parse(file));
+                    batchFiles.add(file);
+                } catch (Exception e) {
+                    log.error("XMLIMPORT: failed to parse {}", file.getFileName(), e);
+                    continue;
+                }
+                if (batchDocs.size() >= batchSize) {
+                    importBatch(batchFiles, batchDocs, archiveDir, deleteProcessed);
+                }
             }
         } catch (IOException e) {
             log.error("XMLIMPORT: failed to scan input directory {}", inputDir, e);
         }
+        importBatch(batchFiles, batchDocs, archiveDir, deleteProcessed);
+    }
+
+    private void importBatch(List<Path> files, List<ImportedDocument> docs, Path archiveDir, boolean deleteProcessed) {
+        if (docs.isEmpty()) {
+            return;
+        }
+        try {
+            importer.importAll(List.copyOf(docs));
+            log.info("XMLIMPORT: imported batch of {} documents", docs.size());
+            for (Path file : files) {
+                archiveQuietly(file, archiveDir, deleteProcessed);
+            }
+        } catch (Exception e) {
+            // One bad row rolls back the whole batch; retry file by file so the others still get imported
+            log.warn("XMLIMPORT: batch import of {} documents failed, retrying individually", docs.size(), e);
+            for (int i = 0; i < docs.size(); i++) {
+                handleFile(files.get(i), docs.get(i), archiveDir, deleteProcessed);
+            }
+        } finally {
+            files.clear();
+            docs.clear();
+        }
     }
 
-    private void handleFile(Path file, Path archiveDir, boolean deleteProcessed) {
+    private void handleFile(Path file, ImportedDocument doc, Path archiveDir, boolean deleteProcessed) {
         try {
-            ImportedDocument doc = parser.parse(file);
             importer.importDocument(doc);
             archiveOrDelete(file, archiveDir, deleteProcessed);
         } catch (Exception e) {
@@ -78,6 +114,14 @@ public class XmlImportScheduler {
         }
     }
 
+    private void archiveQuietly(Path file, Path archiveDir, boolean deleteProcessed) {
+        try {
+            archiveOrDelete(file, archiveDir, deleteProcessed);
+        } catch (IOException e) {
+            log.error("XMLIMPORT: imported {} but failed to archive it", file.getFileName(), e);
+        }
+    }
+
     private void archiveOrDelete(Path file, Path archiveDir, boolean deleteProcessed) throws IOException {
         if (deleteProcessed) {
             Files.deleteIfExists(file);
@@ -15,6 +15,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -84,4 +85,21 @@ class XmlDocumentImporterTest {
         assertEquals("IMPORTED", saved.getSummaryStatus());
         assertNull(saved.getTags());
     }
+
+    @Test
+    void importAllSavesAllDocumentsInOneCall() {
+        ImportedDocument first = new ImportedDocument("A", "a.pdf", null, null, "xml-import", null, List.of());
+        ImportedDocument second = new ImportedDocument("B", "b.pdf", null, "summary", "xml-import", null, List.of("x"));
+
+        when(documentRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<DocumentEntity> saved = importer.importAll(List.of(first, second));
+
+        verify(documentRepository, times(1)).saveAll(anyList());
+        verify(documentRepository, never()).save(any(DocumentEntity.class));
+        assertEquals(2, saved.size());
+        assertEquals("IMPORTED", saved.get(0).getSummaryStatus());
+        assertEquals("OK", saved.get(1).getSummaryStatus());
+        assertEquals("x", saved.get(1).getTags());
+    }
 }
@@ -16,6 +16,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -60,13 +61,14 @@ class XmlImportSchedulerTest {
         );
 
         when(parser.parse(any(Path.class))).thenReturn(parsed);
-        when(importer.importDocument(any(ImportedDocument.class))).thenReturn(new DocumentEntity());
+        when(importer.importAll(anyList())).thenReturn(List.of(new DocumentEntity(), new DocumentEntity()));
 
         XmlImportScheduler scheduler = new XmlImportScheduler(props, parser, importer);
         scheduler.runImport();
 
         verify(parser, times(2)).parse(any(Path.class));
-        verify(importer, times(2)).importDocument(any(ImportedDocument.class));
+        verify(importer, times(1)).importAll(List.of(parsed, parsed));
+        verify(importer, never()).importDocument(any(ImportedDocument.class));
 
         assertFalse(Files.exists(xmlOne));
         assertFalse(Files.exists(xmlTwo));
@@ -97,13 +99,51 @@ class XmlImportSchedulerTest {
                 null,
                 List.of()
         ));
-        when(importer.importDocument(any(ImportedDocument.class))).thenReturn(new DocumentEntity());
+        when(importer.importAll(anyList())).thenReturn(List.of(new DocumentEntity()));
 
         XmlImportScheduler scheduler = new XmlImportScheduler(props, parser, importer);
         scheduler.runImport();
 
         verify(parser, times(1)).parse(any(Path.class));
-        verify(importer, times(1)).importDocument(any(ImportedDocument.class));
+        verify(importer, times(1)).importAll(anyList());
         assertFalse(Files.exists(xml));
     }
+
+    @Test
+    void splitsIntoBatchesAndRetriesFailedBatchFileByFile() throws Exception {
+        Path inbox = tempDir.resolve("inbox-batches");
+        Files.createDirectories(inbox);
+        for (int i = 0; i < 3; i++) {
+            Files.writeString(inbox.resolve("doc-" + i + ".xml"), "<document></document>");
+        }
+
+        XmlImportProperties props = new XmlImportProperties();
+        props.setInputDir(inbox.toString());
+        props.setArchiveDir("");
+        props.setFilePattern("*.xml");
+        props.setBatchSize(2);
+
+        ImportedDocument good = new ImportedDocument("Good", "good.pdf", null, null, "xml-import", null, List.of());
+        ImportedDocument bad = new ImportedDocument("Bad", "bad.pdf", null, null, "xml-import", null, List.of());
+        when(parser.parse(any(Path.class))).thenReturn(good, bad, good);
+        when(importer.importAll(anyList())).thenAnswer(invocation -> {
+            List<ImportedDocument> docs = invocation.getArgument(0);
+            if (docs.contains(bad)) {
+                throw new IllegalStateException("constraint violation");
+            }
+            return List.of(new DocumentEntity());
+        });
+        when(importer.importDocument(good)).thenReturn(new DocumentEntity());
+        when(importer.importDocument(bad)).thenThrow(new IllegalStateException("constraint violation"));
+
+        XmlImportScheduler scheduler = new XmlImportScheduler(props, parser, importer);
+        scheduler.runImport();
+
+        verify(importer, times(2)).importAll(anyList());
+        verify(importer, times(1)).importDocument(good);
+        verify(importer, times(1)).importDocument(bad);
+        try (var remaining = Files.list(inbox)) {
+            assertEquals(1, remaining.count());
+        }
+    }
 }